@@ -0,0 +1,39 @@
+package restaurant;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The BenchmarkRunner class is the entry point of benchmarks.jar.
+ * It accepts the usual JMH command line, and unless told otherwise writes the results as JSON
+ * to jmh-result.json and adds the gc profiler, so every score comes with the bytes allocated per operation.
+ * Usage: java -jar benchmarks.jar [JMH options] [benchmark regexp]
+ */
+public class BenchmarkRunner {
+    /**
+     * The main method runs the selected benchmarks.
+     * @param args The JMH command line options.
+     * @throws Exception If the options are invalid or a benchmark fails.
+     */
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListProfilers()
+                || commandLine.shouldListResultFormats() || commandLine.shouldListWithParams()) {
+            // Listing and help are handled by the stock JMH main
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON).result("jmh-result.json");
+        }
+        if (commandLine.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        new Runner(options.build()).run();
+    }
+}
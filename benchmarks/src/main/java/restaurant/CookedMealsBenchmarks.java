@@ -0,0 +1,119 @@
+package restaurant;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+
+/**
+ * The CookedMealsBenchmarks class measures contended addMeal/getMeal on the CookedMeals ring buffer,
+ * with 1, 2 and 4 chefs handing meals to as many waiters, for each wait strategy.
+ * Both sides wait in addMeal and getMeal as they do in the simulation. Once JMH ends the measurement
+ * they switch to offerMeal and pollMeal, which never wait and wake any thread still blocked on the other side.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CookedMealsBenchmarks {
+    /**
+     * The Pass class holds the ring buffer shared by the chefs and waiters of one group,
+     * created again for every iteration so each starts empty.
+     */
+    @State(Scope.Group)
+    public static class Pass {
+        // What chefs and waiters do while the buffer is full or empty
+        @Param({"YIELD", "PARK"})
+        WaitStrategy waitStrategy;
+
+        // Ring buffer under test
+        CookedMeals meals;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            meals = new CookedMeals(CookedMeals.DEFAULT_CAPACITY, waitStrategy);
+        }
+    }
+
+    /**
+     * The Chef class holds the meal one producer thread hands over again and again,
+     * so only the ring buffer's own allocations are measured.
+     */
+    @State(Scope.Thread)
+    public static class Chef {
+        // Meal added by this chef
+        final Order meal = new Order(1, 0, "Dish", 5);
+    }
+
+    @Benchmark @Group("addGet1x1") @GroupThreads(1)
+    public void addGet1x1Add(Pass pass, Chef chef, Control control) throws InterruptedException {
+        add(pass, chef, control);
+    }
+
+    @Benchmark @Group("addGet1x1") @GroupThreads(1)
+    public Order addGet1x1Get(Pass pass, Control control) throws InterruptedException {
+        return get(pass, control);
+    }
+
+    @Benchmark @Group("addGet2x2") @GroupThreads(2)
+    public void addGet2x2Add(Pass pass, Chef chef, Control control) throws InterruptedException {
+        add(pass, chef, control);
+    }
+
+    @Benchmark @Group("addGet2x2") @GroupThreads(2)
+    public Order addGet2x2Get(Pass pass, Control control) throws InterruptedException {
+        return get(pass, control);
+    }
+
+    @Benchmark @Group("addGet4x4") @GroupThreads(4)
+    public void addGet4x4Add(Pass pass, Chef chef, Control control) throws InterruptedException {
+        add(pass, chef, control);
+    }
+
+    @Benchmark @Group("addGet4x4") @GroupThreads(4)
+    public Order addGet4x4Get(Pass pass, Control control) throws InterruptedException {
+        return get(pass, control);
+    }
+
+    /**
+     * Adds a meal, waiting while the buffer is full; after the measurement, only if there is room.
+     * @param pass The ring buffer of the group.
+     * @param chef The producer thread's state.
+     * @param control The JMH control, telling when the measurement has ended.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    private static void add(Pass pass, Chef chef, Control control) throws InterruptedException {
+        if (control.stopMeasurement) {
+            pass.meals.offerMeal(chef.meal);
+        } else {
+            pass.meals.addMeal(chef.meal);
+        }
+    }
+
+    /**
+     * Takes a meal, waiting while the buffer is empty; after the measurement, only if one is there.
+     * @param pass The ring buffer of the group.
+     * @param control The JMH control, telling when the measurement has ended.
+     * @return The meal, or null if none was there after the measurement.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    private static Order get(Pass pass, Control control) throws InterruptedException {
+        if (control.stopMeasurement) {
+            return pass.meals.pollMeal();
+        }
+        return pass.meals.getMeal();
+    }
+}
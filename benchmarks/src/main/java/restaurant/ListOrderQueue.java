@@ -0,0 +1,42 @@
+package restaurant;
+
+import java.util.ArrayList;
+
+/**
+ * The ListOrderQueue class is the original OrderQueue, kept as the baseline the skip-list queue is compared with.
+ * It inserts with a linear scan into an ArrayList and takes with remove(0), under one monitor.
+ */
+public class ListOrderQueue {
+    // List of pending orders sorted by order time
+    private ArrayList<Order> orderQueue = new ArrayList<>();
+    // Semaphore counting the orders available
+    private CustomSemaphore ordersSemaphore = new CustomSemaphore(0);
+
+    /**
+     * Inserts the order before the first order with a longer order time.
+     * @param order The order to be added.
+     */
+    public synchronized void addOrder(Order order) {
+        int position = orderQueue.size();
+        for (int i = 0; i < orderQueue.size(); i++) {
+            if (order.getOrderTime() < orderQueue.get(i).getOrderTime()) {
+                position = i;
+                break;
+            }
+        }
+        orderQueue.add(position, order);
+        ordersSemaphore.release(order.getCustomerID());
+    }
+
+    /**
+     * Removes the first order, blocking until one is available.
+     * @return The first order in the queue.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public Order takeOrder() throws InterruptedException {
+        ordersSemaphore.acquire();
+        synchronized (this) {
+            return orderQueue.remove(0);
+        }
+    }
+}
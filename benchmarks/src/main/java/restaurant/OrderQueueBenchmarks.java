@@ -0,0 +1,170 @@
+package restaurant;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Control;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * The OrderQueueBenchmarks class measures contended addOrder/takeOrder on the skip-list OrderQueue,
+ * on the original ArrayList queue and on the WorkStealingKitchen (orders dealt to the chefs in turn),
+ * with 1, 2 and 4 chefs taking orders from as many customers.
+ * Chefs block in takeOrder as they do in the simulation. Once JMH ends the measurement they stop taking,
+ * while the customers keep adding until every thread is done, so a chef still blocked is always woken.
+ * Customers back off while too many orders are pending, so a fast producer cannot grow the queue without limit.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderQueueBenchmarks {
+    // Number of pending orders above which customers back off
+    private static final int BACKLOG = 1024;
+
+    /**
+     * The Queue interface is the blocking add/take view of the queue under test.
+     */
+    interface Queue {
+        void add(Order order);
+
+        Order take(int chefID) throws InterruptedException;
+    }
+
+    /**
+     * The Kitchen class holds the queue shared by the customers and chefs of one group,
+     * created again for every iteration so each starts empty.
+     */
+    @State(Scope.Group)
+    public static class Kitchen {
+        // Queue under test: "skipList" (OrderQueue), "list" (the original ArrayList queue)
+        // or "workStealing" (WorkStealingKitchen, one deque per chef)
+        @Param({"skipList", "list", "workStealing"})
+        String queue;
+
+        // Queue under test
+        Queue orders;
+        // Number of orders added and not yet taken
+        AtomicInteger pending;
+
+        @Setup(Level.Iteration)
+        public void setUp(BenchmarkParams params) {
+            if (queue.equals("list")) {
+                ListOrderQueue list = new ListOrderQueue();
+                orders = new Queue() {
+                    public void add(Order order) { list.addOrder(order); }
+                    public Order take(int chefID) throws InterruptedException { return list.takeOrder(); }
+                };
+            } else if (queue.equals("workStealing")) {
+                // One deque for each chef thread of the group
+                int numChefs = params.getThreadGroups()[1];
+                WorkStealingKitchen kitchen = new WorkStealingKitchen(numChefs, 1, KitchenMode.ROUND_ROBIN);
+                orders = new Queue() {
+                    public void add(Order order) { kitchen.addOrder(order); }
+                    public Order take(int chefID) throws InterruptedException { return kitchen.takeOrder(chefID); }
+                };
+            } else {
+                OrderQueue skipList = new OrderQueue(1);
+                orders = new Queue() {
+                    public void add(Order order) { skipList.addOrder(order); }
+                    public Order take(int chefID) throws InterruptedException { return skipList.takeOrder(); }
+                };
+            }
+            pending = new AtomicInteger();
+        }
+    }
+
+    /**
+     * The Customer class numbers the orders placed by one producer thread.
+     */
+    @State(Scope.Thread)
+    public static class Customer {
+        // Number of orders placed so far
+        int count;
+
+        /**
+         * Creates the next order, with preparation times spread over 1 to 30 minutes.
+         * @return A new order.
+         */
+        Order nextOrder() {
+            count++;
+            return new Order(count, 0, "Dish", 1 + (count * 31) % 30);
+        }
+    }
+
+    @Benchmark @Group("addTake1x1") @GroupThreads(1)
+    public void addTake1x1Add(Kitchen kitchen, Customer customer, Control control) {
+        add(kitchen, customer, control);
+    }
+
+    @Benchmark @Group("addTake1x1") @GroupThreads(1)
+    public Order addTake1x1Take(Kitchen kitchen, ThreadParams thread, Control control) throws InterruptedException {
+        return take(kitchen, thread, control);
+    }
+
+    @Benchmark @Group("addTake2x2") @GroupThreads(2)
+    public void addTake2x2Add(Kitchen kitchen, Customer customer, Control control) {
+        add(kitchen, customer, control);
+    }
+
+    @Benchmark @Group("addTake2x2") @GroupThreads(2)
+    public Order addTake2x2Take(Kitchen kitchen, ThreadParams thread, Control control) throws InterruptedException {
+        return take(kitchen, thread, control);
+    }
+
+    @Benchmark @Group("addTake4x4") @GroupThreads(4)
+    public void addTake4x4Add(Kitchen kitchen, Customer customer, Control control) {
+        add(kitchen, customer, control);
+    }
+
+    @Benchmark @Group("addTake4x4") @GroupThreads(4)
+    public Order addTake4x4Take(Kitchen kitchen, ThreadParams thread, Control control) throws InterruptedException {
+        return take(kitchen, thread, control);
+    }
+
+    /**
+     * Adds an order once the backlog has room for it; after the measurement, adds it regardless.
+     * @param kitchen The queue of the group.
+     * @param customer The producer thread's state.
+     * @param control The JMH control, telling when the measurement has ended.
+     */
+    private static void add(Kitchen kitchen, Customer customer, Control control) {
+        while (kitchen.pending.get() >= BACKLOG && !control.stopMeasurement) {
+            Thread.yield();
+        }
+        kitchen.orders.add(customer.nextOrder());
+        kitchen.pending.incrementAndGet();
+    }
+
+    /**
+     * Takes the first order, blocking until one is added; after the measurement, takes nothing.
+     * @param kitchen The queue of the group.
+     * @param thread The JMH thread parameters, numbering the chefs of the group from 0.
+     * @param control The JMH control, telling when the measurement has ended.
+     * @return The order, or null once the measurement has ended.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    private static Order take(Kitchen kitchen, ThreadParams thread, Control control) throws InterruptedException {
+        if (control.stopMeasurement) {
+            return null;
+        }
+        Order order = kitchen.orders.take(thread.getSubgroupThreadIndex() + 1);
+        kitchen.pending.decrementAndGet();
+        return order;
+    }
+}
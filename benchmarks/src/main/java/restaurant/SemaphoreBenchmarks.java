@@ -0,0 +1,48 @@
+package restaurant;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The SemaphoreBenchmarks class measures acquire/release on CustomSemaphore
+ * with many more threads than permits, as when parties compete for a few tables.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SemaphoreBenchmarks {
+    // Number of permits (tables)
+    private static final int PERMITS = 4;
+
+    // Semaphore under test
+    private CustomSemaphore semaphore;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        semaphore = new CustomSemaphore(PERMITS);
+    }
+
+    @Benchmark @Threads(16)
+    public void acquireRelease16Threads() throws InterruptedException {
+        semaphore.release(semaphore.acquire());
+    }
+
+    @Benchmark @Threads(256)
+    public void acquireRelease256Threads() throws InterruptedException {
+        semaphore.release(semaphore.acquire());
+    }
+}
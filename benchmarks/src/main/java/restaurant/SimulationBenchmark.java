@@ -0,0 +1,77 @@
+package restaurant;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The SimulationBenchmark class measures an end-to-end discrete-event run of a synthetic scenario,
+ * including parsing it, with the trace discarded. The score is customers simulated per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SimulationBenchmark {
+    // Number of customers in the scenario
+    private static final int CUSTOMERS = 20_000;
+    // Menu of the scenario
+    private static final String[] MENU = {"Burger", "Pasta", "Salad", "Steak"};
+
+    // Synthetic scenario, written once per trial
+    private File scenarioFile;
+    // Configuration of every run
+    private SimulationConfig config;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        scenarioFile = File.createTempFile("benchmark_scenario", ".txt");
+        Random random = new Random(42);
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(scenarioFile)))) {
+            // Enough staff and tables to serve about one customer per minute
+            out.println("NC=8 NW=4 NT=40");
+            out.println("Burger=00:05 Pasta=00:10 Salad=00:03 Steak=00:15");
+            int arrival = 0;
+            for (int id = 1; id <= CUSTOMERS; id++) {
+                arrival += random.nextInt(2);
+                out.println("ID=" + id + " ArrivalTime=" + RestaurantSimulation.minutesToTime(arrival) +
+                        " Order=" + MENU[random.nextInt(MENU.length)]);
+            }
+        }
+        config = new SimulationConfig();
+        config.setInputFile(scenarioFile.getPath());
+        config.setEngine("event");
+        config.setLogFormat(LogFormat.DISCARD);
+        config.setSeed(42L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scenarioFile.delete();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CUSTOMERS)
+    public SimulationResult eventEngine() throws Exception {
+        return new RestaurantSimulation(config).run();
+    }
+}
@@ -0,0 +1,146 @@
+package restaurant;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Control;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * The WaiterSectionsBenchmarks class measures addMeal/getMeal through the per-waiter channels of WaiterSections,
+ * with 1, 2 and 4 chefs and as many waiters, for each wait strategy. Each waiter owns one table,
+ * and chef i only cooks for the table of waiter i, so every meal is routed to its section without rerouting.
+ * Waiters wait in getMeal as they do in the simulation. A chef keeps its section below the channel capacity,
+ * so it never waits in addMeal. Once JMH ends the measurement the waiters stop taking,
+ * while a chef only adds where there is room, so a waiter still blocked is always woken.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WaiterSectionsBenchmarks {
+    // Number of meals waiting in a section above which its chef backs off, well below the channel capacity
+    private static final int BACKLOG = CookedMeals.DEFAULT_CAPACITY / 2;
+
+    /**
+     * The Dining class holds the sections shared by the chefs and waiters of one group,
+     * created again for every iteration so each starts empty.
+     */
+    @State(Scope.Group)
+    public static class Dining {
+        // What waiters do while their channel is empty
+        @Param({"YIELD", "PARK"})
+        WaitStrategy waitStrategy;
+
+        // Sections under test, one table and one channel per waiter
+        WaiterSections sections;
+        // Number of meals added and not yet taken, indexed by section
+        AtomicIntegerArray pending;
+
+        @Setup(Level.Iteration)
+        public void setUp(BenchmarkParams params) {
+            int numWaiters = params.getThreadGroups()[1];
+            sections = new WaiterSections(numWaiters, numWaiters, true, 0, CookedMeals.DEFAULT_CAPACITY, waitStrategy);
+            pending = new AtomicIntegerArray(numWaiters);
+        }
+    }
+
+    /**
+     * The Chef class holds the meal one producer thread hands over again and again,
+     * so only the channels' own allocations are measured.
+     */
+    @State(Scope.Thread)
+    public static class Chef {
+        // Meal added by this chef, for the table of the waiter with the same index
+        Order meal;
+
+        @Setup(Level.Trial)
+        public void setUp(ThreadParams thread) {
+            meal = new Order(1, 0, "Dish", 5);
+            meal.setTableID(thread.getSubgroupThreadIndex() + 1);
+        }
+    }
+
+    @Benchmark @Group("addGet1x1") @GroupThreads(1)
+    public void addGet1x1Add(Dining dining, Chef chef, Control control) throws InterruptedException {
+        add(dining, chef, control);
+    }
+
+    @Benchmark @Group("addGet1x1") @GroupThreads(1)
+    public Order addGet1x1Get(Dining dining, ThreadParams thread, Control control) throws InterruptedException {
+        return get(dining, thread, control);
+    }
+
+    @Benchmark @Group("addGet2x2") @GroupThreads(2)
+    public void addGet2x2Add(Dining dining, Chef chef, Control control) throws InterruptedException {
+        add(dining, chef, control);
+    }
+
+    @Benchmark @Group("addGet2x2") @GroupThreads(2)
+    public Order addGet2x2Get(Dining dining, ThreadParams thread, Control control) throws InterruptedException {
+        return get(dining, thread, control);
+    }
+
+    @Benchmark @Group("addGet4x4") @GroupThreads(4)
+    public void addGet4x4Add(Dining dining, Chef chef, Control control) throws InterruptedException {
+        add(dining, chef, control);
+    }
+
+    @Benchmark @Group("addGet4x4") @GroupThreads(4)
+    public Order addGet4x4Get(Dining dining, ThreadParams thread, Control control) throws InterruptedException {
+        return get(dining, thread, control);
+    }
+
+    /**
+     * Adds a meal to the chef's section once it has room below the backlog; after the measurement,
+     * adds it only if there is room, without waiting.
+     * @param dining The sections of the group.
+     * @param chef The producer thread's state.
+     * @param control The JMH control, telling when the measurement has ended.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    private static void add(Dining dining, Chef chef, Control control) throws InterruptedException {
+        int section = chef.meal.getTableID() - 1;
+        while (dining.pending.get(section) >= BACKLOG) {
+            if (control.stopMeasurement) {
+                return;
+            }
+            Thread.yield();
+        }
+        dining.pending.incrementAndGet(section);
+        dining.sections.addMeal(chef.meal);
+    }
+
+    /**
+     * Takes a meal of the waiter's section, waiting until one is added; after the measurement, takes nothing.
+     * @param dining The sections of the group.
+     * @param thread The JMH thread parameters, numbering the waiters of the group from 0.
+     * @param control The JMH control, telling when the measurement has ended.
+     * @return The meal, or null once the measurement has ended.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    private static Order get(Dining dining, ThreadParams thread, Control control) throws InterruptedException {
+        if (control.stopMeasurement) {
+            return null;
+        }
+        int section = thread.getSubgroupThreadIndex();
+        Order meal = dining.sections.getMeal(section + 1);
+        dining.pending.decrementAndGet(section);
+        return meal;
+    }
+}
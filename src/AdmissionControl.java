@@ -0,0 +1,267 @@
+import java.io.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The AdmissionControl class decides which customers the restaurant takes on once it is overloaded,
+ * so a run past saturation degrades by losing customers instead of queueing them without bound.
+ * Three mechanisms can be combined (see SimulationConfig):
+ * - Balking and reneging: a customer arriving to an estimated wait for their meal above their patience
+ *   leaves right away (balks), and one who is still without a table when the patience runs out gives up (reneges).
+ *   The estimate is rough on purpose, from the queue depths and the menu's preparation times only:
+ *   the parties ahead share the tables, each turning over in the mean preparation plus eating time,
+ *   and the orders waiting share the chefs, before the customer's own dish is cooked.
+ * - Backpressure: at most a bound of orders may wait for a chef, counting the parties being seated who are
+ *   about to order; while the kitchen is full nobody is seated, and arriving parties queue for a table.
+ * - Reservations: customers with a reservation never balk or renege, and walk-ins are not seated at the last
+ *   free tables held back for them (see TableAllocator).
+ * The class also counts lost customers and the customers served within their patience (the goodput).
+ */
+public class AdmissionControl {
+    // Mean minutes a party eats once served (eating takes 10 to 20 minutes)
+    private static final double MEAN_EATING_MINUTES = 15;
+    // Deadline of customers who never give up waiting
+    public static final int NO_DEADLINE = Integer.MAX_VALUE;
+
+    // Minutes from arrival a customer waits for their meal at most (null if customers wait forever)
+    private final Integer patience;
+    // Largest number of orders waiting for a chef, including parties being seated (0 for no bound)
+    private final int maxOrders;
+    // Preparation time of each menu item, by item ID, and their mean
+    private final Menu menu;
+    private final double meanPrepTime;
+    // Number of chefs and tables sharing the queues
+    private final int numChefs;
+    private final int numTables;
+    // Orders admitted to the kitchen that no chef has taken yet
+    private int admittedOrders;
+    // Parties blocked in awaitOrderSlot, waiting at the door for room in the kitchen (threads engine only;
+    // changed under the lock, volatile so the monitor can read it without taking the lock)
+    private volatile int waitingForRoom;
+    // Lock guarding admittedOrders, and the condition threads wait on for room in the kitchen
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition kitchenRoom = lock.newCondition();
+    // Customers who balked, reneged, and were served within their patience
+    private final AtomicLong balked = new AtomicLong();
+    private final AtomicLong reneged = new AtomicLong();
+    private final AtomicLong servedInTime = new AtomicLong();
+
+    /**
+     * Constructor to create the admission control of a run.
+     * @param config The settings of the run (patience and order bound).
+     * @param menu The menu, for the preparation times.
+     * @param numChefs The number of chefs.
+     * @param numTables The number of tables.
+     */
+    public AdmissionControl(SimulationConfig config, Menu menu, int numChefs, int numTables) {
+        this.patience = config.getPatience();
+        this.maxOrders = config.getMaxOrders();
+        this.menu = menu;
+        double total = 0;
+        for (int i = 0; i < menu.size(); i++) {
+            total += menu.getPrepTime(i);
+        }
+        this.meanPrepTime = menu.size() == 0 ? 0 : total / menu.size();
+        this.numChefs = Math.max(1, numChefs);
+        this.numTables = Math.max(1, numTables);
+    }
+
+    /**
+     * Estimates how long an arriving customer will wait for their meal.
+     * @param itemID The menu item the customer orders.
+     * @param ordersWaiting The number of orders waiting for a chef.
+     * @param partiesWaiting The number of parties waiting for a table.
+     * @param tableFree True if a table is free.
+     * @return The estimated minutes from arrival until the meal is cooked.
+     */
+    public int estimateWait(int itemID, long ordersWaiting, long partiesWaiting, boolean tableFree) {
+        double tableWait = tableFree && partiesWaiting == 0 ? 0
+                : (partiesWaiting + 1) * (meanPrepTime + MEAN_EATING_MINUTES) / numTables;
+        double kitchenWait = ordersWaiting * meanPrepTime / numChefs;
+        return (int) Math.ceil(tableWait + kitchenWait) + menu.getPrepTime(itemID);
+    }
+
+    /**
+     * Decides whether an arriving customer leaves without waiting.
+     * @param estimate The estimated wait for the meal, in minutes.
+     * @param reserved True if the customer has a reservation.
+     * @return True if the estimate is above the patience of a customer without a reservation.
+     */
+    public boolean balks(int estimate, boolean reserved) {
+        return patience != null && !reserved && estimate > patience;
+    }
+
+    /**
+     * Gets the time at which a customer still waiting for a table gives up.
+     * @param arrivalTime The arrival time, in minutes since midnight.
+     * @param reserved True if the customer has a reservation.
+     * @return The deadline, or NO_DEADLINE if the customer waits as long as it takes.
+     */
+    public int getDeadline(int arrivalTime, boolean reserved) {
+        return patience == null || reserved ? NO_DEADLINE : arrivalTime + patience;
+    }
+
+    /**
+     * Admits the order of a party about to be seated if the kitchen has room.
+     * @return True if the order was admitted (always without a bound).
+     */
+    public boolean tryClaimOrderSlot() {
+        if (maxOrders <= 0) {
+            return true;
+        }
+        lock.lock();
+        try {
+            if (admittedOrders >= maxOrders) {
+                return false;
+            }
+            admittedOrders++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the kitchen has room for the order of a party, or until the party's deadline
+     * (used by the threads engine; wakeWaiting must be called at the deadline).
+     * @param deadline The simulated time at which the party gives up, or NO_DEADLINE.
+     * @param simulation The simulation whose clock is checked against the deadline.
+     * @return True if the order was admitted, false if the deadline passed first.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public boolean awaitOrderSlot(int deadline, RestaurantSimulation simulation) throws InterruptedException {
+        if (maxOrders <= 0) {
+            return true;
+        }
+        lock.lockInterruptibly();
+        boolean waiting = false;
+        try {
+            while (admittedOrders >= maxOrders) {
+                if (simulation.getCurrentTime() >= deadline) {
+                    return false;
+                }
+                if (!waiting) {
+                    waiting = true;
+                    waitingForRoom++;
+                }
+                kitchenRoom.await();
+            }
+            admittedOrders++;
+            return true;
+        } finally {
+            if (waiting) {
+                waitingForRoom--;
+            }
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Frees the kitchen room of an admitted order, once a chef takes it or the party is not seated after all.
+     */
+    public void releaseOrderSlot() {
+        if (maxOrders <= 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            // Orders placed before a resumed checkpoint set the bound were never admitted
+            if (admittedOrders > 0) {
+                admittedOrders--;
+            }
+            kitchenRoom.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wakes the threads waiting for room in the kitchen so they can check their deadline.
+     */
+    public void wakeWaiting() {
+        if (maxOrders <= 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            kitchenRoom.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Records a customer who left on arrival
+    public void recordBalk() {
+        balked.incrementAndGet();
+    }
+
+    // Records a customer who gave up waiting for a table
+    public void recordRenege() {
+        reneged.incrementAndGet();
+    }
+
+    /**
+     * Records a served meal for the goodput.
+     * @param minutesSinceArrival The minutes from the customer's arrival to the meal being served.
+     */
+    public void recordServed(int minutesSinceArrival) {
+        if (patience == null || minutesSinceArrival <= patience) {
+            servedInTime.incrementAndGet();
+        }
+    }
+
+    // Getter for the number of customers who balked
+    public long getBalked() {
+        return balked.get();
+    }
+
+    // Getter for the number of customers who reneged
+    public long getReneged() {
+        return reneged.get();
+    }
+
+    // Getter for the number of customers served within their patience
+    public long getServedInTime() {
+        return servedInTime.get();
+    }
+
+    // Getter for the patience in minutes (null if customers wait forever)
+    public Integer getPatience() {
+        return patience;
+    }
+
+    // Getter for the number of parties waiting at the door for room in the kitchen (threads engine only)
+    public int getWaitingForRoom() {
+        return waitingForRoom;
+    }
+
+    // Getter for the bound on orders waiting for a chef (0 for no bound)
+    public int getMaxOrders() {
+        return maxOrders;
+    }
+
+    /**
+     * Writes the admitted orders and the counters, for a checkpoint.
+     * @param out The checkpoint stream.
+     * @throws IOException If the stream cannot be written.
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(admittedOrders);
+        out.writeLong(balked.get());
+        out.writeLong(reneged.get());
+        out.writeLong(servedInTime.get());
+    }
+
+    /**
+     * Restores the admitted orders and the counters from a checkpoint.
+     * @param in The checkpoint stream.
+     * @throws IOException If the stream cannot be read.
+     */
+    public void readFrom(DataInputStream in) throws IOException {
+        admittedOrders = in.readInt();
+        balked.set(in.readLong());
+        reneged.set(in.readLong());
+        servedInTime.set(in.readLong());
+    }
+}
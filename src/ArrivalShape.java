@@ -0,0 +1,35 @@
+/**
+ * The ArrivalShape enum describes how the arrival rate of a generated workload changes over the day.
+ * FLAT keeps the rate constant, a plain Poisson process. MEALS follows a restaurant's day: a fifth of
+ * the rate between meals, rising to the full rate around lunch at 12:30 and dinner at 19:30.
+ */
+public enum ArrivalShape {
+    // The same rate all day
+    FLAT,
+    // Quiet between meals, busy at lunch and dinner
+    MEALS;
+
+    /**
+     * Gets the share of the arrival rate at a time of day.
+     * @param time The time in minutes since midnight; days after the first repeat the same shape.
+     * @return The factor applied to the arrival rate, at most 1.
+     */
+    public double factorAt(double time) {
+        if (this == FLAT) {
+            return 1.0;
+        }
+        double minute = time % (24 * 60);
+        double lunch = (minute - 750) / 45;
+        double dinner = (minute - 1170) / 60;
+        return Math.min(1.0, 0.2 + 0.8 * Math.exp(-lunch * lunch / 2) + 0.8 * Math.exp(-dinner * dinner / 2));
+    }
+
+    /**
+     * Parses an arrival shape from its command-line name.
+     * @param name "flat" or "meals", in any case.
+     * @return The matching arrival shape.
+     */
+    public static ArrivalShape fromName(String name) {
+        return valueOf(name.toUpperCase());
+    }
+}
@@ -0,0 +1,52 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The BatchWaiters class keeps track of the chefs holding a batch open for more orders of a menu item.
+ * Adding an order wakes only the chefs waiting for that item, so a chef holding a batch
+ * parks until a matching order arrives or its hold expires instead of checking the queue every tick.
+ */
+public class BatchWaiters {
+    // Threads of the chefs holding a batch open, indexed by menu item ID
+    private final List<Set<Thread>> waiting;
+
+    /**
+     * Constructor to initialize a BatchWaiters object with no chef waiting.
+     * @param itemCount The number of items on the menu.
+     */
+    public BatchWaiters(int itemCount) {
+        waiting = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            waiting.add(ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    /**
+     * Registers the calling chef as waiting for orders of a menu item.
+     * @param itemID The menu item ID of the batch.
+     */
+    public void register(int itemID) {
+        waiting.get(itemID).add(Thread.currentThread());
+    }
+
+    /**
+     * Removes the calling chef from the chefs waiting for orders of a menu item.
+     * @param itemID The menu item ID of the batch.
+     */
+    public void unregister(int itemID) {
+        waiting.get(itemID).remove(Thread.currentThread());
+    }
+
+    /**
+     * Wakes the chefs waiting for orders of a menu item.
+     * @param itemID The menu item ID of the order just added.
+     */
+    public void signal(int itemID) {
+        for (Thread chef : waiting.get(itemID)) {
+            LockSupport.unpark(chef);
+        }
+    }
+}
@@ -1,57 +1,121 @@
 import java.util.*;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * The Chef class represents a chef in the restaurant simulation.
  * Each chef runs in a separate thread, processing orders and preparing meals.
  */
 public class Chef implements Runnable {
+    // Simulation the chef works in
+    private RestaurantSimulation simulation;
     // Unique ID for the chef
     private int chefID;
 
     /**
      * Constructor to initialize a Chef object with a unique ID.
+     * @param simulation The simulation the chef works in.
      * @param chefID The unique ID for the chef.
      */
-    public Chef(int chefID) {
+    public Chef(RestaurantSimulation simulation, int chefID) {
+        this.simulation = simulation;
         this.chefID = chefID;
     }
 
     /**
      * The run method defines the behavior of the chef thread.
      * The chef retrieves orders from the queue, prepares meals, and adds them to the cooked meals queue.
+     * When the menu item is batched, the chef also takes pending orders of the same item, waiting
+     * until the first order has been held for the configured hold time if the batch is not full,
+     * and cooks them all in one preparation cycle.
      */
     public void run() {
+        SimulationConfig config = simulation.getConfig();
+        ArrayList<Order> batch = new ArrayList<>();
         try {
             while (true) {
                 // Retrieve an order from the queue
-                Order order = RestaurantSimulation.orderQueue.takeOrder();
-                System.out.println("[" + RestaurantSimulation.minutesToTime(getCurrentTime()) + "] Chef " + chefID +
-                        " starts preparing " + order.getOrderItem() + " for Customer " + order.getCustomerID());
+                Order order = simulation.getOrderQueue().takeOrder(chefID);
+                batch.clear();
+                batch.add(order);
 
-                // Record the preparation start time
-                int startTime = getCurrentTime();
+                // Gather identical orders to cook together
+                int batchSize = config.getBatchSize(order.getOrderItem());
+                if (batchSize > 1) {
+                    simulation.getOrderQueue().takeMatching(chefID, order, batchSize, batch);
+                    int holdUntil = order.getPlacedTime() + config.getBatchHold();
+                    if (batch.size() < batchSize && getCurrentTime() < holdUntil) {
+                        holdBatch(order, batchSize, holdUntil, batch);
+                    }
+                }
 
-                // Simulate preparation time
-                Thread.sleep(order.getOrderTime() * 1000);
+                // Record the preparation start time and how long each order waited in the queue
+                simulation.setChefBusy(true);
+                int startTime = getCurrentTime();
+                for (Order portion : batch) {
+                    simulation.getEventLog().record(EventType.COOK_START, startTime, portion.getCustomerID(), 0, chefID, portion.getOrderItem());
+                    simulation.getMetrics().record(Metric.QUEUE_WAIT, startTime - portion.getPlacedTime());
+                    // The order leaves the kitchen queue, making room for another party to be seated
+                    simulation.getAdmission().releaseOrderSlot();
+                }
 
-                // Update the total preparation time
-                RestaurantSimulation.totalOrderPreparationTime += getCurrentTime() - startTime;
-                System.out.println("[" + RestaurantSimulation.minutesToTime(getCurrentTime()) + "] Chef " + chefID +
-                        " finishes preparing " + order.getOrderItem() + " for Customer " + order.getCustomerID());
+                // Wait on the clock for the preparation time, plus the surcharge for every extra portion
+                simulation.getClock().sleep(order.getOrderTime() + (batch.size() - 1) * config.getBatchSurcharge());
 
-                // Add the prepared meal to the cooked meals queue
-                RestaurantSimulation.cookedMeals.addMeal(order);
+                // Record the preparation time and hand the prepared meals to the waiters
+                int cookedTime = getCurrentTime();
+                simulation.recordChefWork(chefID, cookedTime - startTime, batch.size());
+                for (Order portion : batch) {
+                    portion.setCookedTime(cookedTime);
+                    simulation.getMetrics().record(Metric.COOK_TIME, cookedTime - startTime);
+                    simulation.getEventLog().record(EventType.COOK_END, cookedTime, portion.getCustomerID(), 0, chefID, portion.getOrderItem());
+                    FlightEvents.cook(cookedTime, portion.getCustomerID(), chefID, portion.getOrderItem(),
+                            startTime - portion.getPlacedTime(), cookedTime - startTime);
+                    simulation.getWaiterSections().addMeal(portion);
+                }
+                simulation.setChefBusy(false);
             }
+        } catch (InterruptedException e) {
+            // The simulation has ended
         } catch (Exception e) {
             System.out.println("An error occurred in Chef " + chefID + ": " + e.getMessage());
         }
     }
 
+    /**
+     * Keeps a batch open until it is full or the hold expires. The chef parks in between and is woken
+     * by the kitchen when an order of the same item is added, or by a clock timer when the hold expires.
+     * @param first The order the batch is built around.
+     * @param batchSize The largest number of orders in the batch.
+     * @param holdUntil The time the hold expires, in minutes since midnight.
+     * @param batch The batch; matching orders are added to it.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    private void holdBatch(Order first, int batchSize, int holdUntil, List<Order> batch) throws InterruptedException {
+        OrderDispatcher kitchen = simulation.getOrderQueue();
+        Thread self = Thread.currentThread();
+        // A wake-up arriving after the hold has ended is harmless, like any spurious one
+        simulation.getClock().scheduleAt(holdUntil, () -> LockSupport.unpark(self));
+        kitchen.holdBatch(first.getItemID());
+        try {
+            // Look again after registering, so an order added in between still wakes the chef
+            kitchen.takeMatching(chefID, first, batchSize, batch);
+            while (batch.size() < batchSize && getCurrentTime() < holdUntil) {
+                LockSupport.park(this);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                kitchen.takeMatching(chefID, first, batchSize, batch);
+            }
+        } finally {
+            kitchen.endHold(first.getItemID());
+        }
+    }
+
     /**
      * Retrieves the current simulation time.
      * @return The current time in the simulation, in minutes since midnight.
      */
     private int getCurrentTime() {
-        return RestaurantSimulation.currentTime;
+        return simulation.getCurrentTime();
     }
 }
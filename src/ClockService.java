@@ -0,0 +1,214 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The ClockService class drives the clock of the threads engine and fires its timers.
+ * A single clock thread advances the simulation time one tick at a time, with a configurable
+ * number of real milliseconds per simulated minute, and keeps the timers in a hashed timing wheel:
+ * a ring of buckets indexed by the tick a timer is due, so adding a timer and firing the timers of a tick
+ * cost the same however many timers are pending. Arrivals, cooked dishes and finished meals are timers
+ * instead of threads polling the clock, so nothing wakes up until it has something to do.
+ * Timer tasks run on the clock thread and must be short; longer work is handed to an executor by the task.
+ */
+public class ClockService {
+    // Number of ticks per simulated minute
+    public static final int TICKS_PER_MINUTE = 4;
+    // Number of buckets in the wheel (a power of two)
+    private static final int WHEEL_SIZE = 512;
+
+    // Simulation whose clock is advanced
+    private final RestaurantSimulation simulation;
+    // Real time per tick, in nanoseconds
+    private final long tickNanos;
+    // First and last timer of each bucket, chained through their next field in the order they were added
+    private final Timer[] heads = new Timer[WHEEL_SIZE];
+    private final Timer[] tails = new Timer[WHEEL_SIZE];
+    // Timers added since the last tick, moved into the wheel by the clock thread
+    private final ConcurrentLinkedQueue<Timer> added = new ConcurrentLinkedQueue<>();
+    // Number of ticks since the clock started
+    private volatile long tick;
+    // Simulated time of tick 0, in minutes since midnight
+    private int startTime;
+    // Thread advancing the clock
+    private Thread thread;
+
+    /**
+     * The Timer class is one pending task of the wheel.
+     */
+    private static class Timer {
+        // Tick at which the task runs
+        final long deadline;
+        // Task to run
+        final Runnable task;
+        // Next timer of the same bucket
+        Timer next;
+
+        Timer(long deadline, Runnable task) {
+            this.deadline = deadline;
+            this.task = task;
+        }
+    }
+
+    /**
+     * Constructor to create the clock of a simulation.
+     * @param simulation The simulation whose clock is advanced.
+     * @param millisPerMinute The real milliseconds per simulated minute (1000 runs a minute per second).
+     */
+    public ClockService(RestaurantSimulation simulation, long millisPerMinute) {
+        this.simulation = simulation;
+        this.tickNanos = Math.max(1, millisPerMinute * 1_000_000 / TICKS_PER_MINUTE);
+    }
+
+    /**
+     * Starts the clock thread at a given simulated time.
+     * @param startTime The simulated time of the first tick, in minutes since midnight.
+     */
+    public void start(int startTime) {
+        this.startTime = startTime;
+        simulation.setCurrentTime(startTime);
+        thread = new Thread(this::run, "Clock");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the clock thread; pending timers are dropped.
+     */
+    public void stop() {
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Runs a task once the clock reaches a simulated minute.
+     * @param minute The time to run the task, in minutes since midnight; past times run on the next tick.
+     * @param task The task, run on the clock thread.
+     */
+    public void scheduleAt(int minute, Runnable task) {
+        added.add(new Timer((long) (minute - startTime) * TICKS_PER_MINUTE, task));
+    }
+
+    /**
+     * Runs a task after a number of simulated minutes.
+     * @param minutes The delay in simulated minutes.
+     * @param task The task, run on the clock thread.
+     */
+    public void schedule(int minutes, Runnable task) {
+        scheduleTicks((long) minutes * TICKS_PER_MINUTE, task);
+    }
+
+    /**
+     * Runs a task after a number of ticks.
+     * @param ticks The delay in ticks (a quarter of a simulated minute each).
+     * @param task The task, run on the clock thread.
+     */
+    public void scheduleTicks(long ticks, Runnable task) {
+        added.add(new Timer(tick + ticks, task));
+    }
+
+    /**
+     * Blocks the calling thread for a number of simulated minutes.
+     * @param minutes The time to wait in simulated minutes.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public void sleep(int minutes) throws InterruptedException {
+        sleepTicks((long) minutes * TICKS_PER_MINUTE);
+    }
+
+    /**
+     * Blocks the calling thread for a number of ticks.
+     * @param ticks The time to wait in ticks (a quarter of a simulated minute each).
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public void sleepTicks(long ticks) throws InterruptedException {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        scheduleTicks(ticks, () -> done.complete(null));
+        try {
+            done.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * The loop of the clock thread: waits for each tick on the wall clock, advances the simulation
+     * time every full minute and fires the timers that are due.
+     */
+    private void run() {
+        long start = System.nanoTime();
+        while (!Thread.currentThread().isInterrupted()) {
+            long next = tick + 1;
+            long delay = start + next * tickNanos - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+                continue; // Parking may return early; check the deadline again
+            }
+            tick = next;
+            if (next % TICKS_PER_MINUTE == 0) {
+                simulation.advanceTime();
+            }
+            fire(next);
+        }
+    }
+
+    /**
+     * Moves the timers added since the last tick into the wheel and runs those due,
+     * in the order they were added.
+     * @param now The current tick.
+     */
+    private void fire(long now) {
+        Timer timer;
+        while ((timer = added.poll()) != null) {
+            if (timer.deadline <= now) {
+                runTask(timer);
+            } else {
+                append((int) (timer.deadline & (WHEEL_SIZE - 1)), timer);
+            }
+        }
+
+        // Timers further away than one turn of the wheel go back into the bucket for a later turn
+        int bucket = (int) (now & (WHEEL_SIZE - 1));
+        timer = heads[bucket];
+        heads[bucket] = null;
+        tails[bucket] = null;
+        while (timer != null) {
+            Timer next = timer.next;
+            timer.next = null;
+            if (timer.deadline <= now) {
+                runTask(timer);
+            } else {
+                append(bucket, timer);
+            }
+            timer = next;
+        }
+    }
+
+    /**
+     * Adds a timer at the end of a bucket.
+     * @param bucket The bucket.
+     * @param timer The timer.
+     */
+    private void append(int bucket, Timer timer) {
+        if (tails[bucket] == null) {
+            heads[bucket] = timer;
+        } else {
+            tails[bucket].next = timer;
+        }
+        tails[bucket] = timer;
+    }
+
+    /**
+     * Runs the task of a timer, reporting any error so one failing task does not stop the clock.
+     * @param timer The timer.
+     */
+    private void runTask(Timer timer) {
+        try {
+            timer.task.run();
+        } catch (Exception e) {
+            System.out.println("An error occurred in a timer: " + e.getMessage());
+        }
+    }
+}
@@ -1,46 +1,235 @@
-import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * The CookedMeals class manages a queue of cooked meal orders.
- * This class uses a CustomSemaphore to manage synchronization between chefs and waiters.
+ * Meals are handed from chefs to waiters through a bounded multi-producer/multi-consumer
+ * ring buffer: every slot has a sequence counter telling producers and consumers whose
+ * turn it is, so adding and taking a meal needs a single compare-and-set and no allocation.
+ * Threads that find the buffer empty (waiters) or full (chefs) wait using a configurable WaitStrategy.
+ * With PARK they end up blocked on a condition; they count themselves before blocking,
+ * so the other side only takes the lock to signal them when someone is actually blocked.
  */
 public class CookedMeals {
-    // List to store cooked meals
-    private ArrayList<Order> cookedMeals;
-    // Semaphore to manage the number of cooked meals available
-    private CustomSemaphore mealsSemaphore;
+    // Default number of slots in the ring buffer
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    // Preallocated slots holding the cooked meals
+    private final Order[] slots;
+    // Sequence counter of each slot; tells whether the slot is ready to be written or read
+    private final AtomicLongArray sequences;
+    // Mask used to map a position to a slot (capacity is a power of two)
+    private final int mask;
+    // Position of the next meal to be added
+    private final AtomicLong tail = new AtomicLong();
+    // Position of the next meal to be taken
+    private final AtomicLong head = new AtomicLong();
+    // What chefs and waiters do while the buffer is full or empty
+    private final WaitStrategy waitStrategy;
+    // Lock and conditions for the threads that block (PARK), waiting for a meal or for a free slot
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    // Number of waiters and chefs blocked on those conditions
+    private final AtomicInteger blockedConsumers = new AtomicInteger();
+    private final AtomicInteger blockedProducers = new AtomicInteger();
 
     /**
-     * Constructor to initialize the CookedMeals queue.
-     * Initializes an empty list and a semaphore with zero permits.
+     * Constructor to initialize the CookedMeals queue with the default capacity,
+     * parking threads while they wait.
      */
     public CookedMeals() {
-        cookedMeals = new ArrayList<>();
-        mealsSemaphore = new CustomSemaphore(0); // Initially, no meals are available
+        this(DEFAULT_CAPACITY, WaitStrategy.PARK);
+    }
+
+    /**
+     * Constructor to initialize the CookedMeals queue.
+     * @param capacity The number of meals the buffer can hold (rounded up to a power of two).
+     * @param waitStrategy What chefs and waiters do while the buffer is full or empty.
+     */
+    public CookedMeals(int capacity, WaitStrategy waitStrategy) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        slots = new Order[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i); // Slot i is first written at position i
+        }
+        mask = size - 1;
+        this.waitStrategy = waitStrategy;
     }
 
     /**
      * Retrieves and removes a cooked meal from the queue.
-     * Blocks if no meals are available until a chef adds one.
+     * Waits if no meals are available until a chef adds one.
      * @return The cooked meal order.
      * @throws InterruptedException If the thread is interrupted while waiting.
      */
     public Order getMeal() throws InterruptedException {
-        mealsSemaphore.acquire(); // Wait until a meal is available
-        synchronized (this) {
-            return cookedMeals.remove(0);
+        Order meal;
+        for (int attempt = 0; (meal = pollMeal()) == null; attempt++) {
+            if (waitStrategy.shouldBlock(attempt)) {
+                return awaitMeal();
+            }
+            waitStrategy.idle(attempt);
+        }
+        return meal;
+    }
+
+    /**
+     * Adds a cooked meal to the queue for the waiters.
+     * Waits if the buffer is full until a waiter takes a meal.
+     * @param meal The cooked meal to be added to the queue.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public void addMeal(Order meal) throws InterruptedException {
+        for (int attempt = 0; !offerMeal(meal); attempt++) {
+            if (waitStrategy.shouldBlock(attempt)) {
+                awaitSlot(meal);
+                return;
+            }
+            waitStrategy.idle(attempt);
+        }
+    }
+
+    /**
+     * Blocks until a meal can be taken.
+     * The waiter is counted before polling again, so a chef adding a meal after that poll sees the count and signals.
+     * @return The cooked meal order.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    private Order awaitMeal() throws InterruptedException {
+        Order meal;
+        lock.lockInterruptibly();
+        try {
+            blockedConsumers.incrementAndGet();
+            try {
+                while ((meal = pollMeal()) == null) {
+                    notEmpty.await();
+                }
+            } finally {
+                blockedConsumers.decrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return meal;
+    }
+
+    /**
+     * Blocks until a meal can be added.
+     * @param meal The cooked meal to be added to the queue.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    private void awaitSlot(Order meal) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            blockedProducers.incrementAndGet();
+            try {
+                while (!offerMeal(meal)) {
+                    notFull.await();
+                }
+            } finally {
+                blockedProducers.decrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wakes a blocked waiter after a meal was added; costs one volatile read when none is blocked.
+     */
+    private void signalConsumers() {
+        if (blockedConsumers.get() > 0) {
+            lock.lock();
+            try {
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Wakes a blocked chef after a slot was freed; costs one volatile read when none is blocked.
+     */
+    private void signalProducers() {
+        if (blockedProducers.get() > 0) {
+            lock.lock();
+            try {
+                notFull.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Retrieves and removes a cooked meal without waiting, waking a chef blocked on a full buffer.
+     * @return The cooked meal order, or null if no meal is available.
+     */
+    public Order pollMeal() {
+        long position = head.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                // The slot holds a meal for this position; try to claim it
+                if (head.compareAndSet(position, position + 1)) {
+                    Order meal = slots[index];
+                    slots[index] = null;
+                    // Hand the slot back to producers for the next lap around the buffer
+                    sequences.set(index, position + mask + 1);
+                    signalProducers();
+                    return meal;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                return null; // Empty
+            } else {
+                position = head.get(); // Another waiter took this position
+            }
         }
     }
 
     /**
-     * Adds a cooked meal to the queue and notifies waiters.
+     * Adds a cooked meal without waiting, waking a waiter blocked on an empty buffer.
      * @param meal The cooked meal to be added to the queue.
+     * @return True if the meal was added, false if the buffer is full.
      */
-    public void addMeal(Order meal) {
-        synchronized (this) {
-            cookedMeals.add(meal);
+    public boolean offerMeal(Order meal) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                // The slot is free for this position; try to claim it
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots[index] = meal;
+                    // Publish the meal to consumers
+                    sequences.set(index, position + 1);
+                    signalConsumers();
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false; // Full
+            } else {
+                position = tail.get(); // Another chef took this position
+            }
         }
-        
-        mealsSemaphore.release(meal.getCustomerID()); // Signal that a meal is available
+    }
+
+    /**
+     * Gets the number of meals waiting in the buffer. The count is only a snapshot while
+     * chefs and waiters are using the buffer.
+     * @return The number of meals waiting.
+     */
+    public int size() {
+        long waiting = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(waiting, slots.length));
     }
 }
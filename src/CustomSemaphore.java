@@ -1,15 +1,30 @@
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.AbstractQueuedSynchronizer;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * The CustomSemaphore class is a custom implementation of a semaphore
  * used to manage the availability of shared resources, such as tables.
+ * Permits are counted by an AbstractQueuedSynchronizer, so blocked threads wait in a
+ * queue and are woken one by one without contending on a monitor, and the identifiers
+ * of free resources are kept in a first-in first-out ring of primitive ints.
+ * Besides the blocking acquire, the semaphore supports non-blocking, timed and batched
+ * acquisition, and an optional fair mode that hands out permits in arrival order.
  */
 public class CustomSemaphore {
-    // Number of available permits (resources)
-    private int availablePermits;
-    // Queue to store resource identifiers (e.g., table numbers)
-    private Queue<Integer> resourceQueue;
+    // Value returned by tryAcquire when no resource could be acquired
+    public static final int NO_RESOURCE = -1;
+
+    // Synchronizer counting the available permits
+    private final Sync sync;
+    // Ring of free resource identifiers (e.g., table numbers), oldest first
+    private int[] resourceQueue;
+    // Index of the oldest free resource in the ring
+    private int resourceHead;
+    // Number of free resources in the ring
+    private int resourceCount;
+    // Lock guarding the ring; held only for a few instructions and never while waiting
+    private final ReentrantLock resourceLock = new ReentrantLock();
 
     /**
      * Constructor to initialize the semaphore with a specific number of permits.
@@ -17,12 +32,23 @@ public class CustomSemaphore {
      * @param permits The number of available resources.
      */
     public CustomSemaphore(int permits) {
-        this.availablePermits = permits;
-        this.resourceQueue = new LinkedList<>();
+        this(permits, false);
+    }
+
+    /**
+     * Constructor to initialize the semaphore with a specific number of permits and fairness.
+     * The resources are identified by the numbers 1 to permits.
+     * @param permits The number of available resources.
+     * @param fair True to grant permits in the order threads asked for them.
+     */
+    public CustomSemaphore(int permits, boolean fair) {
+        this.sync = fair ? new FairSync(permits) : new Sync(permits);
+        this.resourceQueue = new int[Math.max(4, permits)];
         // Initialize the resource queue with identifiers (e.g., table numbers)
         for (int i = 1; i <= permits; i++) {
-            resourceQueue.add(i);
+            resourceQueue[i - 1] = i;
         }
+        this.resourceCount = permits;
     }
 
     /**
@@ -31,42 +57,227 @@ public class CustomSemaphore {
      * @return The identifier of the acquired resource.
      * @throws InterruptedException If the thread is interrupted while waiting.
      */
-    public synchronized int acquire() throws InterruptedException {
-        // Wait until a resource becomes available
-        while (availablePermits <= 0) {
-            wait();
+    public int acquire() throws InterruptedException {
+        sync.acquireSharedInterruptibly(1);
+        return takeResource();
+    }
+
+    /**
+     * Acquires several resources at once.
+     * Blocks until all of them are available; resources are never handed out partially.
+     * @param count The number of resources to acquire.
+     * @return The identifiers of the acquired resources.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public int[] acquire(int count) throws InterruptedException {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative: " + count);
         }
-        // Decrement the available permits and return the acquired resource
-        availablePermits--;
-        return resourceQueue.poll(); // Remove and return the resource
+        sync.acquireSharedInterruptibly(count);
+        return takeResources(count);
+    }
+
+    /**
+     * Acquires a resource only if one is available right now.
+     * @return The identifier of the acquired resource, or NO_RESOURCE if none is available.
+     */
+    public int tryAcquire() {
+        return sync.tryAcquireNow(1) ? takeResource() : NO_RESOURCE;
+    }
+
+    /**
+     * Acquires a resource, waiting at most the given time for one to become available.
+     * @param timeout The longest time to wait.
+     * @param unit The unit of the timeout.
+     * @return The identifier of the acquired resource, or NO_RESOURCE if the time ran out.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public int tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+        return sync.tryAcquireSharedNanos(1, unit.toNanos(timeout)) ? takeResource() : NO_RESOURCE;
     }
 
     /**
      * Releases a resource back to the semaphore.
-     * Increases the number of available permits and notifies waiting threads.
+     * Increases the number of available permits and wakes a waiting thread.
      * @param resource The identifier of the resource to be released.
      */
-    public synchronized void release(int resource) {
-        // Increment the available permits and add the resource back to the queue
-        availablePermits++;
-        resourceQueue.add(resource);
-        // Notify one of the waiting threads
-        notify();
+    public void release(int resource) {
+        putResource(resource);
+        sync.releaseShared(1);
+    }
+
+    /**
+     * Releases several resources back to the semaphore at once.
+     * @param resources The identifiers of the resources to be released.
+     */
+    public void release(int[] resources) {
+        resourceLock.lock();
+        try {
+            for (int resource : resources) {
+                addToQueue(resource);
+            }
+        } finally {
+            resourceLock.unlock();
+        }
+        sync.releaseShared(resources.length);
     }
 
     /**
      * Gets the number of currently available permits (resources).
      * @return The number of available permits.
      */
-    public synchronized int getAvailablePermits() {
-        return availablePermits;
+    public int getAvailablePermits() {
+        return sync.getPermits();
     }
 
     /**
      * Checks whether the semaphore has available resources.
      * @return True if there are available permits, false otherwise.
      */
-    public synchronized boolean hasAvailablePermits() {
-        return availablePermits > 0;
+    public boolean hasAvailablePermits() {
+        return sync.getPermits() > 0;
+    }
+
+    /**
+     * Gets an estimate of the number of threads waiting to acquire a resource.
+     * @return The approximate number of waiting threads.
+     */
+    public int getQueueLength() {
+        return sync.getQueueLength();
+    }
+
+    /**
+     * Removes the oldest free resource from the ring.
+     * The caller must already hold a permit, which guarantees the ring is not empty.
+     * @return The identifier of the resource.
+     */
+    private int takeResource() {
+        resourceLock.lock();
+        try {
+            int resource = resourceQueue[resourceHead];
+            resourceHead = (resourceHead + 1) % resourceQueue.length;
+            resourceCount--;
+            return resource;
+        } finally {
+            resourceLock.unlock();
+        }
+    }
+
+    /**
+     * Removes several free resources from the ring, oldest first.
+     * @param count The number of resources to remove (already covered by permits).
+     * @return The identifiers of the resources.
+     */
+    private int[] takeResources(int count) {
+        int[] resources = new int[count];
+        resourceLock.lock();
+        try {
+            for (int i = 0; i < count; i++) {
+                resources[i] = resourceQueue[resourceHead];
+                resourceHead = (resourceHead + 1) % resourceQueue.length;
+            }
+            resourceCount -= count;
+            return resources;
+        } finally {
+            resourceLock.unlock();
+        }
+    }
+
+    /**
+     * Adds a released resource to the end of the ring.
+     * @param resource The identifier of the resource.
+     */
+    private void putResource(int resource) {
+        resourceLock.lock();
+        try {
+            addToQueue(resource);
+        } finally {
+            resourceLock.unlock();
+        }
+    }
+
+    /**
+     * Appends a resource to the ring, doubling its size if it is full.
+     * Must be called with the resource lock held.
+     * @param resource The identifier of the resource.
+     */
+    private void addToQueue(int resource) {
+        if (resourceCount == resourceQueue.length) {
+            int[] larger = new int[resourceQueue.length * 2];
+            for (int i = 0; i < resourceCount; i++) {
+                larger[i] = resourceQueue[(resourceHead + i) % resourceQueue.length];
+            }
+            resourceQueue = larger;
+            resourceHead = 0;
+        }
+        resourceQueue[(resourceHead + resourceCount) % resourceQueue.length] = resource;
+        resourceCount++;
+    }
+
+    /**
+     * Synchronizer whose state is the number of available permits.
+     * The non-fair version lets an arriving thread take a free permit even if others are queued.
+     */
+    private static class Sync extends AbstractQueuedSynchronizer {
+        private static final long serialVersionUID = 1L;
+
+        Sync(int permits) {
+            setState(permits);
+        }
+
+        int getPermits() {
+            return getState();
+        }
+
+        // Takes permits if enough are available, ignoring queued threads
+        boolean tryAcquireNow(int permits) {
+            while (true) {
+                int available = getState();
+                int remaining = available - permits;
+                if (remaining < 0) {
+                    return false;
+                }
+                if (compareAndSetState(available, remaining)) {
+                    return true;
+                }
+            }
+        }
+
+        protected int tryAcquireShared(int permits) {
+            while (true) {
+                int available = getState();
+                int remaining = available - permits;
+                if (remaining < 0 || compareAndSetState(available, remaining)) {
+                    return remaining;
+                }
+            }
+        }
+
+        protected boolean tryReleaseShared(int permits) {
+            while (true) {
+                int available = getState();
+                if (compareAndSetState(available, available + permits)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Fair synchronizer: a thread only takes permits if no other thread is queued before it.
+     */
+    private static class FairSync extends Sync {
+        private static final long serialVersionUID = 1L;
+
+        FairSync(int permits) {
+            super(permits);
+        }
+
+        protected int tryAcquireShared(int permits) {
+            if (hasQueuedPredecessors()) {
+                return -1;
+            }
+            return super.tryAcquireShared(permits);
+        }
     }
 }
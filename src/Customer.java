@@ -1,95 +1,175 @@
-import java.time.LocalTime;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The Customer class represents a customer in the restaurant simulation who places an order,
  * waits for a table, and eats the meal. This class implements the Runnable interface for
  * running in a separate thread.
+ * The simulation's clock starts the customer's task at their arrival time, and the task only lasts
+ * until the order is placed: eating and leaving are registered on the order's completion handle,
+ * run when the waiter serves the meal, and finished by a timer of the clock, so no thread is
+ * blocked per diner before they arrive or while the meal is cooked and eaten.
+ * Under admission control the customer may leave on arrival (balk), or give up waiting for room in the
+ * kitchen or a table once their patience runs out (renege); see AdmissionControl.
  */
 public class Customer implements Runnable {
+    // Simulation the customer visits
+    private RestaurantSimulation simulation;
     // Unique ID for the customer
     private int customerID;
-    // Item the customer orders from the menu
-    private String orderItem;
+    // ID of the menu item the customer orders
+    private int orderItemID;
+    // Number of diners in the customer's party
+    private int partySize;
+    // Whether the customer has a reservation
+    private boolean reserved;
     // Time (in minutes since midnight) the customer arrives at the restaurant
     private int arrivalTime;
-    // Semaphore to manage table availability
-    private CustomSemaphore tableSemaphore;
-    // Table number assigned to the customer
+    // Time the customer spends eating, in simulated minutes
+    private int eatingTime;
+    // Allocator seating the party at a table that fits it
+    private TableAllocator tables;
+    // Table number assigned to the customer (the first table if tables were joined)
     private int tableNumber;
+    // Completed when the customer leaves the restaurant
+    private final CompletableFuture<Void> visit = new CompletableFuture<>();
 
     /**
      * Constructor to initialize a Customer object.
+     * @param simulation The simulation the customer visits.
      * @param customerID The unique ID for the customer.
-     * @param orderItem The item the customer orders.
+     * @param orderItemID The menu item ID of the item the customer orders.
+     * @param partySize The number of diners in the customer's party.
+     * @param reserved True if the customer has a reservation.
      * @param arrivalTime The time the customer arrives, in minutes since midnight.
-     * @param tableSemaphore The custom semaphore managing table availability.
-     * @throws Exception If there is an issue during initialization.
+     * @param eatingTime The time the customer spends eating, in simulated minutes.
+     * @param tables The allocator managing table availability.
      */
-    public Customer(int customerID, String orderItem, int arrivalTime, CustomSemaphore tableSemaphore) throws Exception {
+    public Customer(RestaurantSimulation simulation, int customerID, int orderItemID, int partySize, boolean reserved,
+            int arrivalTime, int eatingTime, TableAllocator tables) {
+        this.simulation = simulation;
         this.customerID = customerID;
-        this.orderItem = orderItem;
+        this.orderItemID = orderItemID;
+        this.partySize = partySize;
+        this.reserved = reserved;
         this.arrivalTime = arrivalTime;
-        this.tableSemaphore = tableSemaphore;
+        this.eatingTime = eatingTime;
+        this.tables = tables;
     }
 
     /**
-     * The run method defines the behavior of the customer thread.
-     * The customer waits until their arrival time, gets seated at a table,
-     * places an order, waits for the meal, eats the meal, and then leaves the restaurant.
+     * The run method defines the behavior of the customer thread, started at the customer's arrival time.
+     * The customer gets seated at a table and places an order.
+     * Eating and leaving happen once the order is served.
      */
-    public synchronized void run() {
+    public void run() {
         try {
-            // Wait until the current simulation time matches the customer's arrival time
-            while (getCurrentTime() < arrivalTime) {
-                Thread.sleep(500); // Sleep for a short duration and then recheck
+            // Record the customer's arrival
+            simulation.getEventLog().record(EventType.ARRIVE, getCurrentTime(), customerID, 0, 0, null);
+
+            // Leave right away if the wait looks longer than the customer's patience
+            AdmissionControl admission = simulation.getAdmission();
+            if (simulation.balks(orderItemID, reserved)) {
+                simulation.getEventLog().record(EventType.BALK, getCurrentTime(), customerID, 0, 0, null);
+                admission.recordBalk();
+                leaveUnserved();
+                return;
+            }
+            int deadline = admission.getDeadline(arrivalTime, reserved);
+            if (deadline != AdmissionControl.NO_DEADLINE) {
+                // Wake the customer at the deadline if they are still waiting
+                simulation.getClock().scheduleAt(deadline, () -> {
+                    admission.wakeWaiting();
+                    tables.wakeWaiting(partySize, reserved);
+                });
             }
 
-            // Print a message when the customer arrives
-            System.out.println("[" + RestaurantSimulation.minutesToTime(getCurrentTime()) + "] Customer " + this.customerID + " arrives.");
-
-            // Acquire a table using the semaphore and print a message
-            this.tableNumber = tableSemaphore.acquire();
-            Thread.sleep(250); // Short pause to simulate time taken to get seated
-            System.out.println("[" + RestaurantSimulation.minutesToTime(getCurrentTime()) + "] Customer " + this.customerID + " is seated at Table " + this.tableNumber);
+            // Wait for room in the kitchen, then acquire a table that fits the party and record the event
+            if (!admission.awaitOrderSlot(deadline, simulation)) {
+                renege();
+                return;
+            }
+            this.tableNumber = tables.acquire(partySize, reserved, deadline);
+            if (tableNumber == TableAllocator.NO_TABLE) {
+                admission.releaseOrderSlot();
+                renege();
+                return;
+            }
+            simulation.getClock().sleepTicks(1); // Short pause to simulate time taken to get seated
+            simulation.getEventLog().record(EventType.SEAT, getCurrentTime(), customerID, tableNumber, 0, null);
 
-            // Calculate and add the wait time to the total wait time in the simulation
-            RestaurantSimulation.totalWaitTime += getCurrentTime() - getArrivalTime();
+            // Record how long the customer waited for a table
+            simulation.getMetrics().record(Metric.TABLE_WAIT, getCurrentTime() - getArrivalTime());
+            FlightEvents.seat(getCurrentTime(), customerID, tableNumber, getCurrentTime() - getArrivalTime());
 
             // Place the order and add it to the order queue
-            RestaurantSimulation.orderQueue.addOrder(new Order(customerID, orderItem, RestaurantSimulation.menuMap.get(orderItem)));
-            System.out.println("[" + RestaurantSimulation.minutesToTime(getCurrentTime()) + "] Customer " + this.customerID + " places an order: " + this.orderItem);
-
-            // Wait until the meal is served
-            synchronized (this) {
-                wait();
-            }
+            Menu menu = simulation.getMenu();
+            String orderItem = menu.getName(orderItemID);
+            Order order = new Order(customerID, orderItemID, orderItem, menu.getPrepTime(orderItemID));
+            order.setPlacedTime(getCurrentTime());
+
+            // Eat once the waiter serves the meal; the thread is not needed until then
+            order.setTableID(tableNumber);
+            order.getServed().thenAccept(meal -> eat());
+            simulation.getOrderQueue().addOrder(order);
+            simulation.getEventLog().record(EventType.ORDER, getCurrentTime(), customerID, tableNumber, 0, orderItem);
+            FlightEvents.order(getCurrentTime(), customerID, tableNumber, orderItem);
+        } catch (Exception e) {
+            // Print an error message if something goes wrong
+            System.out.println("Something is wrong: " + e.getMessage());
+            visit.completeExceptionally(e);
+        }
+    }
 
-            // Simulate eating the meal for a random duration between 10 and 20 seconds
-            int randomTime = 10 + (int) (Math.random() * 11);
-            Thread.sleep(randomTime * 1000);
+    /**
+     * Starts eating the served meal, for the eating time drawn when the customer was read,
+     * and schedules leaving the restaurant afterwards on the simulation's clock.
+     */
+    private void eat() {
+        simulation.getAdmission().recordServed(getCurrentTime() - arrivalTime);
+        simulation.getClock().schedule(eatingTime, this::leave);
+    }
 
-            // Release the table and print messages when the customer finishes eating and leaves
-            tableSemaphore.release(this.tableNumber);
-            System.out.println("[" + RestaurantSimulation.minutesToTime(getCurrentTime()) + "] Customer " + this.customerID + " finishes eating and leaves the restaurant.");
-            System.out.println("[" + RestaurantSimulation.minutesToTime(getCurrentTime()) + "] Table " + this.tableNumber + " is now available.");
+    /**
+     * Releases the table and records that the customer finishes eating and leaves.
+     */
+    private void leave() {
+        try {
+            tables.release(this.tableNumber);
+            simulation.getEventLog().record(EventType.LEAVE, getCurrentTime(), customerID, tableNumber, 0, null);
+            simulation.getMetrics().record(Metric.VISIT_TIME, getCurrentTime() - arrivalTime);
 
             // Notify the simulation that the customer has finished
-            RestaurantSimulation.customerFinished();
-
+            simulation.customerFinished();
+            visit.complete(null);
         } catch (Exception e) {
-            // Print an error message if something goes wrong
             System.out.println("Something is wrong: " + e.getMessage());
+            visit.completeExceptionally(e);
         }
     }
 
     /**
-     * Method to notify the customer when their meal is ready.
-     * Wakes up the customer thread from waiting.
+     * Records that the customer gave up waiting and leaves without a table.
      */
-    public synchronized void receiveMeal() {
-        synchronized (this) {
-            notify();
-        }
+    private void renege() {
+        simulation.getEventLog().record(EventType.RENEGE, getCurrentTime(), customerID, 0, 0, null);
+        simulation.getAdmission().recordRenege();
+        leaveUnserved();
+    }
+
+    /**
+     * Leaves the restaurant without being served, after balking or reneging.
+     */
+    private void leaveUnserved() {
+        simulation.customerLost();
+        visit.complete(null);
+    }
+
+    /**
+     * Gets the handle completed when the customer leaves the restaurant.
+     * @return The completion handle of the visit.
+     */
+    public CompletableFuture<Void> getVisit() {
+        return visit;
     }
 
     // Getter for the customer ID
@@ -99,7 +179,7 @@ public class Customer implements Runnable {
 
     // Getter for the order item
     public String getOrderItem() {
-        return orderItem;
+        return simulation.getMenu().getName(orderItemID);
     }
 
     // Getter for the arrival time
@@ -107,16 +187,31 @@ public class Customer implements Runnable {
         return arrivalTime;
     }
 
+    // Getter for the number of diners in the party
+    public int getPartySize() {
+        return partySize;
+    }
+
+    // Getter for whether the customer has a reservation
+    public boolean isReserved() {
+        return reserved;
+    }
+
     // Getter for the table number
     public int getTableID() {
         return tableNumber;
     }
 
+    // Setter for the table number, used by the discrete-event engine
+    public void setTableID(int tableNumber) {
+        this.tableNumber = tableNumber;
+    }
+
     /**
      * Method to get the current simulation time.
      * @return Current time in the simulation, in minutes since midnight.
      */
     private int getCurrentTime() {
-        return RestaurantSimulation.currentTime;
+        return simulation.getCurrentTime();
     }
 }
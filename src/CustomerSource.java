@@ -0,0 +1,63 @@
+import java.io.*;
+
+/**
+ * The CustomerSource interface supplies the staffing, the menu and the customers of a scenario,
+ * one customer at a time in order of arrival. ScenarioReader streams them from a scenario file and
+ * WorkloadGenerator makes them up as they are needed, so neither engine holds more than the next
+ * customer before the simulation reaches their arrival time.
+ */
+public interface CustomerSource extends Closeable {
+    /**
+     * Advances to the next customer.
+     * @return True if a customer is available, false once the scenario has no more customers.
+     * @throws IOException If the customer cannot be read.
+     */
+    boolean next() throws IOException;
+
+    // Getter for the number of chefs (NC)
+    int getNumChefs();
+
+    // Getter for the number of waiters (NW)
+    int getNumWaiters();
+
+    // Getter for the number of tables (NT)
+    int getNumTables();
+
+    // Getter for the seats of tables 1, 2, ..., repeated for further tables (null gives every table the default)
+    int[] getTableSeats();
+
+    // Getter for the menu, with preparation times in minutes
+    Menu getMenu();
+
+    // Getter for the ID of the current customer
+    int getCustomerID();
+
+    // Getter for the arrival time of the current customer, in minutes since midnight
+    int getArrivalTime();
+
+    // Getter for the menu item ID of the current customer's order
+    int getOrderItemID();
+
+    // Getter for the order of the current customer (the shared menu item string)
+    String getOrderItem();
+
+    // Getter for the number of diners in the current customer's party
+    int getPartySize();
+
+    // Getter for whether the current customer has a reservation
+    boolean hasReservation();
+
+    /**
+     * Writes how far the source has got, so a checkpoint can continue with the next customer.
+     * @param out The checkpoint stream.
+     * @throws IOException If the stream cannot be written.
+     */
+    void writePosition(DataOutputStream out) throws IOException;
+
+    /**
+     * Continues with the customer after the position saved by writePosition.
+     * @param in The checkpoint stream.
+     * @throws IOException If the stream cannot be read or belongs to another scenario.
+     */
+    void readPosition(DataInputStream in) throws IOException;
+}
@@ -0,0 +1,304 @@
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * The CustomerStore class keeps the customers of the discrete-event engine as a struct of arrays.
+ * Each customer in the restaurant occupies a slot, a dense index into parallel int arrays (ID, arrival time,
+ * menu item ID, party size, reservation, table, order times and priority, and the one event pending for the customer),
+ * instead of a Customer object, an Order object and a boxed map entry.
+ * A customer takes about 48 bytes, and slots are reused once a customer leaves,
+ * so the store only grows with the number of customers in the restaurant at the same time.
+ * A slot can also hold a timer of the engine instead of a customer; such slots only use the event columns.
+ * The class is not thread-safe.
+ */
+public class CustomerStore {
+    // Event types by ordinal, cached to avoid copying values() on every lookup
+    private static final EventType[] EVENT_TYPES = EventType.values();
+
+    // Customer ID of each slot
+    private int[] customerIDs;
+    // Arrival time of each slot, in minutes since midnight
+    private int[] arrivalTimes;
+    // Menu item ID of each slot's order
+    private int[] orderItems;
+    // Number of diners in each slot's party
+    private int[] partySizes;
+    // Whether each slot's customer has a reservation
+    private boolean[] reservations;
+    // Table of each slot (0 until seated)
+    private int[] tableIDs;
+    // Time each slot's order was placed
+    private int[] placedTimes;
+    // Time each slot's order finished cooking
+    private int[] cookedTimes;
+    // Sequence number of each slot's order, in the order the orders were placed
+    private int[] orderSequences;
+    // Scheduling priority of each slot's order; lower is cooked first
+    private long[] orderPriorities;
+    // Type of the event pending for each slot (EventType ordinal)
+    private byte[] eventTypes;
+    // Chef, waiter or table involved in the event pending for each slot
+    private int[] eventResources;
+    // Slots released by customers who left, reused before new ones
+    private int[] freeSlots;
+    // Number of entries in freeSlots
+    private int freeCount;
+    // Number of slots handed out at least once
+    private int used;
+    // Number of customers currently in the store
+    private int size;
+
+    /**
+     * Constructor to initialize an empty store.
+     * @param capacity The initial number of slots; the store grows as needed.
+     */
+    public CustomerStore(int capacity) {
+        capacity = Math.max(1, capacity);
+        customerIDs = new int[capacity];
+        arrivalTimes = new int[capacity];
+        orderItems = new int[capacity];
+        partySizes = new int[capacity];
+        reservations = new boolean[capacity];
+        tableIDs = new int[capacity];
+        placedTimes = new int[capacity];
+        cookedTimes = new int[capacity];
+        orderSequences = new int[capacity];
+        orderPriorities = new long[capacity];
+        eventTypes = new byte[capacity];
+        eventResources = new int[capacity];
+        freeSlots = new int[capacity];
+    }
+
+    /**
+     * Adds a customer.
+     * @param customerID The customer's ID.
+     * @param arrivalTime The arrival time, in minutes since midnight.
+     * @param orderItemID The menu item ID of the customer's order.
+     * @param partySize The number of diners in the customer's party.
+     * @return The slot of the customer.
+     */
+    public int add(int customerID, int arrivalTime, int orderItemID, int partySize) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (used == customerIDs.length) {
+                grow();
+            }
+            slot = used++;
+        }
+        customerIDs[slot] = customerID;
+        arrivalTimes[slot] = arrivalTime;
+        orderItems[slot] = orderItemID;
+        partySizes[slot] = partySize;
+        reservations[slot] = false;
+        tableIDs[slot] = 0;
+        size++;
+        return slot;
+    }
+
+    /**
+     * Removes a customer, making the slot available again.
+     * @param slot The customer's slot.
+     */
+    public void remove(int slot) {
+        freeSlots[freeCount++] = slot;
+        size--;
+    }
+
+    /**
+     * Records the event pending for a customer.
+     * @param slot The customer's slot.
+     * @param type The kind of event.
+     * @param resourceID The chef, waiter or table involved (0 if none).
+     */
+    public void setEvent(int slot, EventType type, int resourceID) {
+        eventTypes[slot] = (byte) type.ordinal();
+        eventResources[slot] = resourceID;
+    }
+
+    /**
+     * Gets the kind of event pending for a customer.
+     * @param slot The customer's slot.
+     * @return The kind of event.
+     */
+    public EventType getEventType(int slot) {
+        return EVENT_TYPES[eventTypes[slot]];
+    }
+
+    // Getter for the chef, waiter or table of the pending event
+    public int getEventResource(int slot) {
+        return eventResources[slot];
+    }
+
+    // Getter for the customer ID
+    public int getCustomerID(int slot) {
+        return customerIDs[slot];
+    }
+
+    // Getter for the arrival time
+    public int getArrivalTime(int slot) {
+        return arrivalTimes[slot];
+    }
+
+    // Getter for the menu item ID of the order
+    public int getOrderItemID(int slot) {
+        return orderItems[slot];
+    }
+
+    // Getter for the number of diners in the party
+    public int getPartySize(int slot) {
+        return partySizes[slot];
+    }
+
+    // Getter for whether the customer has a reservation
+    public boolean isReserved(int slot) {
+        return reservations[slot];
+    }
+
+    // Setter for whether the customer has a reservation
+    public void setReserved(int slot, boolean reserved) {
+        reservations[slot] = reserved;
+    }
+
+    // Getter for the table ID
+    public int getTableID(int slot) {
+        return tableIDs[slot];
+    }
+
+    // Setter for the table ID
+    public void setTableID(int slot, int tableID) {
+        tableIDs[slot] = tableID;
+    }
+
+    // Getter for the time the order was placed
+    public int getPlacedTime(int slot) {
+        return placedTimes[slot];
+    }
+
+    // Setter for the time the order was placed
+    public void setPlacedTime(int slot, int time) {
+        placedTimes[slot] = time;
+    }
+
+    // Getter for the time the order finished cooking
+    public int getCookedTime(int slot) {
+        return cookedTimes[slot];
+    }
+
+    // Setter for the time the order finished cooking
+    public void setCookedTime(int slot, int time) {
+        cookedTimes[slot] = time;
+    }
+
+    // Getter for the sequence number of the order
+    public int getOrderSequence(int slot) {
+        return orderSequences[slot];
+    }
+
+    // Setter for the sequence number of the order
+    public void setOrderSequence(int slot, int sequence) {
+        orderSequences[slot] = sequence;
+    }
+
+    // Getter for the scheduling priority of the order
+    public long getOrderPriority(int slot) {
+        return orderPriorities[slot];
+    }
+
+    // Setter for the scheduling priority of the order
+    public void setOrderPriority(int slot, long priority) {
+        orderPriorities[slot] = priority;
+    }
+
+    // Getter for the number of customers in the store
+    public int size() {
+        return size;
+    }
+
+    // Getter for the number of slots allocated
+    public int capacity() {
+        return customerIDs.length;
+    }
+
+    /**
+     * Grows every column by half.
+     */
+    private void grow() {
+        int capacity = customerIDs.length + (customerIDs.length >> 1) + 1;
+        customerIDs = Arrays.copyOf(customerIDs, capacity);
+        arrivalTimes = Arrays.copyOf(arrivalTimes, capacity);
+        orderItems = Arrays.copyOf(orderItems, capacity);
+        partySizes = Arrays.copyOf(partySizes, capacity);
+        reservations = Arrays.copyOf(reservations, capacity);
+        tableIDs = Arrays.copyOf(tableIDs, capacity);
+        placedTimes = Arrays.copyOf(placedTimes, capacity);
+        cookedTimes = Arrays.copyOf(cookedTimes, capacity);
+        orderSequences = Arrays.copyOf(orderSequences, capacity);
+        orderPriorities = Arrays.copyOf(orderPriorities, capacity);
+        eventTypes = Arrays.copyOf(eventTypes, capacity);
+        eventResources = Arrays.copyOf(eventResources, capacity);
+        freeSlots = Arrays.copyOf(freeSlots, capacity);
+    }
+
+    /**
+     * Writes the slots handed out so far and the free-slot list, for a checkpoint.
+     * @param out The checkpoint stream.
+     * @throws IOException If the stream cannot be written.
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(used);
+        out.writeInt(size);
+        for (int slot = 0; slot < used; slot++) {
+            out.writeInt(customerIDs[slot]);
+            out.writeInt(arrivalTimes[slot]);
+            out.writeInt(orderItems[slot]);
+            out.writeInt(partySizes[slot]);
+            out.writeBoolean(reservations[slot]);
+            out.writeInt(tableIDs[slot]);
+            out.writeInt(placedTimes[slot]);
+            out.writeInt(cookedTimes[slot]);
+            out.writeInt(orderSequences[slot]);
+            out.writeLong(orderPriorities[slot]);
+            out.writeByte(eventTypes[slot]);
+            out.writeInt(eventResources[slot]);
+        }
+        out.writeInt(freeCount);
+        for (int i = 0; i < freeCount; i++) {
+            out.writeInt(freeSlots[i]);
+        }
+    }
+
+    /**
+     * Replaces the contents of the store with those of a checkpoint; slots keep their numbers.
+     * @param in The checkpoint stream.
+     * @throws IOException If the stream cannot be read.
+     */
+    public void readFrom(DataInputStream in) throws IOException {
+        used = 0;
+        int slots = in.readInt();
+        while (customerIDs.length < slots) {
+            grow();
+        }
+        size = in.readInt();
+        for (int slot = 0; slot < slots; slot++) {
+            customerIDs[slot] = in.readInt();
+            arrivalTimes[slot] = in.readInt();
+            orderItems[slot] = in.readInt();
+            partySizes[slot] = in.readInt();
+            reservations[slot] = in.readBoolean();
+            tableIDs[slot] = in.readInt();
+            placedTimes[slot] = in.readInt();
+            cookedTimes[slot] = in.readInt();
+            orderSequences[slot] = in.readInt();
+            orderPriorities[slot] = in.readLong();
+            eventTypes[slot] = in.readByte();
+            eventResources[slot] = in.readInt();
+        }
+        used = slots;
+        freeCount = in.readInt();
+        for (int i = 0; i < freeCount; i++) {
+            freeSlots[i] = in.readInt();
+        }
+    }
+}
@@ -0,0 +1,428 @@
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The EventLog class records the simulation's events without slowing the simulation down.
+ * Chefs, waiters and customers publish small fixed-layout records (type, time, customer,
+ * table, chef or waiter, menu item) into striped buffers of primitive arrays, and a
+ * background writer thread formats and writes them in batches. Every record carries a
+ * global sequence number, so the writer emits them in exactly the order they were recorded.
+ *
+ * The binary format starts with the magic "RSEV" and a version int, followed by 21-byte
+ * records: type (byte, EventType ordinal), time, customer, table, staff and item ID (ints).
+ * The first use of a menu item is preceded by a definition record: the byte 127, the item ID
+ * (int) and the item name (modified UTF-8).
+ * The trace format is written by TraceWriter to a memory-mapped file for TraceAnalyzer.
+ * Each simulation owns its own EventLog.
+ */
+public class EventLog {
+    // Number of records in each buffer chunk
+    private static final int CHUNK_SIZE = 4096;
+    // Maximum number of chunks in use; producers wait for the writer beyond this
+    private static final int MAX_CHUNKS = 256;
+    // Type byte of a menu item definition in the binary format
+    public static final int ITEM_DEFINITION = 127;
+    // Version of the binary format
+    public static final int BINARY_VERSION = 1;
+
+    // Default file of the binary format
+    public static final String DEFAULT_BINARY_FILE = "simulation_events.bin";
+    // Default file of the trace format
+    public static final String DEFAULT_TRACE_FILE = "simulation_trace.bin";
+
+    // Where the events go
+    private volatile LogFormat format = LogFormat.DISCARD;
+    // Striped buffers; a thread always writes to the stripe picked by its ID
+    private Stripe[] stripes;
+    // Global sequence number of the next record
+    private final AtomicLong nextSequence = new AtomicLong();
+    // Chunks that can be reused
+    private final ConcurrentLinkedQueue<Chunk> freeChunks = new ConcurrentLinkedQueue<>();
+    // Chunks that producers started filling and the writer has not seen yet
+    private final ConcurrentLinkedQueue<Chunk> newChunks = new ConcurrentLinkedQueue<>();
+    // Number of chunks allocated so far
+    private final AtomicInteger chunkCount = new AtomicInteger();
+    // Background thread that formats and writes the records
+    private Thread writer;
+    // Whether the writer should keep running
+    private volatile boolean running;
+    // Output stream for the binary format
+    private DataOutputStream binaryOut;
+    // Output stream for the text format
+    private PrintStream textOut;
+    // Memory-mapped output for the trace format
+    private TraceWriter traceOut;
+
+    /**
+     * Starts the background writer.
+     * @param logFormat Where the events go.
+     * @param logFile The file to write to, or null for standard output (text) or the default file (binary, trace).
+     * @throws IOException If the log file cannot be created.
+     */
+    public synchronized void start(LogFormat logFormat, String logFile) throws IOException {
+        if (logFormat == LogFormat.BINARY) {
+            String fileName = logFile == null ? DEFAULT_BINARY_FILE : logFile;
+            binaryOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName), 1 << 16));
+            binaryOut.writeBytes("RSEV");
+            binaryOut.writeInt(BINARY_VERSION);
+        } else if (logFormat == LogFormat.TRACE) {
+            traceOut = new TraceWriter(logFile == null ? DEFAULT_TRACE_FILE : logFile);
+        } else if (logFormat == LogFormat.TEXT) {
+            textOut = logFile == null ? System.out : new PrintStream(new FileOutputStream(logFile), false);
+        }
+        int stripeCount = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1;
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        nextSequence.set(0);
+        format = logFormat;
+        if (logFormat == LogFormat.DISCARD) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "EventLog-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Records an event. Only stores the values; formatting happens on the writer thread.
+     * @param type The kind of event.
+     * @param time The simulated time of the event, in minutes since midnight.
+     * @param customerID The customer the event belongs to.
+     * @param tableID The table involved (0 if none).
+     * @param staffID The chef or waiter involved (0 if none).
+     * @param item The menu item involved (null if none).
+     */
+    public void record(EventType type, int time, int customerID, int tableID, int staffID, String item) {
+        if (format == LogFormat.DISCARD) {
+            return;
+        }
+        Stripe stripe = stripes[(int) Thread.currentThread().getId() & (stripes.length - 1)];
+        stripe.lock.lock();
+        try {
+            Chunk chunk = stripe.chunk;
+            if (chunk == null) {
+                chunk = obtainChunk();
+                stripe.chunk = chunk;
+                newChunks.add(chunk);
+            }
+            int i = chunk.size++;
+            chunk.types[i] = (byte) type.ordinal();
+            chunk.times[i] = time;
+            chunk.customers[i] = customerID;
+            chunk.tables[i] = tableID;
+            chunk.staff[i] = staffID;
+            chunk.items[i] = item;
+            chunk.sequences[i] = nextSequence.getAndIncrement();
+            if (chunk.size == CHUNK_SIZE) {
+                // Let go of the full chunk before publishing, so it can be recycled safely
+                stripe.chunk = null;
+            }
+            chunk.published = chunk.size;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Writes every recorded event, stops the writer and flushes the output.
+     * Must be called before printing anything else that should follow the trace.
+     */
+    public synchronized void close() {
+        if (writer != null) {
+            running = false;
+            LockSupport.unpark(writer);
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writer = null;
+        }
+        format = LogFormat.DISCARD;
+    }
+
+    /**
+     * Takes a free chunk, allocating one if the limit allows, or waits for the writer to free one.
+     * @return An empty chunk.
+     */
+    private Chunk obtainChunk() {
+        while (true) {
+            Chunk chunk = freeChunks.poll();
+            if (chunk != null) {
+                return chunk;
+            }
+            if (chunkCount.getAndIncrement() < MAX_CHUNKS) {
+                return new Chunk();
+            }
+            chunkCount.decrementAndGet();
+            // The writer is behind; wake it and wait briefly
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(100_000);
+        }
+    }
+
+    /**
+     * Body of the writer thread: emits records in sequence order, recycles chunks
+     * that are fully written, and sleeps briefly whenever it has caught up.
+     */
+    private void writeLoop() {
+        ArrayList<Chunk> active = new ArrayList<>();
+        RecordWriter out = new RecordWriter();
+        long next = 0;
+        Chunk run = null;
+        try {
+            while (true) {
+                // Read the flag before draining, so a stop request sees every earlier record
+                boolean stopping = !running;
+                Chunk added;
+                while ((added = newChunks.poll()) != null) {
+                    active.add(added);
+                }
+
+                int emitted = 0;
+                while (true) {
+                    // Keep emitting from the same chunk while it holds the next sequence number
+                    if (run == null || run.consumed == run.published || run.sequences[run.consumed] != next) {
+                        run = findChunk(active, next);
+                        if (run == null) {
+                            break;
+                        }
+                    }
+                    out.write(run, run.consumed);
+                    run.consumed++;
+                    next++;
+                    emitted++;
+                }
+
+                // Recycle chunks that are full and completely written
+                for (int i = active.size() - 1; i >= 0; i--) {
+                    Chunk chunk = active.get(i);
+                    if (chunk.consumed == CHUNK_SIZE) {
+                        active.remove(i);
+                        if (chunk == run) {
+                            run = null;
+                        }
+                        chunk.reset();
+                        freeChunks.add(chunk);
+                    }
+                }
+
+                if (emitted == 0) {
+                    out.flush();
+                    if (stopping) {
+                        break;
+                    }
+                    LockSupport.parkNanos(2_000_000);
+                }
+            }
+            out.close();
+        } catch (IOException e) {
+            System.out.println("An error occurred in the event log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Finds the chunk whose next unwritten record has the given sequence number.
+     * @param active The chunks that may still hold unwritten records.
+     * @param sequence The sequence number to look for.
+     * @return The chunk, or null if that record has not been published yet.
+     */
+    private Chunk findChunk(ArrayList<Chunk> active, long sequence) {
+        for (Chunk chunk : active) {
+            if (chunk.consumed < chunk.published && chunk.sequences[chunk.consumed] == sequence) {
+                return chunk;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Appends a time in "HH:MM" format without going through String.format.
+     * @param text The builder to append to.
+     * @param minutes The total minutes since midnight.
+     * @return The builder.
+     */
+    public static StringBuilder appendTime(StringBuilder text, int minutes) {
+        int hours = minutes / 60;
+        int mins = minutes % 60;
+        if (hours < 10) {
+            text.append('0');
+        }
+        text.append(hours).append(':');
+        if (mins < 10) {
+            text.append('0');
+        }
+        return text.append(mins);
+    }
+
+    /**
+     * Appends the text form of an event, one line per line of the trace ending with a line break.
+     * @param text The builder to append to.
+     * @param type The kind of event.
+     * @param time The simulated time of the event, in minutes since midnight.
+     * @param customer The customer the event belongs to.
+     * @param table The table involved (0 if none).
+     * @param staff The chef or waiter involved (0 if none).
+     * @param item The menu item involved (null if none).
+     * @return The builder.
+     */
+    public static StringBuilder appendEvent(StringBuilder text, EventType type, int time, int customer,
+                                            int table, int staff, String item) {
+        appendTime(text.append('['), time).append("] ");
+        switch (type) {
+            case ARRIVE:
+                text.append("Customer ").append(customer).append(" arrives.");
+                break;
+            case SEAT:
+                text.append("Customer ").append(customer).append(" is seated at Table ").append(table);
+                break;
+            case ORDER:
+                text.append("Customer ").append(customer).append(" places an order: ").append(item);
+                break;
+            case COOK_START:
+                text.append("Chef ").append(staff).append(" starts preparing ").append(item)
+                        .append(" for Customer ").append(customer);
+                break;
+            case COOK_END:
+                text.append("Chef ").append(staff).append(" finishes preparing ").append(item)
+                        .append(" for Customer ").append(customer);
+                break;
+            case SERVE:
+                text.append("Waiter ").append(staff).append(" serves ").append(item)
+                        .append(" to Customer ").append(customer).append(" at Table ").append(table);
+                break;
+            case LEAVE:
+                text.append("Customer ").append(customer).append(" finishes eating and leaves the restaurant.\n");
+                appendTime(text.append('['), time).append("] Table ").append(table).append(" is now available.");
+                break;
+            case BALK:
+                text.append("Customer ").append(customer).append(" sees the queue and leaves without waiting.");
+                break;
+            case RENEGE:
+                text.append("Customer ").append(customer).append(" gives up waiting for a table and leaves.");
+                break;
+        }
+        return text.append('\n');
+    }
+
+    /**
+     * A buffer stripe shared by the threads whose IDs map to it.
+     */
+    private static class Stripe {
+        // Lock held only while one record is stored
+        final ReentrantLock lock = new ReentrantLock();
+        // Chunk currently being filled (null until the first record or after a chunk fills up)
+        Chunk chunk;
+    }
+
+    /**
+     * A fixed-size block of records stored as parallel primitive arrays.
+     */
+    private static class Chunk {
+        final byte[] types = new byte[CHUNK_SIZE];
+        final int[] times = new int[CHUNK_SIZE];
+        final int[] customers = new int[CHUNK_SIZE];
+        final int[] tables = new int[CHUNK_SIZE];
+        final int[] staff = new int[CHUNK_SIZE];
+        final String[] items = new String[CHUNK_SIZE];
+        final long[] sequences = new long[CHUNK_SIZE];
+        // Number of records stored by the producer (guarded by the stripe lock)
+        int size;
+        // Number of records visible to the writer
+        volatile int published;
+        // Number of records already written (writer thread only)
+        int consumed;
+
+        void reset() {
+            java.util.Arrays.fill(items, null);
+            size = 0;
+            consumed = 0;
+            published = 0;
+        }
+    }
+
+    /**
+     * Turns records into output for the selected format. Used only by the writer thread.
+     */
+    private class RecordWriter {
+        // Text waiting to be printed
+        private final StringBuilder text = new StringBuilder(1 << 16);
+        // IDs of the menu items already defined in the binary output
+        private final HashMap<String, Integer> itemIDs = new HashMap<>();
+
+        void write(Chunk chunk, int i) throws IOException {
+            if (traceOut != null) {
+                traceOut.write(chunk.types[i], chunk.times[i], chunk.customers[i], chunk.tables[i], chunk.staff[i], chunk.items[i]);
+            } else if (binaryOut != null) {
+                writeBinary(chunk, i);
+            } else {
+                writeText(chunk, i);
+            }
+        }
+
+        private void writeText(Chunk chunk, int i) {
+            appendEvent(text, EventType.values()[chunk.types[i]], chunk.times[i], chunk.customers[i],
+                    chunk.tables[i], chunk.staff[i], chunk.items[i]);
+            if (text.length() >= 1 << 16) {
+                flush();
+            }
+        }
+
+        private void writeBinary(Chunk chunk, int i) throws IOException {
+            int itemID = -1;
+            String item = chunk.items[i];
+            if (item != null) {
+                Integer known = itemIDs.get(item);
+                if (known == null) {
+                    known = itemIDs.size();
+                    itemIDs.put(item, known);
+                    binaryOut.writeByte(ITEM_DEFINITION);
+                    binaryOut.writeInt(known);
+                    binaryOut.writeUTF(item);
+                }
+                itemID = known;
+            }
+            binaryOut.writeByte(chunk.types[i]);
+            binaryOut.writeInt(chunk.times[i]);
+            binaryOut.writeInt(chunk.customers[i]);
+            binaryOut.writeInt(chunk.tables[i]);
+            binaryOut.writeInt(chunk.staff[i]);
+            binaryOut.writeInt(itemID);
+        }
+
+        void flush() {
+            if (textOut == null) {
+                return;
+            }
+            if (text.length() > 0) {
+                textOut.print(text);
+                text.setLength(0);
+            }
+            textOut.flush();
+        }
+
+        void close() throws IOException {
+            flush();
+            if (binaryOut != null) {
+                binaryOut.close();
+                binaryOut = null;
+            }
+            if (traceOut != null) {
+                traceOut.close();
+                traceOut = null;
+            }
+            if (textOut != null && textOut != System.out) {
+                textOut.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * The EventQueue class orders the pending events of the discrete-event engine by simulated time.
+ * It is a binary heap of primitive longs: each key packs the event time into the high bits
+ * and a scheduling sequence number into the low bits, so events of the same minute keep
+ * the order they were scheduled in. A parallel int array holds the customer slot of each event;
+ * the rest of the event is stored with the customer in the CustomerStore.
+ * No objects are created per event. The class is not thread-safe.
+ */
+public class EventQueue {
+    // Number of low key bits holding the sequence number
+    private static final int SEQUENCE_BITS = 40;
+    // Largest time that fits in the key
+    private static final long MAX_TIME = (1L << (63 - SEQUENCE_BITS)) - 1;
+
+    // Heap of keys (time and sequence)
+    private long[] keys = new long[1024];
+    // Customer slot of each key, moved together with it
+    private int[] slots = new int[1024];
+    // Number of events in the heap
+    private int size;
+    // Sequence number of the next event
+    private long nextSequence;
+
+    /**
+     * Adds an event.
+     * @param time The simulated time of the event, in minutes.
+     * @param slot The customer slot the event belongs to.
+     */
+    public void add(int time, int slot) {
+        if (time < 0 || time > MAX_TIME) {
+            throw new IllegalArgumentException("Event time " + time + " is out of range");
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            slots = Arrays.copyOf(slots, size * 2);
+        }
+        long key = ((long) time << SEQUENCE_BITS) | (nextSequence++ & ((1L << SEQUENCE_BITS) - 1));
+        // Sift the new event up from the bottom of the heap
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            keys[i] = keys[parent];
+            slots[i] = slots[parent];
+            i = parent;
+        }
+        keys[i] = key;
+        slots[i] = slot;
+    }
+
+    /**
+     * Gets the time of the earliest event without removing it.
+     * @return The time of the earliest event; the queue must not be empty.
+     */
+    public int peekTime() {
+        return (int) (keys[0] >>> SEQUENCE_BITS);
+    }
+
+    /**
+     * Removes the earliest event.
+     * @return The customer slot of the event; the queue must not be empty.
+     */
+    public int poll() {
+        int first = slots[0];
+        long key = keys[--size];
+        int slot = slots[size];
+        // Sift the last event down from the top of the heap
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            keys[i] = keys[child];
+            slots[i] = slots[child];
+            i = child;
+        }
+        keys[i] = key;
+        slots[i] = slot;
+        return first;
+    }
+
+    /**
+     * Checks whether the queue is empty.
+     * @return True if no events are pending.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Getter for the number of pending events
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Writes the heap as it is, for a checkpoint.
+     * @param out The checkpoint stream.
+     * @throws IOException If the stream cannot be written.
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeLong(nextSequence);
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeLong(keys[i]);
+            out.writeInt(slots[i]);
+        }
+    }
+
+    /**
+     * Replaces the pending events with those of a checkpoint.
+     * @param in The checkpoint stream.
+     * @throws IOException If the stream cannot be read.
+     */
+    public void readFrom(DataInputStream in) throws IOException {
+        nextSequence = in.readLong();
+        size = in.readInt();
+        keys = new long[Math.max(1024, size)];
+        slots = new int[keys.length];
+        // The keys were written in heap order, so they form a valid heap again
+        for (int i = 0; i < size; i++) {
+            keys[i] = in.readLong();
+            slots[i] = in.readInt();
+        }
+    }
+}
@@ -0,0 +1,735 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * The EventSimulation class runs the restaurant as a discrete-event simulation.
+ * Instead of sleeping on the wall clock, it keeps a priority queue of timestamped events
+ * and jumps the simulation time straight to the next event. Chefs, waiters and tables are
+ * modelled as idle pools, so a whole service runs on a single thread in milliseconds
+ * while recording the same trace as the threaded simulation.
+ * Customers, their orders and their pending events live in a CustomerStore and the queues
+ * hold primitive slots and IDs, so no objects are created per customer or per event.
+ * Chefs can cook several orders of the same menu item in one preparation cycle, and waiters can
+ * serve sections of the tables; see SimulationConfig. Parties are seated by the simulation's TableAllocator
+ * and wait in one queue per party size, so a large party waiting for a big table does not hold up
+ * the smaller parties behind it. Under admission control (see AdmissionControl) customers may balk on
+ * arrival or renege at a timer of their deadline, and parties are only seated while the kitchen has room.
+ */
+public class EventSimulation {
+    // Simulation whose clock, queues and metrics the engine drives
+    private RestaurantSimulation simulation;
+    // Menu of the scenario, with item names and preparation times by item ID
+    private Menu menu;
+    // Customers in the restaurant, with their orders and pending events
+    private CustomerStore customers = new CustomerStore(1024);
+    // Pending events ordered by simulated time; each customer has at most one
+    private EventQueue events = new EventQueue();
+    // IDs of chefs that are not preparing anything
+    private IntQueue idleChefs = new IntQueue();
+    // IDs of waiters that are not serving anything
+    private IntQueue idleWaiters = new IntQueue();
+    // Tables of the restaurant, seating parties by size
+    private TableAllocator tables;
+    // Admission control deciding who balks, reneges or waits for room in the kitchen
+    private AdmissionControl admission;
+    // Slots of customers who arrived but are still waiting for a table, one queue per party size and reservation
+    // (indexed by TableAllocator.waitKey, created when first needed); reneged customers stay until they reach the head
+    private IntQueue[] waitingCustomers;
+    // Keys that have a waiting queue, in the order the queues were created
+    private int[] waitingKeys = new int[4];
+    private int waitingKeyCount;
+    // Number of customers waiting for a table, not counting those who reneged
+    private int waitingCount;
+    // Pass of seatWaitingCustomers in which each queue last failed to find a table, by key
+    private int[] seatingPasses;
+    // Number of the current pass of seatWaitingCustomers
+    private int seatingPass;
+    // Slots of customers whose order waits for a chef, one queue per menu item
+    private IntQueue[] pendingOrders;
+    // Scheduling policy giving each order its priority
+    private OrderScheduler scheduler;
+    // Number of orders waiting for a chef
+    private int pendingOrderCount;
+    // Sequence number of the next order placed
+    private int nextOrderSequence;
+    // Number of identical orders cooked together, by menu item ID
+    private int[] batchSizes;
+    // Longest time in minutes an order is held back waiting for its batch to fill
+    private int batchHold;
+    // Extra preparation time in minutes for each portion after the first in a batch
+    private int batchSurcharge;
+    // Size of the batch each chef is cooking, by chef ID
+    private int[] chefBatchSizes;
+    // Number of portions of its batch each chef has not finished yet, by chef ID
+    private int[] chefPortionsLeft;
+    // Slots of customers whose meal is cooked but not yet served
+    private IntQueue cookedMeals = new IntQueue();
+    // Cooked meals of each waiter's section, indexed by waiter ID - 1 (null without waiter sections)
+    private IntQueue[] sectionMeals;
+    // Whether each waiter is free to serve, by waiter ID (used with waiter sections)
+    private boolean[] waiterIdle;
+    // Number of tables split among the waiter sections
+    private int numTables;
+    // Backlog of a section at which meals go to another section (0 never reroutes)
+    private int sectionRebalance;
+    // Random number generator for eating durations
+    private Random random;
+    // Source of customers that have not arrived yet
+    private CustomerSource arrivals;
+    // Simulated time at which to write a checkpoint (-1 for none)
+    private int checkpointTime = -1;
+    // File the checkpoint is written to
+    private String checkpointFile;
+    // Background write of the checkpoint, if one was taken
+    private CompletableFuture<Void> checkpointWrite;
+
+    /**
+     * Constructor to initialize the engine with the restaurant's staff and tables.
+     * @param simulation The simulation whose clock, trace and metrics the engine drives.
+     * @param numChefs The number of chefs.
+     * @param numWaiters The number of waiters.
+     * @param numTables The number of tables.
+     * @param random The random number generator used for eating durations.
+     */
+    public EventSimulation(RestaurantSimulation simulation, int numChefs, int numWaiters, int numTables, Random random) {
+        this.simulation = simulation;
+        this.menu = simulation.getMenu();
+        for (int i = 1; i <= numChefs; i++) {
+            idleChefs.add(i);
+        }
+        for (int i = 1; i <= numWaiters; i++) {
+            idleWaiters.add(i);
+        }
+        tables = simulation.getTableAllocator();
+        admission = simulation.getAdmission();
+        waitingCustomers = new IntQueue[TableAllocator.waitKey(tables.getMaxPartySize(), true) + 1];
+        seatingPasses = new int[waitingCustomers.length];
+        this.random = random;
+
+        // One pending queue per menu item; the priorities of an item's orders never decrease,
+        // so only the oldest order of each item competes for the next chef
+        pendingOrders = new IntQueue[menu.size()];
+        for (int i = 0; i < pendingOrders.length; i++) {
+            pendingOrders[i] = new IntQueue();
+        }
+        scheduler = simulation.getScheduler();
+
+        SimulationConfig config = simulation.getConfig();
+        batchSizes = new int[menu.size()];
+        for (int i = 0; i < batchSizes.length; i++) {
+            batchSizes[i] = config.getBatchSize(menu.getName(i));
+        }
+        batchHold = config.getBatchHold();
+        batchSurcharge = config.getBatchSurcharge();
+        chefBatchSizes = new int[numChefs + 1];
+        chefPortionsLeft = new int[numChefs + 1];
+
+        if (config.isWaiterSections() && numWaiters > 0) {
+            sectionMeals = new IntQueue[numWaiters];
+            for (int i = 0; i < numWaiters; i++) {
+                sectionMeals[i] = new IntQueue();
+            }
+            waiterIdle = new boolean[numWaiters + 1];
+            Arrays.fill(waiterIdle, true);
+            this.numTables = numTables;
+            sectionRebalance = config.getSectionRebalance();
+        }
+    }
+
+    /**
+     * Streams customers from a scenario file or a workload generator.
+     * Only the next arrival is kept in the event queue; each arrival reads the following customer,
+     * so the customers must be sorted by arrival time.
+     * @param reader The customer source, positioned on the first customer.
+     */
+    public void streamCustomers(CustomerSource reader) {
+        this.arrivals = reader;
+        scheduleArrival();
+    }
+
+    /**
+     * Processes events in time order until none are left or the stop rule of the simulation is exceeded.
+     * @throws IOException If streamed customers cannot be read or are not sorted by arrival time.
+     */
+    public void run() throws IOException {
+        while (!events.isEmpty() && !simulation.shouldStop()) {
+            // Jump the clock straight to the next event
+            int time = events.peekTime();
+            if (checkpointTime >= 0 && time >= checkpointTime) {
+                // Take the checkpoint between events, before anything happens at the checkpoint time
+                checkpointWrite = SimulationCheckpoint.save(simulation, this, checkpointFile);
+                checkpointTime = -1;
+            }
+            simulation.setCurrentTime(time);
+            handle(events.poll(), time);
+        }
+        if (checkpointWrite != null) {
+            try {
+                checkpointWrite.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Asks for a checkpoint to be written once the simulation reaches a given time.
+     * @param time The simulated time, in minutes since midnight.
+     * @param fileName The file to write the checkpoint to.
+     */
+    public void setCheckpoint(int time, String fileName) {
+        this.checkpointTime = time;
+        this.checkpointFile = fileName;
+    }
+
+    /**
+     * Writes the state of the engine for a checkpoint: the customers and their pending events,
+     * the idle chefs and waiters, the tables and their seatings, every queue, the scheduler, the random number
+     * generator and the position of the next arrival in the scenario file.
+     * @param out The checkpoint stream.
+     * @throws IOException If the stream cannot be written.
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        customers.writeTo(out);
+        events.writeTo(out);
+        idleChefs.writeTo(out);
+        tables.writeTo(out);
+        out.writeInt(waitingKeyCount);
+        for (int i = 0; i < waitingKeyCount; i++) {
+            out.writeInt(waitingKeys[i]);
+            waitingCustomers[waitingKeys[i]].writeTo(out);
+        }
+        out.writeInt(pendingOrders.length);
+        for (IntQueue queue : pendingOrders) {
+            queue.writeTo(out);
+        }
+        out.writeInt(pendingOrderCount);
+        out.writeInt(nextOrderSequence);
+        out.writeInt(chefBatchSizes.length);
+        for (int i = 0; i < chefBatchSizes.length; i++) {
+            out.writeInt(chefBatchSizes[i]);
+            out.writeInt(chefPortionsLeft[i]);
+        }
+
+        // Idle waiters and cooked meals are written the same way with or without waiter sections
+        IntQueue idle = new IntQueue();
+        IntQueue cooked = new IntQueue();
+        if (sectionMeals == null) {
+            idle = idleWaiters;
+            cooked = cookedMeals;
+        } else {
+            for (int waiterID = 1; waiterID < waiterIdle.length; waiterID++) {
+                if (waiterIdle[waiterID]) {
+                    idle.add(waiterID);
+                }
+            }
+            for (IntQueue queue : sectionMeals) {
+                for (int i = 0; i < queue.size(); i++) {
+                    int slot = queue.poll();
+                    cooked.add(slot);
+                    queue.add(slot);
+                }
+            }
+        }
+        idle.writeTo(out);
+        cooked.writeTo(out);
+
+        scheduler.writeTo(out);
+        ByteArrayOutputStream randomBytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream objects = new ObjectOutputStream(randomBytes)) {
+            objects.writeObject(random);
+        }
+        out.writeInt(randomBytes.size());
+        randomBytes.writeTo(out);
+
+        out.writeBoolean(arrivals != null);
+        if (arrivals != null) {
+            arrivals.writePosition(out);
+        }
+    }
+
+    /**
+     * Replaces the state of the engine with a checkpoint written by writeTo.
+     * The options of this run apply from here on, so a checkpoint can be resumed with another
+     * scheduling policy, batching or waiter sections; pending orders are given new priorities
+     * if the policy changed.
+     * @param in The checkpoint stream.
+     * @param reader The customer source, positioned after the menu line; it continues where the checkpoint left off.
+     * @throws IOException If the stream cannot be read or does not match the scenario.
+     */
+    public void readFrom(DataInputStream in, CustomerSource reader) throws IOException {
+        customers.readFrom(in);
+        events.readFrom(in);
+        idleChefs.readFrom(in);
+        tables.readFrom(in);
+        waitingCount = 0;
+        for (int i = in.readInt(); i > 0; i--) {
+            int key = in.readInt();
+            if (key >= waitingCustomers.length) {
+                throw new IOException("Checkpoint has a party of " + (key >> 1) + " waiting, which this run cannot seat");
+            }
+            IntQueue queue = waitingQueue(key);
+            queue.readFrom(in);
+            for (int j = 0; j < queue.size(); j++) {
+                int slot = queue.poll();
+                if (customers.getEventType(slot) == EventType.ARRIVE) {
+                    waitingCount++;
+                }
+                queue.add(slot);
+            }
+        }
+        if (in.readInt() != pendingOrders.length) {
+            throw new IOException("Checkpoint was taken with a different menu");
+        }
+        for (IntQueue queue : pendingOrders) {
+            queue.readFrom(in);
+        }
+        pendingOrderCount = in.readInt();
+        nextOrderSequence = in.readInt();
+        if (in.readInt() != chefBatchSizes.length) {
+            throw new IOException("Checkpoint was taken with a different number of chefs");
+        }
+        for (int i = 0; i < chefBatchSizes.length; i++) {
+            chefBatchSizes[i] = in.readInt();
+            chefPortionsLeft[i] = in.readInt();
+        }
+
+        IntQueue idle = new IntQueue();
+        IntQueue cooked = new IntQueue();
+        idle.readFrom(in);
+        cooked.readFrom(in);
+        if (sectionMeals == null) {
+            idleWaiters = idle;
+            cookedMeals = cooked;
+        } else {
+            Arrays.fill(waiterIdle, false);
+            while (!idle.isEmpty()) {
+                waiterIdle[idle.poll()] = true;
+            }
+            while (!cooked.isEmpty()) {
+                int slot = cooked.poll();
+                sectionMeals[sectionFor(slot)].add(slot);
+            }
+        }
+
+        if (!scheduler.readFrom(in)) {
+            // The checkpoint used another policy: give the pending orders priorities of this run's policy
+            for (int item = 0; item < pendingOrders.length; item++) {
+                IntQueue queue = pendingOrders[item];
+                for (int i = 0; i < queue.size(); i++) {
+                    int slot = queue.poll();
+                    customers.setOrderPriority(slot, scheduler.priorityOf(item, menu.getPrepTime(item), customers.getPlacedTime(slot)));
+                    queue.add(slot);
+                }
+            }
+        }
+        byte[] randomBytes = new byte[in.readInt()];
+        in.readFully(randomBytes);
+        try (ObjectInputStream objects = new ObjectInputStream(new ByteArrayInputStream(randomBytes))) {
+            random = (Random) objects.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Checkpoint holds an unknown random number generator", e);
+        }
+
+        if (in.readBoolean()) {
+            reader.readPosition(in);
+            arrivals = reader;
+        }
+    }
+
+    /**
+     * Dispatches the pending event of a customer to the matching step of their visit.
+     * @param slot The customer's slot.
+     * @param time The simulated time of the event.
+     */
+    private void handle(int slot, int time) throws IOException {
+        int customerID = customers.getCustomerID(slot);
+        int resourceID = customers.getEventResource(slot);
+        EventLog eventLog = simulation.getEventLog();
+        switch (customers.getEventType(slot)) {
+            case ARRIVE:
+                if (arrivals.next()) {
+                    if (arrivals.getArrivalTime() < time) {
+                        throw new IOException("Customer " + arrivals.getCustomerID() +
+                                " arrives before Customer " + customerID + "; streamed input must be sorted by ArrivalTime");
+                    }
+                    scheduleArrival();
+                }
+                int partySize = customers.getPartySize(slot);
+                if (!tables.canSeat(partySize)) {
+                    throw new IOException("Customer " + customerID + " comes with a party of " + partySize
+                            + ", more than the tables can seat");
+                }
+                eventLog.record(EventType.ARRIVE, time, customerID, 0, 0, null);
+                boolean reserved = customers.isReserved(slot);
+                if (simulation.balks(customers.getOrderItemID(slot), reserved)) {
+                    eventLog.record(EventType.BALK, time, customerID, 0, 0, null);
+                    admission.recordBalk();
+                    simulation.customerLost();
+                    customers.remove(slot);
+                    break;
+                }
+                int table = TableAllocator.NO_TABLE;
+                if (admission.tryClaimOrderSlot()) {
+                    table = tables.tryAcquire(partySize, reserved);
+                    if (table == TableAllocator.NO_TABLE) {
+                        admission.releaseOrderSlot();
+                    }
+                }
+                if (table == TableAllocator.NO_TABLE) {
+                    waitingQueue(TableAllocator.waitKey(partySize, reserved)).add(slot);
+                    waitingCount++;
+                    int deadline = admission.getDeadline(customers.getArrivalTime(slot), reserved);
+                    if (deadline != AdmissionControl.NO_DEADLINE) {
+                        // Give up at the deadline unless seated by then
+                        schedule(deadline, EventType.RENEGE, customers.add(customerID, time, 0, 0), slot);
+                    }
+                } else {
+                    schedule(time, EventType.SEAT, slot, table);
+                }
+                break;
+
+            case RENEGE:
+                // A timer: the customer's slot is the resource, and they renege if still waiting for a table
+                customers.remove(slot);
+                if (customers.getCustomerID(resourceID) == customerID && customers.getEventType(resourceID) == EventType.ARRIVE) {
+                    // Marked here and dropped once it reaches the head of its waiting queue
+                    customers.setEvent(resourceID, EventType.RENEGE, 0);
+                    waitingCount--;
+                    eventLog.record(EventType.RENEGE, time, customerID, 0, 0, null);
+                    admission.recordRenege();
+                    simulation.customerLost();
+                }
+                break;
+
+            case SEAT:
+                customers.setTableID(slot, resourceID);
+                eventLog.record(EventType.SEAT, time, customerID, resourceID, 0, null);
+                simulation.getMetrics().record(Metric.TABLE_WAIT, time - customers.getArrivalTime(slot));
+                FlightEvents.seat(time, customerID, resourceID, time - customers.getArrivalTime(slot));
+                schedule(time, EventType.ORDER, slot, 0);
+                break;
+
+            case ORDER:
+                int item = customers.getOrderItemID(slot);
+                customers.setPlacedTime(slot, time);
+                customers.setOrderSequence(slot, nextOrderSequence++);
+                customers.setOrderPriority(slot, scheduler.priorityOf(item, menu.getPrepTime(item), time));
+                pendingOrders[item].add(slot);
+                pendingOrderCount++;
+                eventLog.record(EventType.ORDER, time, customerID, customers.getTableID(slot), 0, itemName(slot));
+                FlightEvents.order(time, customerID, customers.getTableID(slot), itemName(slot));
+                if (batchHold > 0 && pendingOrders[item].size() < batchSizes[item]) {
+                    // Look at the kitchen again once this order may no longer wait for its batch
+                    schedule(time + batchHold, EventType.HOLD_EXPIRED, customers.add(0, time, item, 0), 0);
+                }
+                assignChefs(time);
+                break;
+
+            case HOLD_EXPIRED:
+                customers.remove(slot);
+                assignChefs(time);
+                break;
+
+            case COOK_START:
+                simulation.getMetrics().record(Metric.QUEUE_WAIT, time - customers.getPlacedTime(slot));
+                eventLog.record(EventType.COOK_START, time, customerID, 0, resourceID, itemName(slot));
+                schedule(time + cookTime(slot, resourceID), EventType.COOK_END, slot, resourceID);
+                break;
+
+            case COOK_END:
+                customers.setCookedTime(slot, time);
+                int cookMinutes = cookTime(slot, resourceID);
+                simulation.getMetrics().record(Metric.COOK_TIME, cookMinutes);
+                eventLog.record(EventType.COOK_END, time, customerID, 0, resourceID, itemName(slot));
+                FlightEvents.cook(time, customerID, resourceID, itemName(slot), time - cookMinutes - customers.getPlacedTime(slot), cookMinutes);
+                // The chef is free once the last portion of the batch is done
+                boolean chefFree = --chefPortionsLeft[resourceID] == 0;
+                if (chefFree) {
+                    idleChefs.add(resourceID);
+                }
+                if (sectionMeals == null) {
+                    cookedMeals.add(slot);
+                } else {
+                    sectionMeals[sectionFor(slot)].add(slot);
+                }
+                assignWaiters(time);
+                if (chefFree) {
+                    assignChefs(time);
+                }
+                break;
+
+            case SERVE:
+                simulation.getMetrics().record(Metric.SERVE_DELAY, time - customers.getCookedTime(slot));
+                eventLog.record(EventType.SERVE, time, customerID, customers.getTableID(slot), resourceID, itemName(slot));
+                FlightEvents.serve(time, customerID, resourceID, customers.getTableID(slot), itemName(slot), time - customers.getCookedTime(slot));
+                simulation.recordWaiterServe(resourceID, customers.getTableID(slot));
+                admission.recordServed(time - customers.getArrivalTime(slot));
+                // Serving is instantaneous, so the waiter is free again right away
+                if (sectionMeals == null) {
+                    idleWaiters.add(resourceID);
+                } else {
+                    waiterIdle[resourceID] = true;
+                }
+                assignWaiters(time);
+                // Eating takes between 10 and 20 minutes
+                schedule(time + 10 + random.nextInt(11), EventType.LEAVE, slot, 0);
+                break;
+
+            case LEAVE:
+                int tableID = customers.getTableID(slot);
+                eventLog.record(EventType.LEAVE, time, customerID, tableID, 0, null);
+                simulation.getMetrics().record(Metric.VISIT_TIME, time - customers.getArrivalTime(slot));
+                simulation.customerFinished();
+                customers.remove(slot);
+                // Hand the table to the waiting parties it fits
+                tables.release(tableID);
+                seatWaitingCustomers(time);
+                break;
+        }
+    }
+
+    /**
+     * Adds the customer the customer source is positioned on and schedules their arrival.
+     */
+    private void scheduleArrival() {
+        int slot = customers.add(arrivals.getCustomerID(), arrivals.getArrivalTime(), arrivals.getOrderItemID(), arrivals.getPartySize());
+        customers.setReserved(slot, arrivals.hasReservation());
+        simulation.customerAdded();
+        schedule(arrivals.getArrivalTime(), EventType.ARRIVE, slot, 0);
+    }
+
+    /**
+     * Gets the queue of the customers waiting for a table with a given party size and reservation, creating it if needed.
+     * @param key The party size and reservation (see TableAllocator.waitKey).
+     * @return The queue of slots.
+     */
+    private IntQueue waitingQueue(int key) {
+        IntQueue queue = waitingCustomers[key];
+        if (queue == null) {
+            queue = new IntQueue();
+            waitingCustomers[key] = queue;
+            if (waitingKeyCount == waitingKeys.length) {
+                waitingKeys = Arrays.copyOf(waitingKeys, waitingKeyCount * 2);
+            }
+            waitingKeys[waitingKeyCount++] = key;
+        }
+        return queue;
+    }
+
+    /**
+     * Seats waiting customers at the free tables while the kitchen has room for their orders: repeatedly
+     * the party with a reservation, then without, that arrived first among the oldest party of each size,
+     * skipping sizes no free table fits.
+     * @param time The current simulated time.
+     */
+    private void seatWaitingCustomers(int time) {
+        if (waitingCount == 0) {
+            return;
+        }
+        // A size that found no table stays without one for the rest of the pass, as tables are only taken
+        seatingPass++;
+        while (true) {
+            int best = -1;
+            int bestSlot = 0;
+            for (int i = 0; i < waitingKeyCount; i++) {
+                int key = waitingKeys[i];
+                IntQueue queue = waitingCustomers[key];
+                // Drop the customers who reneged while waiting
+                while (!queue.isEmpty() && customers.getEventType(queue.peek()) == EventType.RENEGE) {
+                    customers.remove(queue.poll());
+                }
+                if (queue.isEmpty() || seatingPasses[key] == seatingPass) {
+                    continue;
+                }
+                int slot = queue.peek();
+                if (best < 0 || (key & 1) > (best & 1) || ((key & 1) == (best & 1)
+                        && (customers.getArrivalTime(slot) < customers.getArrivalTime(bestSlot)
+                        || (customers.getArrivalTime(slot) == customers.getArrivalTime(bestSlot)
+                        && customers.getCustomerID(slot) < customers.getCustomerID(bestSlot))))) {
+                    best = key;
+                    bestSlot = slot;
+                }
+            }
+            if (best < 0 || !admission.tryClaimOrderSlot()) {
+                return;
+            }
+            int table = tables.tryAcquire(best >> 1, (best & 1) != 0);
+            if (table == TableAllocator.NO_TABLE) {
+                admission.releaseOrderSlot();
+                seatingPasses[best] = seatingPass;
+            } else {
+                waitingCustomers[best].poll();
+                waitingCount--;
+                schedule(time, EventType.SEAT, bestSlot, table);
+            }
+        }
+    }
+
+    /**
+     * Gives pending orders to idle chefs, lowest priority of the scheduling policy first and first come
+     * first served among equal priorities. A chef takes up to the batch size of the item;
+     * a batch that is not full waits until its oldest order has been held for the hold time.
+     * @param time The current simulated time.
+     */
+    private void assignChefs(int time) {
+        while (!idleChefs.isEmpty() && pendingOrderCount > 0) {
+            int item = nextItemToCook(time);
+            if (item < 0) {
+                // Every pending order is held back for its batch
+                return;
+            }
+            int chefID = idleChefs.poll();
+            int portions = Math.min(batchSizes[item], pendingOrders[item].size());
+            chefBatchSizes[chefID] = portions;
+            chefPortionsLeft[chefID] = portions;
+            pendingOrderCount -= portions;
+            simulation.recordChefWork(chefID, menu.getPrepTime(item) + (portions - 1) * batchSurcharge, portions);
+            for (int i = 0; i < portions; i++) {
+                int slot = pendingOrders[item].poll();
+                scheduler.taken(customers.getOrderPriority(slot));
+                schedule(time, EventType.COOK_START, slot, chefID);
+                admission.releaseOrderSlot();
+            }
+            if (admission.getMaxOrders() > 0) {
+                // The orders taken make room in the kitchen for waiting parties
+                seatWaitingCustomers(time);
+            }
+        }
+    }
+
+    /**
+     * Picks the menu item whose pending orders a chef should cook next.
+     * @param time The current simulated time.
+     * @return The item ID, or -1 if no pending order may be cooked yet.
+     */
+    private int nextItemToCook(int time) {
+        int best = -1;
+        long bestPriority = 0;
+        for (int item = 0; item < pendingOrders.length; item++) {
+            IntQueue queue = pendingOrders[item];
+            if (queue.isEmpty()) {
+                continue;
+            }
+            int oldest = queue.peek();
+            boolean ready = queue.size() >= batchSizes[item] || time - customers.getPlacedTime(oldest) >= batchHold;
+            if (!ready) {
+                continue;
+            }
+            long priority = customers.getOrderPriority(oldest);
+            // Compare sequence numbers by difference so that they may wrap around
+            if (best < 0 || priority < bestPriority || (priority == bestPriority
+                    && customers.getOrderSequence(oldest) - customers.getOrderSequence(pendingOrders[best].peek()) < 0)) {
+                best = item;
+                bestPriority = priority;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Computes how long a chef takes for their current batch.
+     * @param slot The slot of a customer whose order is in the batch.
+     * @param chefID The chef cooking the batch.
+     * @return The preparation time of the item plus the surcharge for every extra portion, in minutes.
+     */
+    private int cookTime(int slot, int chefID) {
+        return menu.getPrepTime(customers.getOrderItemID(slot)) + (chefBatchSizes[chefID] - 1) * batchSurcharge;
+    }
+
+    /**
+     * Gives cooked meals to idle waiters in the order they were finished.
+     * With waiter sections, each idle waiter takes the oldest meal of their own section.
+     * @param time The current simulated time.
+     */
+    private void assignWaiters(int time) {
+        if (sectionMeals == null) {
+            while (!idleWaiters.isEmpty() && !cookedMeals.isEmpty()) {
+                schedule(time, EventType.SERVE, cookedMeals.poll(), idleWaiters.poll());
+            }
+            return;
+        }
+        for (int section = 0; section < sectionMeals.length; section++) {
+            if (waiterIdle[section + 1] && !sectionMeals[section].isEmpty()) {
+                waiterIdle[section + 1] = false;
+                schedule(time, EventType.SERVE, sectionMeals[section].poll(), section + 1);
+            }
+        }
+    }
+
+    /**
+     * Picks the section whose waiter serves a cooked meal: the section of the customer's table,
+     * or the section with the shortest backlog once that section has reached the rebalance threshold.
+     * @param slot The customer's slot.
+     * @return The section, indexed by waiter ID - 1.
+     */
+    private int sectionFor(int slot) {
+        int section = WaiterSections.sectionOf(customers.getTableID(slot), numTables, sectionMeals.length);
+        int backlog = sectionMeals[section].size();
+        if (sectionRebalance > 0 && backlog >= sectionRebalance) {
+            for (int i = 0; i < sectionMeals.length; i++) {
+                if (sectionMeals[i].size() < backlog) {
+                    section = i;
+                    backlog = sectionMeals[i].size();
+                }
+            }
+        }
+        return section;
+    }
+
+    /**
+     * Reads a gauge of the engine's queues for the live monitor. Called from other threads
+     * without locking, so the value may be a few events old.
+     * @param gauge The gauge (WAITING_FOR_TABLE, FREE_TABLES, ORDERS_WAITING, MEALS_WAITING or BUSY_CHEFS).
+     * @return The value of the gauge, or 0 for gauges the engine does not keep.
+     */
+    public long readGauge(Gauge gauge) {
+        switch (gauge) {
+            case WAITING_FOR_TABLE:
+                return waitingCount;
+            case FREE_TABLES:
+                return tables.getFreeCount();
+            case ORDERS_WAITING:
+                return pendingOrderCount;
+            case MEALS_WAITING:
+                if (sectionMeals == null) {
+                    return cookedMeals.size();
+                }
+                long meals = 0;
+                for (IntQueue queue : sectionMeals) {
+                    meals += queue.size();
+                }
+                return meals;
+            case BUSY_CHEFS:
+                return chefPortionsLeft.length - 1 - idleChefs.size();
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Gets the name of the menu item a customer ordered, for the trace.
+     * @param slot The customer's slot.
+     * @return The shared menu item name.
+     */
+    private String itemName(int slot) {
+        return menu.getName(customers.getOrderItemID(slot));
+    }
+
+    /**
+     * Makes an event the pending event of a customer and adds it to the event queue.
+     * @param time The simulated time of the event.
+     * @param type The kind of event.
+     * @param slot The customer's slot.
+     * @param resourceID The chef, waiter or table ID involved in the event.
+     */
+    private void schedule(int time, EventType type, int slot, int resourceID) {
+        customers.setEvent(slot, type, resourceID);
+        events.add(time, slot);
+    }
+}
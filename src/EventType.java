@@ -0,0 +1,26 @@
+/**
+ * The EventType enum lists the kinds of events handled by the discrete-event engine.
+ * Each type corresponds to one step of a customer's visit or of a chef's work.
+ */
+public enum EventType {
+    // Customer reaches the restaurant
+    ARRIVE,
+    // Customer sits down at a free table
+    SEAT,
+    // Customer places an order with the kitchen
+    ORDER,
+    // Chef starts preparing an order
+    COOK_START,
+    // Chef finishes preparing an order
+    COOK_END,
+    // Waiter serves a cooked meal to the customer
+    SERVE,
+    // Customer finishes eating and leaves the restaurant
+    LEAVE,
+    // An order held back for a batch of identical orders may no longer wait (never written to the trace)
+    HOLD_EXPIRED,
+    // Customer sees the expected wait and leaves without waiting
+    BALK,
+    // Customer gives up waiting for a table (also the timer of their deadline in the discrete-event engine)
+    RENEGE
+}
@@ -0,0 +1,43 @@
+import java.util.concurrent.*;
+
+/**
+ * The ExecutionMode enum selects how customer, chef and waiter tasks are run
+ * by the threaded simulation.
+ * PLATFORM starts one operating-system thread per task, as the simulation always did.
+ * VIRTUAL starts one virtual thread per task, which needs a Java 21 or newer runtime
+ * and keeps memory flat for very large numbers of customers.
+ */
+public enum ExecutionMode {
+    // One platform thread per task
+    PLATFORM,
+    // One virtual thread per task (Java 21+)
+    VIRTUAL;
+
+    /**
+     * Creates an executor that runs every submitted task on its own thread of this mode.
+     * The virtual-thread executor is looked up reflectively so the simulation still
+     * compiles and runs in platform mode on older JDKs.
+     * @return A new executor service for this mode.
+     * @throws IllegalStateException If virtual threads are not supported by the running JVM.
+     */
+    public ExecutorService newExecutor() {
+        if (this == PLATFORM) {
+            return Executors.newCachedThreadPool();
+        }
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads require Java 21 or newer (running " +
+                    System.getProperty("java.version") + ")", e);
+        }
+    }
+
+    /**
+     * Parses an execution mode from its command-line name.
+     * @param name "platform" or "virtual", in any case.
+     * @return The matching execution mode.
+     */
+    public static ExecutionMode fromName(String name) {
+        return valueOf(name.toUpperCase());
+    }
+}
@@ -0,0 +1,244 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.Registered;
+
+/**
+ * The FlightEvents class publishes the steps of every visit as Java Flight Recorder events, and samples
+ * the gauges of every monitored simulation once per second into a periodic event.
+ * Start a recording with -XX:StartFlightRecording=filename=run.jfr (or jcmd PID JFR.start) and open it in
+ * JDK Mission Control or print it with "jfr print --categories Restaurant run.jfr".
+ * Each method creates its event only to ask whether it is enabled; without a recording the check is a
+ * constant the JIT folds away and the unused event is never allocated, so the calls can stay in long runs.
+ * Durations are in simulated minutes, the unit of the simulation's metrics.
+ */
+public class FlightEvents {
+    static {
+        // Registering the events starts the recorder, which takes a few hundred milliseconds,
+        // so wait until a recording has started it; until then the events are never enabled
+        FlightRecorder.addListener(new FlightRecorderListener() {
+            public void recorderInitialized(FlightRecorder recorder) {
+                FlightRecorder.register(SeatEvent.class);
+                FlightRecorder.register(OrderEvent.class);
+                FlightRecorder.register(CookEvent.class);
+                FlightRecorder.register(ServeEvent.class);
+                FlightRecorder.register(GaugeEvent.class);
+                FlightRecorder.addPeriodicEvent(GaugeEvent.class, FlightEvents::sampleGauges);
+            }
+        });
+    }
+
+    /**
+     * Emits a SeatEvent if seat events are being recorded.
+     * @param time The simulated time, in minutes since midnight.
+     * @param customerID The customer.
+     * @param tableID The table.
+     * @param waitMinutes The minutes the customer waited for the table.
+     */
+    public static void seat(int time, int customerID, int tableID, int waitMinutes) {
+        SeatEvent event = new SeatEvent();
+        if (event.isEnabled()) {
+            event.simulatedTime = time;
+            event.customerID = customerID;
+            event.tableID = tableID;
+            event.waitMinutes = waitMinutes;
+            event.commit();
+        }
+    }
+
+    /**
+     * Emits an OrderEvent if order events are being recorded.
+     * @param time The simulated time, in minutes since midnight.
+     * @param customerID The customer.
+     * @param tableID The table.
+     * @param item The menu item ordered.
+     */
+    public static void order(int time, int customerID, int tableID, String item) {
+        OrderEvent event = new OrderEvent();
+        if (event.isEnabled()) {
+            event.simulatedTime = time;
+            event.customerID = customerID;
+            event.tableID = tableID;
+            event.item = item;
+            event.commit();
+        }
+    }
+
+    /**
+     * Emits a CookEvent when an order has been cooked, if cook events are being recorded.
+     * @param time The simulated time the order was cooked, in minutes since midnight.
+     * @param customerID The customer.
+     * @param chefID The chef.
+     * @param item The menu item cooked.
+     * @param queueMinutes The minutes the order waited for the chef.
+     * @param cookMinutes The minutes the chef spent on the order (its whole batch).
+     */
+    public static void cook(int time, int customerID, int chefID, String item, int queueMinutes, int cookMinutes) {
+        CookEvent event = new CookEvent();
+        if (event.isEnabled()) {
+            event.simulatedTime = time;
+            event.customerID = customerID;
+            event.chefID = chefID;
+            event.item = item;
+            event.queueMinutes = queueMinutes;
+            event.cookMinutes = cookMinutes;
+            event.commit();
+        }
+    }
+
+    /**
+     * Emits a ServeEvent if serve events are being recorded.
+     * @param time The simulated time, in minutes since midnight.
+     * @param customerID The customer.
+     * @param waiterID The waiter.
+     * @param tableID The table.
+     * @param item The menu item served.
+     * @param serveDelayMinutes The minutes the meal waited for the waiter.
+     */
+    public static void serve(int time, int customerID, int waiterID, int tableID, String item, int serveDelayMinutes) {
+        ServeEvent event = new ServeEvent();
+        if (event.isEnabled()) {
+            event.simulatedTime = time;
+            event.customerID = customerID;
+            event.waiterID = waiterID;
+            event.tableID = tableID;
+            event.item = item;
+            event.serveDelayMinutes = serveDelayMinutes;
+            event.commit();
+        }
+    }
+
+    /**
+     * Emits one GaugeEvent per monitored simulation; called by the recorder at the event's period.
+     */
+    private static void sampleGauges() {
+        for (SimulationMonitor monitor : SimulationMonitor.getMonitors()) {
+            GaugeEvent event = new GaugeEvent();
+            event.simulation = monitor.getName();
+            event.simulatedTime = (int) monitor.read(Gauge.SIMULATED_TIME);
+            event.customersServed = monitor.read(Gauge.CUSTOMERS_SERVED);
+            event.customersLost = monitor.read(Gauge.CUSTOMERS_LOST);
+            event.waitingForTable = monitor.read(Gauge.WAITING_FOR_TABLE);
+            event.freeTables = monitor.read(Gauge.FREE_TABLES);
+            event.ordersWaiting = monitor.read(Gauge.ORDERS_WAITING);
+            event.mealsWaiting = monitor.read(Gauge.MEALS_WAITING);
+            event.busyChefs = monitor.read(Gauge.BUSY_CHEFS);
+            event.commit();
+        }
+    }
+
+    /**
+     * A customer is seated.
+     */
+    @Name("restaurant.Seat")
+    @Label("Seat")
+    @Category("Restaurant")
+    @Registered(false)
+    static class SeatEvent extends Event {
+        @Label("Simulated Time")
+        int simulatedTime;
+        @Label("Customer")
+        int customerID;
+        @Label("Table")
+        int tableID;
+        @Label("Table Wait (Minutes)")
+        int waitMinutes;
+    }
+
+    /**
+     * A customer places an order.
+     */
+    @Name("restaurant.Order")
+    @Label("Order")
+    @Category("Restaurant")
+    @Registered(false)
+    static class OrderEvent extends Event {
+        @Label("Simulated Time")
+        int simulatedTime;
+        @Label("Customer")
+        int customerID;
+        @Label("Table")
+        int tableID;
+        @Label("Item")
+        String item;
+    }
+
+    /**
+     * A chef finishes an order.
+     */
+    @Name("restaurant.Cook")
+    @Label("Cook")
+    @Category("Restaurant")
+    @Registered(false)
+    static class CookEvent extends Event {
+        @Label("Simulated Time")
+        int simulatedTime;
+        @Label("Customer")
+        int customerID;
+        @Label("Chef")
+        int chefID;
+        @Label("Item")
+        String item;
+        @Label("Queue Wait (Minutes)")
+        int queueMinutes;
+        @Label("Cook Time (Minutes)")
+        int cookMinutes;
+    }
+
+    /**
+     * A waiter serves a meal.
+     */
+    @Name("restaurant.Serve")
+    @Label("Serve")
+    @Category("Restaurant")
+    @Registered(false)
+    static class ServeEvent extends Event {
+        @Label("Simulated Time")
+        int simulatedTime;
+        @Label("Customer")
+        int customerID;
+        @Label("Waiter")
+        int waiterID;
+        @Label("Table")
+        int tableID;
+        @Label("Item")
+        String item;
+        @Label("Serve Delay (Minutes)")
+        int serveDelayMinutes;
+    }
+
+    /**
+     * The gauges of a monitored simulation.
+     */
+    @Name("restaurant.Gauges")
+    @Label("Gauges")
+    @Category("Restaurant")
+    @Description("Queue depths and staff in use of a running simulation")
+    @Period("1 s")
+    @Registered(false)
+    static class GaugeEvent extends Event {
+        @Label("Simulation")
+        String simulation;
+        @Label("Simulated Time")
+        int simulatedTime;
+        @Label("Customers Served")
+        long customersServed;
+        @Label("Customers Lost")
+        long customersLost;
+        @Label("Waiting for Table")
+        long waitingForTable;
+        @Label("Free Tables")
+        long freeTables;
+        @Label("Orders Waiting")
+        long ordersWaiting;
+        @Label("Meals Waiting")
+        long mealsWaiting;
+        @Label("Busy Chefs")
+        long busyChefs;
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * The Gauge enum lists the values of a running simulation that can be watched while it runs,
+ * through SimulationMonitor (JMX or the loopback HTTP endpoint) and the periodic Flight Recorder event.
+ * Gauges are read on demand from the engine's own queues and counters, so nothing is updated
+ * per event for them; values read from another thread may be a few events old.
+ */
+public enum Gauge {
+    // Current simulated time, in minutes since midnight
+    SIMULATED_TIME("Simulated Time"),
+    // Customers who have finished their visit
+    CUSTOMERS_SERVED("Customers Served"),
+    // Customers who arrived and are waiting for a table
+    WAITING_FOR_TABLE("Waiting for Table"),
+    // Tables nobody is sitting at
+    FREE_TABLES("Free Tables"),
+    // Orders placed that no chef has started
+    ORDERS_WAITING("Orders Waiting"),
+    // Cooked meals no waiter has served yet
+    MEALS_WAITING("Meals Waiting"),
+    // Chefs preparing an order
+    BUSY_CHEFS("Busy Chefs"),
+    // Customers who left without being served (balked or reneged)
+    CUSTOMERS_LOST("Customers Lost");
+
+    // Name shown by the monitor
+    private final String label;
+
+    Gauge(String label) {
+        this.label = label;
+    }
+
+    // Getter for the name shown by the monitor
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Parses a gauge from its command-line name.
+     * @param name The enum name, such as "orders_waiting", in any case.
+     * @return The matching gauge.
+     */
+    public static Gauge fromName(String name) {
+        return valueOf(name.toUpperCase());
+    }
+}
@@ -0,0 +1,116 @@
+import java.io.*;
+
+/**
+ * The IntQueue class is a first-in first-out queue of primitive ints.
+ * It is a growable ring buffer, so queuing IDs and slots never boxes them into Integer objects.
+ * The class is not thread-safe.
+ */
+public class IntQueue {
+    // Value returned by poll() when the queue is empty
+    public static final int EMPTY = -1;
+
+    // Ring buffer holding the values (capacity is a power of two)
+    private int[] values;
+    // Position of the first value
+    private int head;
+    // Number of values in the queue
+    private int size;
+
+    /**
+     * Constructor to initialize an empty queue with a small capacity.
+     */
+    public IntQueue() {
+        this(16);
+    }
+
+    /**
+     * Constructor to initialize an empty queue.
+     * @param capacity The initial capacity (rounded up to a power of two); the queue grows as needed.
+     */
+    public IntQueue(int capacity) {
+        values = new int[Integer.highestOneBit(Math.max(2, capacity) - 1) << 1];
+    }
+
+    /**
+     * Adds a value at the end of the queue.
+     * @param value The value to add.
+     */
+    public void add(int value) {
+        if (size == values.length) {
+            grow();
+        }
+        values[(head + size++) & (values.length - 1)] = value;
+    }
+
+    /**
+     * Removes the value at the front of the queue.
+     * @return The value, or EMPTY if the queue is empty.
+     */
+    public int poll() {
+        if (size == 0) {
+            return EMPTY;
+        }
+        int value = values[head];
+        head = (head + 1) & (values.length - 1);
+        size--;
+        return value;
+    }
+
+    /**
+     * Gets the value at the front of the queue without removing it.
+     * @return The value, or EMPTY if the queue is empty.
+     */
+    public int peek() {
+        return size == 0 ? EMPTY : values[head];
+    }
+
+    /**
+     * Checks whether the queue is empty.
+     * @return True if the queue holds no values.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Getter for the number of values in the queue
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Doubles the capacity, moving the values to the start of the new buffer.
+     */
+    private void grow() {
+        int[] grown = new int[values.length * 2];
+        int firstPart = values.length - head;
+        System.arraycopy(values, head, grown, 0, firstPart);
+        System.arraycopy(values, 0, grown, firstPart, head);
+        values = grown;
+        head = 0;
+    }
+
+    /**
+     * Writes the values of the queue, front first, for a checkpoint.
+     * @param out The checkpoint stream.
+     * @throws IOException If the stream cannot be written.
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeInt(values[(head + i) & (values.length - 1)]);
+        }
+    }
+
+    /**
+     * Replaces the values of the queue with those of a checkpoint.
+     * @param in The checkpoint stream.
+     * @throws IOException If the stream cannot be read.
+     */
+    public void readFrom(DataInputStream in) throws IOException {
+        head = 0;
+        size = 0;
+        for (int i = in.readInt(); i > 0; i--) {
+            add(in.readInt());
+        }
+    }
+}
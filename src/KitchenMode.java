@@ -0,0 +1,24 @@
+/**
+ * The KitchenMode enum selects how orders reach the chefs of the threaded simulation.
+ * SHARED keeps one queue for the whole kitchen.
+ * ITEM and ROUND_ROBIN give each chef their own queue, filled by menu item (so each dish has a home station,
+ * with item IDs dealt to the chefs in turn) or in turn, and let idle chefs steal from the other chefs' queues.
+ * Every queue, shared or not, is ordered by the scheduling policy (--policy).
+ */
+public enum KitchenMode {
+    // One shared order queue
+    SHARED,
+    // One queue per chef; orders go to the chef whose station owns the menu item (item ID modulo the chefs)
+    ITEM,
+    // One queue per chef; orders go to the chefs in turn
+    ROUND_ROBIN;
+
+    /**
+     * Parses a kitchen mode from its command-line name.
+     * @param name "shared", "item" or "round-robin", in any case.
+     * @return The matching kitchen mode.
+     */
+    public static KitchenMode fromName(String name) {
+        return valueOf(name.toUpperCase().replace('-', '_'));
+    }
+}
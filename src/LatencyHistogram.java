@@ -0,0 +1,175 @@
+import java.io.*;
+
+/**
+ * The LatencyHistogram class counts durations in fixed memory so that percentiles can be reported.
+ * Values below 64 are counted exactly; larger values fall into log-linear buckets with
+ * 32 sub-buckets per power of two, so every reported value is within about 3% of the real one.
+ * Histograms recorded on different threads can be merged into one.
+ * The class is not thread-safe; callers guard it or keep one per thread.
+ */
+public class LatencyHistogram {
+    // Values below this limit get a bucket of their own
+    private static final int EXACT_LIMIT = 64;
+    // Number of sub-buckets per power of two above the exact range (2^SUB_BUCKET_BITS)
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Exponent of the first power of two above the exact range
+    private static final int FIRST_EXPONENT = 6;
+    // Total number of buckets, enough for any non-negative long
+    private static final int BUCKET_COUNT = EXACT_LIMIT + (63 - FIRST_EXPONENT) * SUB_BUCKETS;
+
+    // Number of values counted in each bucket
+    private final long[] counts = new long[BUCKET_COUNT];
+    // Number of values recorded
+    private long count;
+    // Sum of the values recorded
+    private long sum;
+    // Largest value recorded
+    private long max;
+
+    /**
+     * Records one value.
+     * @param value The value to record; negative values are counted as zero.
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[bucketOf(value)]++;
+        count++;
+        sum += value;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Adds all values of another histogram to this one.
+     * @param other The histogram to merge in.
+     */
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Returns the value below or at which the given percentage of the recorded values fall.
+     * @param percent The percentile, between 0 and 100.
+     * @return The percentile value, or 0 if nothing was recorded.
+     */
+    public long percentile(double percent) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percent / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValueIn(i), max);
+            }
+        }
+        return max;
+    }
+
+    // Getter for the number of values recorded
+    public long getCount() {
+        return count;
+    }
+
+    // Getter for the largest value recorded
+    public long getMax() {
+        return max;
+    }
+
+    // Getter for the sum of the values recorded
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * Gets the average of the recorded values.
+     * @return The mean, or 0 if nothing was recorded.
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Finds the bucket a value belongs to.
+     * @param value A non-negative value.
+     * @return The bucket index.
+     */
+    private static int bucketOf(long value) {
+        if (value < EXACT_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return EXACT_LIMIT + (exponent - FIRST_EXPONENT) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Gets the largest value that falls into a bucket.
+     * @param bucket The bucket index.
+     * @return The largest value of the bucket.
+     */
+    private static long highestValueIn(int bucket) {
+        if (bucket < EXACT_LIMIT) {
+            return bucket;
+        }
+        int exponent = FIRST_EXPONENT + (bucket - EXACT_LIMIT) / SUB_BUCKETS;
+        int subBucket = (bucket - EXACT_LIMIT) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return ((SUB_BUCKETS + subBucket) * width) + width - 1;
+    }
+
+    /**
+     * Writes the histogram for a checkpoint; only buckets holding values are written.
+     * @param out The checkpoint stream.
+     * @throws IOException If the stream cannot be written.
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeLong(count);
+        out.writeLong(sum);
+        out.writeLong(max);
+        int used = 0;
+        for (long bucketCount : counts) {
+            if (bucketCount != 0) {
+                used++;
+            }
+        }
+        out.writeInt(used);
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (counts[i] != 0) {
+                out.writeShort(i);
+                out.writeLong(counts[i]);
+            }
+        }
+    }
+
+    /**
+     * Reads a histogram written by writeTo.
+     * @param in The checkpoint stream.
+     * @return The histogram.
+     * @throws IOException If the stream cannot be read.
+     */
+    public static LatencyHistogram readFrom(DataInputStream in) throws IOException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.count = in.readLong();
+        histogram.sum = in.readLong();
+        histogram.max = in.readLong();
+        for (int i = in.readInt(); i > 0; i--) {
+            int bucket = in.readUnsignedShort();
+            if (bucket >= BUCKET_COUNT) {
+                throw new IOException("Histogram bucket " + bucket + " is out of range");
+            }
+            histogram.counts[bucket] = in.readLong();
+        }
+        return histogram;
+    }
+}
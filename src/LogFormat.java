@@ -0,0 +1,25 @@
+/**
+ * The LogFormat enum selects where the EventLog writes the simulation's events.
+ * TEXT prints the usual "[HH:MM] ..." trace to standard output, BINARY writes compact
+ * records to a file, TRACE writes fixed-size records to a memory-mapped file for TraceAnalyzer,
+ * and DISCARD drops the events altogether.
+ */
+public enum LogFormat {
+    // Human-readable trace on standard output
+    TEXT,
+    // Compact binary records in a file
+    BINARY,
+    // Fixed-size records in a memory-mapped file, read by TraceAnalyzer
+    TRACE,
+    // No output at all
+    DISCARD;
+
+    /**
+     * Parses a log format from its command-line name.
+     * @param name "text", "binary", "trace" or "discard", in any case.
+     * @return The matching log format.
+     */
+    public static LogFormat fromName(String name) {
+        return valueOf(name.toUpperCase());
+    }
+}
@@ -0,0 +1,65 @@
+import java.util.HashMap;
+
+/**
+ * The Menu class interns the menu items of a scenario to small integer IDs.
+ * Items are numbered in the order they appear on the menu line, and their names and
+ * preparation times are kept in arrays indexed by ID, so looking up an order's
+ * preparation time is an array access instead of a string hash.
+ */
+public class Menu {
+    // Item names indexed by item ID
+    private String[] names;
+    // Preparation times in minutes indexed by item ID
+    private int[] prepTimes;
+    // Item IDs by name, used only when parsing
+    private HashMap<String, Integer> ids = new HashMap<>();
+
+    /**
+     * Constructor to initialize a Menu from item names and preparation times.
+     * @param names The item names, in menu order.
+     * @param prepTimes The preparation time of each item, in minutes.
+     */
+    public Menu(String[] names, int[] prepTimes) {
+        this.names = names;
+        this.prepTimes = prepTimes;
+        for (int i = 0; i < names.length; i++) {
+            ids.put(names[i], i);
+        }
+    }
+
+    /**
+     * Finds the ID of a menu item.
+     * @param name The item name.
+     * @return The item ID, or -1 if the item is not on the menu.
+     */
+    public int idOf(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Gets the name of a menu item.
+     * @param itemID The item ID.
+     * @return The item name.
+     */
+    public String getName(int itemID) {
+        return names[itemID];
+    }
+
+    /**
+     * Gets the preparation time of a menu item.
+     * @param itemID The item ID.
+     * @return The preparation time in minutes.
+     */
+    public int getPrepTime(int itemID) {
+        return prepTimes[itemID];
+    }
+
+    /**
+     * Gets the number of items on the menu.
+     * @return The number of items.
+     */
+    public int size() {
+        return names.length;
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * The Metric enum lists the durations measured for every customer, in simulated minutes.
+ */
+public enum Metric {
+    // From arrival until the customer is seated
+    TABLE_WAIT("Wait for Table"),
+    // From placing the order until a chef starts preparing it
+    QUEUE_WAIT("Order Queue Wait"),
+    // From the start to the end of the preparation
+    COOK_TIME("Cook Time"),
+    // From the end of the preparation until the waiter serves the meal
+    SERVE_DELAY("Serve Delay"),
+    // From arrival until the customer leaves
+    VISIT_TIME("Total Visit Time");
+
+    // Name shown in the summary
+    private final String label;
+
+    Metric(String label) {
+        this.label = label;
+    }
+
+    // Getter for the name shown in the summary
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Parses a metric from its command-line name.
+     * @param name The enum name, such as "table_wait", in any case.
+     * @return The matching metric.
+     */
+    public static Metric fromName(String name) {
+        return valueOf(name.toUpperCase());
+    }
+}
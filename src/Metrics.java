@@ -0,0 +1,130 @@
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The Metrics class collects the durations listed in Metric without lost updates or a shared hot spot.
+ * Every thread records into one of several striped sets of histograms, picked by its thread ID,
+ * so concurrent customers and chefs rarely touch the same lock or cache line.
+ * The stripes are merged only when a snapshot is taken for the summary.
+ * Each simulation owns its own Metrics.
+ */
+public class Metrics {
+    // Striped histograms; a thread always records into the stripe picked by its ID
+    private volatile Stripe[] stripes = newStripes();
+    // Metric checked against the limit (null when no limit is set)
+    private volatile Metric limitMetric;
+    // Values of the limit metric above this are counted
+    private volatile int limit;
+    // Number of values recorded above the limit
+    private final LongAdder overLimit = new LongAdder();
+
+    /**
+     * Clears all recorded values.
+     */
+    public void reset() {
+        stripes = newStripes();
+        overLimit.reset();
+    }
+
+    /**
+     * Starts counting the values of one metric that are above a limit.
+     * @param metric The metric to check.
+     * @param minutes The limit in simulated minutes.
+     */
+    public void setLimit(Metric metric, int minutes) {
+        limit = minutes;
+        limitMetric = metric;
+    }
+
+    /**
+     * Gets how many values of the limit metric were above the limit.
+     * @return The number of values above the limit.
+     */
+    public long getOverLimitCount() {
+        return overLimit.sum();
+    }
+
+    /**
+     * Records one duration.
+     * @param metric What was measured.
+     * @param minutes The duration in simulated minutes.
+     */
+    public void record(Metric metric, int minutes) {
+        Stripe[] current = stripes;
+        Stripe stripe = current[(int) Thread.currentThread().getId() & (current.length - 1)];
+        stripe.lock.lock();
+        try {
+            stripe.histograms[metric.ordinal()].record(minutes);
+        } finally {
+            stripe.lock.unlock();
+        }
+        if (metric == limitMetric && minutes > limit) {
+            overLimit.increment();
+        }
+    }
+
+    /**
+     * Merges the stripes of one metric into a single histogram.
+     * @param metric The metric to merge.
+     * @return A new histogram holding every value recorded for the metric.
+     */
+    public LatencyHistogram snapshot(Metric metric) {
+        LatencyHistogram merged = new LatencyHistogram();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                merged.merge(stripe.histograms[metric.ordinal()]);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Creates two stripes per processor, rounded up to a power of two.
+     * @return The new stripes.
+     */
+    private static Stripe[] newStripes() {
+        int count = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1;
+        Stripe[] created = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            created[i] = new Stripe();
+        }
+        return created;
+    }
+
+    /**
+     * A set of histograms, one per metric, shared by the threads whose IDs map to it.
+     */
+    private static class Stripe {
+        // Lock held only while one value is recorded or while the stripe is merged
+        final ReentrantLock lock = new ReentrantLock();
+        // One histogram per metric, indexed by ordinal
+        final LatencyHistogram[] histograms = new LatencyHistogram[Metric.values().length];
+
+        Stripe() {
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new LatencyHistogram();
+            }
+        }
+    }
+
+    /**
+     * Adds values recorded before a checkpoint, so a resumed run reports the whole service.
+     * @param histograms One histogram per metric, indexed by ordinal.
+     * @param overLimitCount The number of values that were above the limit.
+     */
+    public void restore(LatencyHistogram[] histograms, long overLimitCount) {
+        Stripe stripe = stripes[0];
+        stripe.lock.lock();
+        try {
+            for (int i = 0; i < histograms.length; i++) {
+                stripe.histograms[i].merge(histograms[i]);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        overLimit.add(overLimitCount);
+    }
+}
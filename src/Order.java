@@ -1,3 +1,5 @@
+import java.util.concurrent.CompletableFuture;
+
 /**
  * The Order class represents a customer's order in the restaurant simulation.
  * Each order includes details about the customer, the item ordered, and the preparation time.
@@ -5,19 +7,35 @@
 public class Order {
     // ID of the customer who placed the order
     private int customerID;
+    // Menu item ID of the item ordered
+    private int itemID;
     // The item ordered by the customer
     private String orderItem;
-    // Time required to prepare the order, in seconds
+    // Time required to prepare the order, in simulated minutes
     private int orderTime;
+    // Position of the order in the order it was queued, used to break ties between equal priorities
+    private long sequence;
+    // Priority given by the scheduling policy when the order was queued; lower is served first
+    private long priority;
+    // Time (in minutes since midnight) the order was placed
+    private int placedTime;
+    // Time (in minutes since midnight) the chef finished preparing the order
+    private int cookedTime;
+    // Table the order is served to
+    private int tableID;
+    // Completed by the waiter who serves the order
+    private final CompletableFuture<Order> served = new CompletableFuture<>();
 
     /**
      * Constructor to initialize an Order object with the customer ID, order item, and order time.
      * @param customerID The ID of the customer who placed the order.
+     * @param itemID The menu item ID of the item ordered.
      * @param orderItem The name of the item ordered.
-     * @param orderTime The time needed to prepare the order, in seconds.
+     * @param orderTime The time needed to prepare the order, in simulated minutes.
      */
-    public Order(int customerID, String orderItem, int orderTime) {
+    public Order(int customerID, int itemID, String orderItem, int orderTime) {
         this.customerID = customerID;
+        this.itemID = itemID;
         this.orderItem = orderItem;
         this.orderTime = orderTime;
     }
@@ -30,6 +48,14 @@ public class Order {
         return customerID;
     }
 
+    /**
+     * Getter method to retrieve the menu item ID.
+     * @return The menu item ID of the item ordered.
+     */
+    public int getItemID() {
+        return itemID;
+    }
+
     /**
      * Getter method to retrieve the order item.
      * @return The name of the item ordered.
@@ -40,9 +66,106 @@ public class Order {
 
     /**
      * Getter method to retrieve the order time.
-     * @return The time needed to prepare the order, in seconds.
+     * @return The time needed to prepare the order, in simulated minutes.
      */
     public int getOrderTime() {
         return orderTime;
     }
+
+    /**
+     * Getter method to retrieve the queueing sequence number.
+     * @return The sequence number assigned when the order was queued.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Setter method for the queueing sequence number.
+     * @param sequence The sequence number assigned by the order queue.
+     */
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    /**
+     * Getter method to retrieve the scheduling priority.
+     * @return The priority assigned when the order was queued; lower is served first.
+     */
+    public long getPriority() {
+        return priority;
+    }
+
+    /**
+     * Setter method for the scheduling priority.
+     * @param priority The priority assigned by the order queue.
+     */
+    public void setPriority(long priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * Getter method to retrieve the time the order was placed.
+     * @return The time the order was placed, in minutes since midnight.
+     */
+    public int getPlacedTime() {
+        return placedTime;
+    }
+
+    /**
+     * Setter method for the time the order was placed.
+     * @param placedTime The time the order was placed, in minutes since midnight.
+     */
+    public void setPlacedTime(int placedTime) {
+        this.placedTime = placedTime;
+    }
+
+    /**
+     * Getter method to retrieve the time the order finished cooking.
+     * @return The time the chef finished the order, in minutes since midnight.
+     */
+    public int getCookedTime() {
+        return cookedTime;
+    }
+
+    /**
+     * Setter method for the time the order finished cooking.
+     * @param cookedTime The time the chef finished the order, in minutes since midnight.
+     */
+    public void setCookedTime(int cookedTime) {
+        this.cookedTime = cookedTime;
+    }
+
+    /**
+     * Getter method to retrieve the table the order is served to.
+     * @return The table ID.
+     */
+    public int getTableID() {
+        return tableID;
+    }
+
+    /**
+     * Setter method for the table the order is served to.
+     * @param tableID The table ID.
+     */
+    public void setTableID(int tableID) {
+        this.tableID = tableID;
+    }
+
+    /**
+     * Getter method to retrieve the completion handle of the order.
+     * The handle is completed with the order itself when a waiter serves it,
+     * so the customer can react to the meal without waiting on a monitor.
+     * @return The handle completed when the order is served.
+     */
+    public CompletableFuture<Order> getServed() {
+        return served;
+    }
+
+    /**
+     * Marks the order as served, running whatever the customer registered on the completion handle.
+     */
+    public void serve() {
+        served.complete(this);
+    }
 }
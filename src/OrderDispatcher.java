@@ -0,0 +1,58 @@
+import java.util.List;
+
+/**
+ * The OrderDispatcher interface hands the orders placed by customers to the chefs of the threaded simulation.
+ * OrderQueue keeps every order in one shared queue; WorkStealingKitchen gives each chef a queue of their own.
+ */
+public interface OrderDispatcher {
+    /**
+     * Adds an order for the chefs to prepare.
+     * @param order The order to add.
+     */
+    void addOrder(Order order);
+
+    /**
+     * Takes the next order for a chef, blocking until one is available.
+     * @param chefID The chef asking for work.
+     * @return The order to prepare.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    Order takeOrder(int chefID) throws InterruptedException;
+
+    /**
+     * Takes pending orders of the same menu item as a given order, without blocking,
+     * so that a chef can cook them in one batch.
+     * @param chefID The chef building the batch.
+     * @param first The order the batch is built around.
+     * @param maxSize The largest number of orders in the batch.
+     * @param batch The batch, already holding the orders taken so far; matching orders are added to it.
+     * @return The number of orders added.
+     */
+    int takeMatching(int chefID, Order first, int maxSize, List<Order> batch);
+
+    /**
+     * Registers the calling chef as holding a batch open, so that adding an order of the same
+     * menu item wakes it with LockSupport.unpark.
+     * @param itemID The menu item ID of the batch.
+     */
+    void holdBatch(int itemID);
+
+    /**
+     * Ends the hold registered by holdBatch for the calling chef.
+     * @param itemID The menu item ID of the batch.
+     */
+    void endHold(int itemID);
+
+    /**
+     * Gets the number of orders waiting for a chef, for the live gauges.
+     * @return The number of orders added and not yet taken.
+     */
+    int size();
+
+    /**
+     * Gets how many orders a chef took from another chef's queue.
+     * @param chefID The chef.
+     * @return The number of stolen orders, always 0 for a shared queue.
+     */
+    long getStolenCount(int chefID);
+}
@@ -1,30 +1,73 @@
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class OrderQueue {
-    private ArrayList<Order> orderQueue;
+/**
+ * The OrderQueue class holds the orders waiting for a chef in a shared kitchen, in the order of the run's
+ * scheduling policy (--policy; see SchedulingPolicy), like the per-chef queues of the other kitchen modes.
+ * Orders are kept in a lock-free skip list, so adding and taking an order are O(log n)
+ * and chefs do not serialize on a single monitor. Orders with the same priority
+ * are taken in the order they were added. A second skip list per menu item indexes the same orders,
+ * so gathering a batch looks only at the orders of its item instead of the whole backlog.
+ */
+public class OrderQueue implements OrderDispatcher {
+    // Lowest priority first, then first come first served
+    static final Comparator<Order> BY_PRIORITY =
+            Comparator.comparingLong(Order::getPriority).thenComparingLong(Order::getSequence);
+
+    // Skip list holding the pending orders in the order they will be taken
+    private ConcurrentSkipListSet<Order> orderQueue;
+    // Pending orders of each menu item, indexed by item ID, in the same order as the main skip list
+    private List<ConcurrentSkipListSet<Order>> ordersByItem;
+    // Chefs holding a batch open for more orders of an item
+    private BatchWaiters batchWaiters;
+    // Semaphore counting the orders available to chefs
     private CustomSemaphore ordersSemaphore;
+    // Counter used to number orders as they are added
+    private AtomicLong nextSequence;
+    // Policy giving each order its priority
+    private OrderScheduler scheduler;
+
+    /**
+     * Constructor to create a standalone queue under the SJF policy, outside a simulation run.
+     * @param itemCount The number of items on the menu.
+     */
+    public OrderQueue(int itemCount) {
+        this(new OrderScheduler(SchedulingPolicy.SJF), itemCount);
+    }
 
-    public OrderQueue() {
-        orderQueue = new ArrayList<>();
+    /**
+     * Constructor to create a queue ordered by a scheduling policy.
+     * @param scheduler The scheduler giving each order its priority.
+     * @param itemCount The number of items on the menu.
+     */
+    public OrderQueue(OrderScheduler scheduler, int itemCount) {
+        this.scheduler = scheduler;
+        orderQueue = new ConcurrentSkipListSet<>(BY_PRIORITY);
+        ordersByItem = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            ordersByItem.add(new ConcurrentSkipListSet<>(BY_PRIORITY));
+        }
+        batchWaiters = new BatchWaiters(itemCount);
         ordersSemaphore = new CustomSemaphore(0); // Initially, no orders are available
+        nextSequence = new AtomicLong();
     }
 
     /**
-     * Adds an order to the queue in the correct position based on order time.
-     * Uses binary insertion for efficiency.
+     * Adds an order to the queue in the correct position based on its priority.
      * @param order The order to be added.
      */
-    public synchronized void addOrder(Order order) {
-        // If the queue is empty, directly add the order
-        if (orderQueue.isEmpty()) {
-            orderQueue.add(order);
-        } else {
-            // Insert the order at the correct position to maintain the order based on preparation time
-            int position = findInsertPosition(order.getOrderTime());
-            orderQueue.add(position, order);
-        }
+    public void addOrder(Order order) {
+        // Number the order so that equal priorities keep their arrival order
+        order.setSequence(nextSequence.getAndIncrement());
+        order.setPriority(scheduler.priorityOf(order));
+        ordersByItem.get(order.getItemID()).add(order);
+        orderQueue.add(order);
         // Signal that a new order is available
         ordersSemaphore.release(order.getCustomerID());
+        batchWaiters.signal(order.getItemID());
     }
 
     /**
@@ -35,31 +78,106 @@ public class OrderQueue {
      */
     public Order takeOrder() throws InterruptedException {
         ordersSemaphore.acquire(); // Wait until an order is available
-        synchronized (this) {
-            return orderQueue.remove(0);
-        }
+        // Each permit matches an order already in the skip list, so this never returns null
+        Order order = orderQueue.pollFirst();
+        ordersByItem.get(order.getItemID()).remove(order);
+        scheduler.taken(order.getPriority());
+        return order;
     }
 
     /**
-     * Checks if the queue is empty.
-     * @return True if the queue is empty, false otherwise.
+     * Retrieves and removes the first order in the queue; every chef shares the same queue.
+     * @param chefID The chef asking for work.
+     * @return The first order in the queue.
+     * @throws InterruptedException If the thread is interrupted while waiting.
      */
-    public synchronized boolean isEmpty() {
-        return orderQueue.isEmpty();
+    public Order takeOrder(int chefID) throws InterruptedException {
+        return takeOrder();
     }
 
     /**
-     * Helper method to find the correct position to insert an order based on its order time.
-     * Performs a linear search to find the appropriate position.
-     * @param orderTime The order time of the new order.
-     * @return The position to insert the new order.
+     * Takes pending orders of the same menu item as a given order, without blocking,
+     * so that a chef can cook them in one batch. Orders are taken in the order they would be served.
+     * @param first The order the batch is built around.
+     * @param maxSize The largest number of orders in the batch.
+     * @param batch The batch, already holding the orders taken so far; matching orders are added to it.
+     * @return The number of orders added.
      */
-    private int findInsertPosition(int orderTime) {
-        for (int i = 0; i < orderQueue.size(); i++) {
-            if (orderTime < orderQueue.get(i).getOrderTime()) {
-                return i;
+    public int takeMatching(Order first, int maxSize, List<Order> batch) {
+        int added = 0;
+        ConcurrentSkipListSet<Order> matching = ordersByItem.get(first.getItemID());
+        for (Order candidate : matching) {
+            if (batch.size() >= maxSize) {
+                break;
+            }
+            // Claim a permit first, so the order count stays in step with the skip list
+            int permit = ordersSemaphore.tryAcquire();
+            if (permit == CustomSemaphore.NO_RESOURCE) {
+                break;
+            }
+            if (orderQueue.remove(candidate)) {
+                matching.remove(candidate);
+                scheduler.taken(candidate.getPriority());
+                batch.add(candidate);
+                added++;
+            } else {
+                // Another chef took the order first
+                ordersSemaphore.release(permit);
             }
         }
-        return orderQueue.size(); // Insert at the end if no smaller orderTime is found
+        return added;
+    }
+
+    /**
+     * Takes pending orders of the same menu item as a given order; every chef shares the same queue.
+     * @param chefID The chef building the batch.
+     * @param first The order the batch is built around.
+     * @param maxSize The largest number of orders in the batch.
+     * @param batch The batch, already holding the orders taken so far; matching orders are added to it.
+     * @return The number of orders added.
+     */
+    public int takeMatching(int chefID, Order first, int maxSize, List<Order> batch) {
+        return takeMatching(first, maxSize, batch);
+    }
+
+    /**
+     * Registers the calling chef as holding a batch open; adding an order of the item wakes it.
+     * @param itemID The menu item ID of the batch.
+     */
+    public void holdBatch(int itemID) {
+        batchWaiters.register(itemID);
+    }
+
+    /**
+     * Ends the hold registered by holdBatch for the calling chef.
+     * @param itemID The menu item ID of the batch.
+     */
+    public void endHold(int itemID) {
+        batchWaiters.unregister(itemID);
+    }
+
+    /**
+     * Gets how many orders a chef took from another chef; a shared queue has nothing to steal.
+     * @param chefID The chef.
+     * @return Always 0.
+     */
+    public long getStolenCount(int chefID) {
+        return 0;
+    }
+
+    /**
+     * Gets the number of orders waiting for a chef.
+     * @return The number of orders in the queue.
+     */
+    public int size() {
+        return ordersSemaphore.getAvailablePermits();
+    }
+
+    /**
+     * Checks if the queue is empty.
+     * @return True if the queue is empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return orderQueue.isEmpty();
     }
 }
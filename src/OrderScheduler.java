@@ -0,0 +1,148 @@
+import java.io.*;
+
+/**
+ * The OrderScheduler class turns a SchedulingPolicy into a priority for every order, lowest served first,
+ * with ties broken first come first served.
+ * Each priority is fixed when the order is placed, so the queues stay ordinary sorted structures
+ * whatever the policy and taking an order stays cheap however many orders are waiting:
+ * aging credits waiting time at the same rate to every order, which only shifts all priorities by the
+ * same amount as time passes, and the finish tags of weighted fair queuing are assigned on arrival.
+ * Within one menu item, later orders never get a lower priority, so the discrete-event engine only needs
+ * to compare the oldest order of each item.
+ * Priorities are in thousandths of a minute so that fractional aging rates and weights stay exact enough.
+ */
+public class OrderScheduler {
+    // Priority units per minute
+    private static final long SCALE = 1000;
+
+    // Policy deciding the priorities
+    private final SchedulingPolicy policy;
+    // Preparation-time credit per minute of waiting, in priority units per minute
+    private final long agingRate;
+    // Minutes promised between seating and the meal being cooked, by menu item ID
+    private final int[] promises;
+    // Share of the kitchen of each menu item, by menu item ID
+    private final double[] weights;
+    // Finish tag of the last order of each menu item, for weighted fair queuing
+    private final long[] lastFinish;
+    // Virtual time of weighted fair queuing: the finish tag of the latest order taken
+    private long virtualTime;
+
+    /**
+     * Constructor to create a scheduler for one run.
+     * @param policy The scheduling policy.
+     * @param menu The menu of the scenario.
+     * @param config The settings of the run, with the aging rate, promises and weights.
+     */
+    public OrderScheduler(SchedulingPolicy policy, Menu menu, SimulationConfig config) {
+        this.policy = policy;
+        this.agingRate = Math.round(config.getAgingRate() * SCALE);
+        int items = menu == null ? 0 : menu.size();
+        promises = new int[items];
+        weights = new double[items];
+        for (int i = 0; i < items; i++) {
+            promises[i] = config.getPromise(menu.getName(i));
+            weights[i] = config.getWeight(menu.getName(i));
+        }
+        lastFinish = new long[items];
+    }
+
+    /**
+     * Constructor to create a scheduler that does not need the menu, used by a standalone OrderQueue.
+     * @param policy FIFO or SJF.
+     */
+    public OrderScheduler(SchedulingPolicy policy) {
+        this(policy, null, new SimulationConfig());
+    }
+
+    /**
+     * Computes the priority of an order of the threads engine.
+     * @param order The order, with its menu item ID, preparation and placed times set.
+     * @return The priority; lower is served first.
+     */
+    public long priorityOf(Order order) {
+        return priorityOf(order.getItemID(), order.getOrderTime(), order.getPlacedTime());
+    }
+
+    /**
+     * Computes the priority of an order when it is placed.
+     * Customers order as soon as they are seated, so the placed time is also the seat time used by EDF.
+     * @param itemID The menu item ID (only used by EDF and WFQ).
+     * @param prepTime The preparation time of the item, in minutes.
+     * @param placedTime The time the order was placed, in minutes since midnight.
+     * @return The priority; lower is served first.
+     */
+    public long priorityOf(int itemID, int prepTime, int placedTime) {
+        switch (policy) {
+            case FIFO:
+                return 0;
+            case SJF:
+                return prepTime * SCALE;
+            case SJF_AGING:
+                // prep - rate * (now - placed) ranks orders the same way at any time "now"
+                return prepTime * SCALE + agingRate * placedTime;
+            case EDF:
+                return ((long) placedTime + promises[itemID]) * SCALE;
+            default:
+                synchronized (this) {
+                    // The order finishes one weighted preparation after its item's previous order,
+                    // or after the current virtual time if the item had nothing waiting
+                    long finish = Math.max(virtualTime, lastFinish[itemID]) + Math.round(prepTime * SCALE / weights[itemID]);
+                    lastFinish[itemID] = finish;
+                    return finish;
+                }
+        }
+    }
+
+    /**
+     * Tells the scheduler that an order was taken by a chef, moving the virtual time of weighted fair queuing.
+     * @param priority The priority of the order.
+     */
+    public void taken(long priority) {
+        if (policy == SchedulingPolicy.WFQ) {
+            synchronized (this) {
+                virtualTime = Math.max(virtualTime, priority);
+            }
+        }
+    }
+
+    // Getter for the scheduling policy
+    public SchedulingPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Writes the state of weighted fair queuing for a checkpoint.
+     * @param out The checkpoint stream.
+     * @throws IOException If the stream cannot be written.
+     */
+    public synchronized void writeTo(DataOutputStream out) throws IOException {
+        out.writeByte(policy.ordinal());
+        out.writeLong(virtualTime);
+        out.writeInt(lastFinish.length);
+        for (long finish : lastFinish) {
+            out.writeLong(finish);
+        }
+    }
+
+    /**
+     * Restores the state of weighted fair queuing from a checkpoint.
+     * @param in The checkpoint stream.
+     * @return True if the checkpoint used the same policy, so the priorities of its orders still apply.
+     * @throws IOException If the stream cannot be read.
+     */
+    public synchronized boolean readFrom(DataInputStream in) throws IOException {
+        boolean samePolicy = in.readByte() == policy.ordinal();
+        long savedVirtualTime = in.readLong();
+        long[] savedFinish = new long[in.readInt()];
+        for (int i = 0; i < savedFinish.length; i++) {
+            savedFinish[i] = in.readLong();
+        }
+        if (samePolicy && savedFinish.length == lastFinish.length) {
+            virtualTime = savedVirtualTime;
+            System.arraycopy(savedFinish, 0, lastFinish, 0, lastFinish.length);
+            return true;
+        }
+        return false;
+    }
+}
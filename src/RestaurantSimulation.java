@@ -1,5 +1,8 @@
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * Names: Zeyad Alghamdi 2237000 - Eyas Majeed   2236567
@@ -22,139 +25,482 @@ import java.util.*;
 
 public class RestaurantSimulation {
     // Current time in the simulation, represented in minutes since midnight
-    public static int currentTime;
-    // Queue to manage incoming orders
-    public static OrderQueue orderQueue = new OrderQueue();
-    // Object to manage prepared meals
-    public static CookedMeals cookedMeals = new CookedMeals();
+    // (volatile so every thread sees the clock advance)
+    private volatile int currentTime;
+    // Queue to manage incoming orders (a shared queue or per-chef queues, see KitchenMode)
+    // (volatile so the monitor sees the per-chef queues once the threads engine creates them)
+    private volatile OrderDispatcher orderQueue;
+    // Scheduling policy giving each order its priority
+    private OrderScheduler scheduler;
+    // Minutes each chef spent cooking and portions each chef cooked, indexed by chef ID - 1
+    private AtomicLongArray chefBusyMinutes;
+    private AtomicLongArray chefPortions;
+    // Number of chefs of the threads engine preparing an order right now
+    private final AtomicInteger busyChefs = new AtomicInteger();
+    // Channels that hand prepared meals to the waiters, shared or one per waiter section
+    private WaiterSections waiterSections;
+    // Meals each waiter served and how many of them came from another waiter's section, indexed by waiter ID - 1
+    private AtomicLongArray waiterServed;
+    private AtomicLongArray waiterRerouted;
+    // Clock of the threads engine, firing arrivals, cooked dishes and finished meals at their simulated minute
+    private ClockService clock;
     // Map to keep track of customer information with customer ID as the key
-    public static HashMap<Integer, Customer> customers = new HashMap<>();
-    // Menu map with meal names as keys and preparation times (in minutes) as values
-    public static HashMap<String, Integer> menuMap = new HashMap<>();
+    private HashMap<Integer, Customer> customers = new LinkedHashMap<>();
+    // Menu items interned to integer IDs, with their preparation times in minutes
+    private Menu menu;
     // Counter for the number of active customers currently in the simulation
-    public static int activeCustomerCount = 0;
-    // Total number of customers served during the simulation
-    public static int totalCustomersServed = 0;
-    // Total wait time accumulated by all customers
-    public static double totalWaitTime = 0;
-    // Total time taken to prepare all orders
-    public static double totalOrderPreparationTime = 0;
+    private int activeCustomerCount = 0;
+    // Total number of customers served during the simulation (volatile so the monitor sees it)
+    private volatile int totalCustomersServed = 0;
+    // Discrete-event engine running the simulation (null with the threads engine; volatile for the monitor)
+    private volatile EventSimulation events;
+    // Tables of the restaurant, seating parties by size in both engines
+    private TableAllocator tableAllocator;
+    // Balking, reneging, kitchen backpressure and the counts of lost customers
+    private AdmissionControl admission;
     // Total duration of the simulation in minutes
-    public static int simulationTime;
+    private int simulationTime;
     // Start time of the simulation in minutes since midnight
-    public static int simulationStartTime;
+    private int simulationStartTime;
+    // Whether the stop rule ended the simulation before every customer left
+    private boolean stoppedEarly;
+    // Number of chefs, waiters, and tables read from the input file
+    private int numChefs;
+    private int numWaiters;
+    private int numTables;
+    // Settings of this run
+    private final SimulationConfig config;
+    // Trace of the simulation's events
+    private final EventLog eventLog = new EventLog();
+    // Durations measured during the simulation
+    private final Metrics metrics = new Metrics();
 
+    /**
+     * Constructor to configure a simulation. Nothing runs until run() or start() is called.
+     * Every simulation has its own clock, queues and metrics, so several can run in one JVM.
+     * @param config The settings of the run.
+     */
+    public RestaurantSimulation(SimulationConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Entry point of the simulation.
+     * Usage: java RestaurantSimulation [inputFile] [--engine=threads|event] [--threads=platform|virtual]
+     *        [--meal-wait=spin|yield|park] [--meal-capacity=N] [--minute-ms=N] [--seed=N]
+     *        [--log=text|binary|trace|discard] [--log-file=path] [--metrics-file=path]
+     *        [--chefs=N] [--waiters=N] [--tables=N] [--table-seats=N,...] [--join-tables]
+     *        [--batch-size=N|Item:N,...] [--batch-hold=M] [--batch-surcharge=M]
+     *        [--kitchen=shared|item|round-robin] [--waiter-sections] [--section-rebalance=N]
+     *        [--policy=fifo|sjf|sjf-aging|edf|wfq] [--aging-rate=R] [--promise=M|Item:M,...] [--weight=Item:W,...]
+     *        [--checkpoint-at=HH:MM] [--checkpoint-file=path] [--resume=path]
+     *        [--generate=N] [--arrival-rate=R] [--arrival-shape=flat|meals] [--popularity=uniform|zipf|Item:W,...]
+     *        [--party-sizes=N:W,...] [--reservation-share=F] [--generate-start=HH:MM] [--workload-seed=N] [--generate-file=path]
+     *        [--patience=M] [--max-orders=N] [--reserved-tables=N]
+     *        [--monitor] [--monitor-port=N]
+     * The "threads" engine (default) runs every actor in its own thread on the wall clock,
+     * while the "event" engine runs the same scenario as a discrete-event simulation.
+     * With the threads engine, --threads selects platform (default) or virtual threads, and
+     * --meal-wait / --meal-capacity configure the ring buffer between chefs and waiters, and
+     * --minute-ms sets how many real milliseconds a simulated minute lasts (default 1000).
+     * --log selects where the event trace goes: standard output (default), a binary file, a memory-mapped trace file for TraceAnalyzer, or nowhere.
+     * --metrics-file exports the latency percentiles and throughput as JSON at the end of the run.
+     * --chefs, --waiters and --tables override the staffing given in the header line, and --table-seats the seats
+     * of the tables (TC in the header line, repeated for further tables; 4 seats each by default).
+     * Each customer line may give the size of the party (Party=N, default 1); a party takes the smallest free
+     * table it fits, and with --join-tables adjacent free tables when no single free table fits it.
+     * --batch-size lets a chef cook up to N identical orders in one preparation cycle, each extra portion
+     * adding --batch-surcharge minutes; an order waits at most --batch-hold minutes for its batch to fill.
+     * With the threads engine, --kitchen=item or round-robin gives each chef their own order queue, ordered by --policy
+     * and filled by menu item or in turn, and lets idle chefs steal from the others.
+     * --waiter-sections splits the tables among the waiters, so each meal goes to the waiter who owns its table,
+     * unless that waiter already has --section-rebalance meals waiting (default 4, 0 never reroutes).
+     * --policy selects the order in which chefs take orders (default sjf): sjf-aging credits --aging-rate minutes
+     * of preparation time per minute waited, edf serves the earliest seat time plus --promise first, and wfq
+     * shares the kitchen between menu items by --weight. Every kitchen mode follows the policy.
+     * With the event engine, --checkpoint-at saves the running simulation to --checkpoint-file (default simulation.ckpt)
+     * when it reaches that time, and --resume continues from such a file with the same scenario and staffing;
+     * the other options may differ, so one checkpoint can be forked into several what-if runs.
+     * --generate makes up N customers instead of reading them, keeping the staffing and menu of the input file:
+     * Poisson arrivals from --generate-start (default 12:00) at --arrival-rate customers per minute (default 1),
+     * flat or peaking at lunch and dinner, ordering items uniformly, by Zipf's law in menu order or by weight,
+     * in parties of the sizes given by --party-sizes with their weights (single diners by default), --reservation-share
+     * of them with a reservation (Reservation=1 on a customer line).
+     * --workload-seed seeds the generator (default --seed), and --generate-file writes the customers to a scenario
+     * file instead of simulating them.
+     * --patience lets customers leave once the restaurant is overloaded: a customer whose estimated wait for the meal
+     * exceeds M minutes leaves on arrival (balks), and one still without a table M minutes after arriving gives up
+     * (reneges). --max-orders stops seating parties while N orders wait for a chef, so the queue forms at the door,
+     * and --reserved-tables keeps the last N free tables for parties with a reservation, who never balk or renege.
+     * --monitor registers the live gauges of the run (queue depths, free tables, busy chefs) as a JMX MBean, and
+     * --monitor-port serves them as plain text on the loopback address. Seat, order, cook and serve steps are
+     * published as Java Flight Recorder events whenever a recording is running (see FlightEvents).
+     * @param args The command-line arguments.
+     * @throws Exception If the input file cannot be read or a thread is interrupted.
+     */
     public static void main(String[] args) throws Exception {
-        
-        // File name containing simulation configuration and data
-        String inputFile1 = "restaurant_simulation_input3";
+        SimulationConfig config = SimulationConfig.fromArgs(args);
+        if (config.getGenerateFile() != null) {
+            try (WorkloadGenerator generator = new WorkloadGenerator(new ScenarioReader(config.getInputFile()), config)) {
+                int written = generator.writeScenario(config.getGenerateFile());
+                System.out.println("Wrote " + written + " customers to " + config.getGenerateFile());
+            }
+            return;
+        }
+        SimulationResult result = new RestaurantSimulation(config).run();
 
-        // Create a BufferedReader to read the input file
-        BufferedReader read = new BufferedReader(new FileReader(inputFile1));
+        System.out.println("[End of Simulation]");
+        result.printSummary(System.out);
+        if (config.getMetricsFile() != null) {
+            result.exportJson(config.getMetricsFile());
+        }
+    }
 
-        // Read the first line (header) and parse the configuration values
-        String configLine = read.readLine();
-        String[] configArray = configLine.split(" ");
-        HashMap<String, Integer> configMap = new HashMap<>();
-        for (String part : configArray) {
-            String[] keyAndValue = part.split("=");
-            configMap.put(keyAndValue[0], Integer.parseInt(keyAndValue[1]));
+    /**
+     * Starts the simulation on the given executor without waiting for it.
+     * @param executor The executor that runs the simulation.
+     * @return A future completed with the result when the last customer has left.
+     */
+    public CompletableFuture<SimulationResult> start(Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return run();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Runs the simulation in the calling thread until the last customer has left.
+     * @return The result of the simulation.
+     * @throws Exception If the input file cannot be read or a thread is interrupted.
+     */
+    public SimulationResult run() throws Exception {
+        if (!config.isEventEngine() && (config.getCheckpointTime() != null || config.getResumeFile() != null)) {
+            throw new IllegalStateException("Checkpoints need the event engine (--engine=event)");
         }
 
-        // Extract the number of chefs, waiters, and tables from the configuration
-        int numChefs = configMap.get("NC");
-        int numWaiters = configMap.get("NW");
-        int numTables = configMap.get("NT");
+        // Open the input file and parse the header and menu lines; generated customers replace the file's customers.
+        // The file is closed however the run ends, including a bad setting rejected while the simulation is set up
+        try (ScenarioReader scenario = new ScenarioReader(config.getInputFile());
+             CustomerSource read = config.getGenerateCount() > 0 ? new WorkloadGenerator(scenario, config) : scenario) {
+            // Extract the number of chefs, waiters, and tables from the configuration, unless overridden
+            numChefs = config.getNumChefs() != null ? config.getNumChefs() : read.getNumChefs();
+            numWaiters = config.getNumWaiters() != null ? config.getNumWaiters() : read.getNumWaiters();
+            numTables = config.getNumTables() != null ? config.getNumTables() : read.getNumTables();
+            int[] tableSeats = config.getTableSeats() != null ? config.getTableSeats() : read.getTableSeats();
+            tableAllocator = new TableAllocator(Table.create(numTables, tableSeats), config.isJoinTables(), config.getReservedTables(),
+                    this::getCurrentTime);
+            if (config.getStopMetric() != null) {
+                metrics.setLimit(config.getStopMetric(), config.getStopLimit());
+            }
 
-        // Initialize and create threads for chefs
-        ArrayList<Thread> chefThreads = new ArrayList<>();
-        Chef[] chefs = new Chef[numChefs];
+            // Store the menu items and their preparation times, and index pending orders by menu item
+            menu = read.getMenu();
+            scheduler = new OrderScheduler(config.getSchedulingPolicy(), menu, config);
+            orderQueue = new OrderQueue(scheduler, menu.size());
+            admission = new AdmissionControl(config, menu, numChefs, numTables);
+            chefBusyMinutes = new AtomicLongArray(numChefs);
+            chefPortions = new AtomicLongArray(numChefs);
+
+            waiterServed = new AtomicLongArray(numWaiters);
+            waiterRerouted = new AtomicLongArray(numWaiters);
+
+            // Create the ring buffers between chefs and waiters
+            waiterSections = new WaiterSections(numWaiters, numTables, config.isWaiterSections(), config.getSectionRebalance(),
+                    config.getMealCapacity(), config.getMealWaitStrategy());
+
+            // Start the background writer for the event trace
+            eventLog.start(config.getLogFormat(), config.getLogFile());
+            if (config.getLogFormat() == LogFormat.TEXT && config.getLogFile() == null) {
+                System.out.println("Simulation Started with " + numChefs + " Chefs, " + numWaiters + " Waiters, and " + numTables + " Tables.");
+            }
+
+            // Make the gauges visible while the simulation runs
+            SimulationMonitor monitor = new SimulationMonitor(this);
+            monitor.open(config.isMonitor());
+            if (config.getMonitorPort() != null) {
+                int port = SimulationMonitor.startHttp(config.getMonitorPort());
+                if (config.getMonitorPort() == 0) {
+                    System.out.println("Monitor listening on http://127.0.0.1:" + port + "/");
+                }
+            }
+
+            try {
+                if (config.isEventEngine()) {
+                    runEvents(read);
+                } else {
+                    runThreads(read);
+                }
+            } finally {
+                monitor.close();
+                // Write out the trace before the result is reported
+                eventLog.close();
+            }
+        }
+
+        LatencyHistogram[] histograms = new LatencyHistogram[Metric.values().length];
+        for (Metric metric : Metric.values()) {
+            histograms[metric.ordinal()] = metrics.snapshot(metric);
+        }
+        SimulationResult result = new SimulationResult(config.getInputFile(), numChefs, numWaiters, numTables,
+                totalCustomersServed, stoppedEarly ? currentTime - simulationStartTime : simulationTime, histograms, stoppedEarly);
+        long[] busy = new long[numChefs];
+        long[] portions = new long[numChefs];
+        long[] stolen = new long[numChefs];
         for (int i = 0; i < numChefs; i++) {
-            chefs[i] = new Chef(i + 1);
-            chefThreads.add(new Thread(chefs[i]));
+            busy[i] = chefBusyMinutes.get(i);
+            portions[i] = chefPortions.get(i);
+            stolen[i] = orderQueue.getStolenCount(i + 1);
+        }
+        result.setChefStats(busy, portions, stolen);
+        result.setSchedulingPolicy(config.getSchedulingPolicy());
+        long[] served = new long[numWaiters];
+        long[] rerouted = new long[numWaiters];
+        for (int i = 0; i < numWaiters; i++) {
+            served[i] = waiterServed.get(i);
+            rerouted[i] = waiterRerouted.get(i);
         }
+        result.setWaiterStats(served, rerouted);
+        result.setTableStats(tableAllocator.getSeats(), tableAllocator.getTurns(), tableAllocator.getOccupiedMinutes(),
+                tableAllocator.getDinerMinutes());
+        result.setAdmissionStats(config.getPatience(), config.getMaxOrders(), config.getReservedTables(),
+                admission.getBalked(), admission.getReneged(), admission.getServedInTime());
+        return result;
+    }
 
-        // Initialize and create threads for waiters
-        ArrayList<Thread> waiterThreads = new ArrayList<>();
-        Waiter[] waiters = new Waiter[numWaiters];
+    /**
+     * Checks the stop rule of the configuration, if any.
+     * Once the rule is exceeded the run is marked as stopped early.
+     * @return True if the simulation should stop now.
+     */
+    public boolean shouldStop() {
+        if (config.getStopMetric() != null && metrics.getOverLimitCount() > config.getStopBudget()) {
+            stoppedEarly = true;
+        }
+        return stoppedEarly;
+    }
+
+    /**
+     * Runs the scenario on the discrete-event engine.
+     * Customers are streamed from the file or the generator as the simulation reaches their arrival time.
+     * @param read The customer source, positioned after the menu line.
+     * @throws IOException If the customers cannot be read.
+     */
+    private void runEvents(CustomerSource read) throws IOException {
+        Random random = config.getSeed() == null ? new Random() : new Random(config.getSeed());
+        EventSimulation simulation = new EventSimulation(this, numChefs, numWaiters, numTables, random);
+        events = simulation;
+        if (config.getResumeFile() != null) {
+            SimulationCheckpoint.load(config.getResumeFile(), this, simulation, read);
+        } else if (read.next()) {
+            currentTime = read.getArrivalTime();
+            simulationStartTime = currentTime;
+            simulation.streamCustomers(read);
+        } else {
+            return;
+        }
+        if (config.getCheckpointTime() != null) {
+            simulation.setCheckpoint(config.getCheckpointTime(), config.getCheckpointFile());
+        }
+        simulation.run();
+    }
+
+    /**
+     * Writes the clock, counters and metrics of the simulation for a checkpoint,
+     * together with the staffing and menu they belong to.
+     * @param out The checkpoint stream.
+     * @throws IOException If the stream cannot be written.
+     */
+    public void writeState(DataOutputStream out) throws IOException {
+        out.writeInt(numChefs);
+        out.writeInt(numWaiters);
+        out.writeInt(numTables);
+        out.writeInt(menu.size());
+        for (int i = 0; i < menu.size(); i++) {
+            out.writeUTF(menu.getName(i));
+            out.writeInt(menu.getPrepTime(i));
+        }
+        out.writeInt(currentTime);
+        out.writeInt(simulationStartTime);
+        out.writeInt(activeCustomerCount);
+        out.writeInt(totalCustomersServed);
+        out.writeInt(simulationTime);
+        for (int i = 0; i < numChefs; i++) {
+            out.writeLong(chefBusyMinutes.get(i));
+            out.writeLong(chefPortions.get(i));
+        }
+        for (int i = 0; i < numWaiters; i++) {
+            out.writeLong(waiterServed.get(i));
+            out.writeLong(waiterRerouted.get(i));
+        }
+        out.writeInt(Metric.values().length);
+        for (Metric metric : Metric.values()) {
+            metrics.snapshot(metric).writeTo(out);
+        }
+        out.writeLong(metrics.getOverLimitCount());
+        admission.writeTo(out);
+    }
+
+    /**
+     * Restores the clock, counters and metrics of the simulation from a checkpoint.
+     * @param in The checkpoint stream.
+     * @throws IOException If the stream cannot be read, or the staffing or menu differ from this run.
+     */
+    public void readState(DataInputStream in) throws IOException {
+        int chefs = in.readInt(), waiters = in.readInt(), tables = in.readInt();
+        if (chefs != numChefs || waiters != numWaiters || tables != numTables) {
+            throw new IOException("Checkpoint was taken with " + chefs + " chefs, " + waiters + " waiters and " + tables
+                    + " tables, not " + numChefs + ", " + numWaiters + " and " + numTables);
+        }
+        int items = in.readInt();
+        if (items != menu.size()) {
+            throw new IOException("Checkpoint was taken with a different menu");
+        }
+        for (int i = 0; i < items; i++) {
+            String name = in.readUTF();
+            int prepTime = in.readInt();
+            if (!name.equals(menu.getName(i)) || prepTime != menu.getPrepTime(i)) {
+                throw new IOException("Checkpoint was taken with a different menu");
+            }
+        }
+        currentTime = in.readInt();
+        simulationStartTime = in.readInt();
+        activeCustomerCount = in.readInt();
+        totalCustomersServed = in.readInt();
+        simulationTime = in.readInt();
+        for (int i = 0; i < numChefs; i++) {
+            chefBusyMinutes.set(i, in.readLong());
+            chefPortions.set(i, in.readLong());
+        }
         for (int i = 0; i < numWaiters; i++) {
-            waiters[i] = new Waiter(i + 1);
-            waiterThreads.add(new Thread(waiters[i]));
+            waiterServed.set(i, in.readLong());
+            waiterRerouted.set(i, in.readLong());
+        }
+        LatencyHistogram[] histograms = new LatencyHistogram[Metric.values().length];
+        if (in.readInt() != histograms.length) {
+            throw new IOException("Checkpoint has a different set of metrics");
         }
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = LatencyHistogram.readFrom(in);
+        }
+        metrics.restore(histograms, in.readLong());
+        admission.readFrom(in);
+    }
 
-        // Initialize tables for customers
-        Table[] tables = new Table[numTables];
-        for (int i = 0; i < numTables; i++) {
-            tables[i] = new Table(i + 1);
+    /**
+     * Runs the scenario with a thread per customer, chef and waiter on the wall clock.
+     * @param read The customer source, positioned after the menu line.
+     * @throws Exception If the customers cannot be read, a party does not fit at the tables, or a thread is interrupted.
+     */
+    private void runThreads(CustomerSource read) throws Exception {
+        // Replace the shared order queue with per-chef queues in the other kitchen modes
+        if (config.getKitchenMode() != KitchenMode.SHARED) {
+            orderQueue = new WorkStealingKitchen(numChefs, menu.size(), config.getKitchenMode(), scheduler);
         }
 
-        // Create a custom semaphore to manage table availability
-        CustomSemaphore tableSemaphore = new CustomSemaphore(numTables);
+        // Initialize chefs
+        Chef[] chefs = new Chef[numChefs];
+        for (int i = 0; i < numChefs; i++) {
+            chefs[i] = new Chef(this, i + 1);
+        }
 
-        // Read and parse the menu items and their preparation times
-        String menuLine = read.readLine();
-        String[] menuArray = menuLine.split(" ");
-        for (String meal : menuArray) {
-            String[] nameAndTime = meal.split("=");
-            menuMap.put(nameAndTime[0], timeToMinutes(nameAndTime[1]));
+        // Initialize waiters
+        Waiter[] waiters = new Waiter[numWaiters];
+        for (int i = 0; i < numWaiters; i++) {
+            waiters[i] = new Waiter(this, i + 1);
         }
 
+        // Eating times are drawn as the customers are read, so a seeded run is repeatable
+        Random random = config.getSeed() == null ? new Random() : new Random(config.getSeed());
+
         // Read customer details and schedule their arrival
-        ArrayList<Thread> customerThreads = new ArrayList<>();
         int leastArrivalTime = Integer.MAX_VALUE;  // Variable to keep track of the earliest arrival time
-        String line;
-        while ((line = read.readLine()) != null) {
-            String[] parts = line.split(" ");
-            int customerID = Integer.parseInt(parts[0].split("=")[1]);
-            int arrivalTime = timeToMinutes(parts[1].split("=")[1]);
-            String orderItem = parts[2].split("=")[1];
-
-            // Create a new customer and store in the map
-            Customer customer = new Customer(customerID, orderItem, arrivalTime, tableSemaphore);
+        while (read.next()) {
+            int customerID = read.getCustomerID();
+            int arrivalTime = read.getArrivalTime();
+            if (!tableAllocator.canSeat(read.getPartySize())) {
+                throw new IOException("Customer " + customerID + " comes with a party of " + read.getPartySize()
+                        + ", more than the tables can seat");
+            }
+
+            // Create a new customer, who eats for between 10 and 20 minutes, and store in the map
+            Customer customer = new Customer(this, customerID, read.getOrderItemID(), read.getPartySize(), read.hasReservation(),
+                    arrivalTime, 10 + random.nextInt(11), tableAllocator);
             customers.put(customerID, customer);
-            customerThreads.add(new Thread(customer));
 
             // Update the earliest arrival time
             if (arrivalTime < leastArrivalTime) {
                 leastArrivalTime = arrivalTime;
             }
         }
-        read.close();
 
-        // Set the current simulation time to the earliest customer arrival time
-        currentTime = leastArrivalTime;
-        simulationStartTime = currentTime;
+        // Start the clock at the earliest customer arrival time
+        simulationStartTime = leastArrivalTime;
+        clock = new ClockService(this, config.getMinuteMillis());
+        clock.start(leastArrivalTime);
 
-        // Start the time simulation thread
-        Thread timeSimulationThread = new Thread(new TimeSimulation());
-        timeSimulationThread.start();
-        System.out.println("Simulation Started with " + numChefs + " Chefs, " + numWaiters + " Waiters, and " + numTables + " Tables.");
+        // Create the executor for the selected kind of threads
+        ExecutorService workers = config.getExecutionMode().newExecutor();
 
-        // Start all customer, chef, and waiter threads
-        for (Thread thread : customerThreads) {
-            activeCustomerCount++;
-            thread.start();
-        }
-        for (Thread thread : chefThreads) {
-            thread.start();
-        }
-        for (Thread thread : waiterThreads) {
-            thread.start();
+        try {
+            // Start the chef and waiter tasks, and each customer task when the customer arrives
+            activeCustomerCount = customers.size();
+            runWorkers(workers, clock, customers.values(), chefs, waiters);
+        } finally {
+            // Stop the chefs, waiters and the clock once every customer has left
+            workers.shutdownNow();
+            clock.stop();
         }
+    }
 
-        // Wait for all customer, chef, and waiter threads to finish
-        for (Thread thread : customerThreads) {
-            thread.join();
+    /**
+     * Submits every chef and waiter to the given executor, each as its own task, hands each customer
+     * to the executor when the clock reaches their arrival time, and waits until all customers have
+     * finished their visit.
+     * Any executor can be plugged in as long as it runs each task concurrently,
+     * because chefs and waiters never return and customers block while waiting for a table.
+     * A customer's visit ends after their task, once the meal is served and eaten.
+     * The wait is a managed block, so a simulation running inside a fork-join pool
+     * lets the pool compensate with another worker.
+     * @param executor The executor that runs the tasks.
+     * @param clock The clock that starts each customer at their arrival time.
+     * @param customerList The customers to run.
+     * @param chefs The chefs to run.
+     * @param waiters The waiters to run.
+     * @throws Exception If a customer task fails or the wait is interrupted.
+     */
+    public static void runWorkers(Executor executor, ClockService clock, Collection<Customer> customerList, Chef[] chefs, Waiter[] waiters) throws Exception {
+        for (Customer customer : customerList) {
+            clock.scheduleAt(customer.getArrivalTime(), () -> executor.execute(customer));
         }
-        for (Thread thread : chefThreads) {
-            thread.join();
+        for (Chef chef : chefs) {
+            executor.execute(chef);
         }
-        for (Thread thread : waiterThreads) {
-            thread.join();
+        for (Waiter waiter : waiters) {
+            executor.execute(waiter);
         }
 
-        // Wait for the time simulation thread to complete
-        timeSimulationThread.join();
+        // Wait for all customers to finish
+        for (Customer customer : customerList) {
+            CompletableFuture<Void> visit = customer.getVisit();
+            ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                public boolean block() throws InterruptedException {
+                    try {
+                        visit.get();
+                    } catch (ExecutionException e) {
+                        // Reported by the get() below
+                    }
+                    return true;
+                }
+
+                public boolean isReleasable() {
+                    return visit.isDone();
+                }
+            });
+            visit.get();
+        }
     }
 
     /**
@@ -175,35 +521,230 @@ public class RestaurantSimulation {
      * @return The time string in "HH:MM" format.
      */
     public static String minutesToTime(int minutes) {
-        int hours = minutes / 60;
-        int mins = minutes % 60;
-        return String.format("%02d:%02d", hours, mins);
+        return EventLog.appendTime(new StringBuilder(5), minutes).toString();
     }
 
     /**
      * Called when a customer has finished their visit, updating the active customer count.
-     * If no more active customers, the simulation ends.
+     * When no more customers are active, the simulation time is recorded.
      */
-    public static synchronized void customerFinished() {
+    public synchronized void customerFinished() {
         activeCustomerCount--;
         totalCustomersServed++;
         if (activeCustomerCount == 0) {
-            System.out.println("[End of Simulation]");
             simulationTime = currentTime - simulationStartTime;
-            displaySummary();
-            System.exit(0);
         }
     }
 
     /**
-     * Displays a summary of the simulation including total customers served,
-     * average wait time, and total simulation duration.
+     * Called when a customer leaves without being served (balked or reneged), updating the active customer count.
+     * When no more customers are active, the simulation time is recorded.
      */
-    public static void displaySummary() {
-        System.out.println("\nSummary:");
-        System.out.println("Total Customers Served: " + totalCustomersServed);
-        System.out.println("Average Wait Time for Table: " + (totalWaitTime / totalCustomersServed) + " Minutes");
-        System.out.println("Average Order Preparation Time: " + (totalOrderPreparationTime / totalCustomersServed) + " Minutes");
-        System.out.println("Total Simulation Time: " + simulationTime + " Minutes");
+    public synchronized void customerLost() {
+        activeCustomerCount--;
+        if (activeCustomerCount == 0) {
+            simulationTime = currentTime - simulationStartTime;
+        }
+    }
+
+    /**
+     * Decides whether a customer arriving now leaves without waiting, because the estimated wait
+     * for their meal is longer than their patience.
+     * @param itemID The menu item the customer orders.
+     * @param reserved True if the customer has a reservation (and never balks).
+     * @return True if the customer balks.
+     */
+    public boolean balks(int itemID, boolean reserved) {
+        if (admission.getPatience() == null || reserved) {
+            return false;
+        }
+        return admission.balks(estimateWait(itemID), false);
+    }
+
+    /**
+     * Estimates how long a customer arriving now would wait for their meal, from the live gauges.
+     * @param itemID The menu item the customer orders.
+     * @return The estimated minutes until the meal is cooked.
+     */
+    public int estimateWait(int itemID) {
+        return admission.estimateWait(itemID, readGauge(Gauge.ORDERS_WAITING), readGauge(Gauge.WAITING_FOR_TABLE),
+                readGauge(Gauge.FREE_TABLES) > 0);
+    }
+
+    /**
+     * Records the work of a chef for the utilization report.
+     * @param chefID The chef.
+     * @param minutes The minutes spent cooking.
+     * @param portions The number of portions cooked.
+     */
+    public void recordChefWork(int chefID, int minutes, int portions) {
+        chefBusyMinutes.addAndGet(chefID - 1, minutes);
+        chefPortions.addAndGet(chefID - 1, portions);
+    }
+
+    /**
+     * Records a meal served by a waiter for the per-waiter load report.
+     * With waiter sections, a meal for a table outside the waiter's section counts as rerouted.
+     * @param waiterID The waiter.
+     * @param tableID The table the meal was served to.
+     */
+    public void recordWaiterServe(int waiterID, int tableID) {
+        waiterServed.incrementAndGet(waiterID - 1);
+        if (config.isWaiterSections() && WaiterSections.sectionOf(tableID, numTables, numWaiters) != waiterID - 1) {
+            waiterRerouted.incrementAndGet(waiterID - 1);
+        }
+    }
+
+    /**
+     * Records that a chef of the threads engine starts or stops preparing orders, for the live gauges.
+     * @param busy True when the chef starts cooking, false when the meals are handed to the waiters.
+     */
+    public void setChefBusy(boolean busy) {
+        if (busy) {
+            busyChefs.incrementAndGet();
+        } else {
+            busyChefs.decrementAndGet();
+        }
+    }
+
+    /**
+     * Reads a gauge of the running simulation, from the engine's own queues and counters.
+     * Safe to call from any thread; values may be a few events old.
+     * @param gauge The gauge.
+     * @return Its current value, or 0 before the engine has started.
+     */
+    public long readGauge(Gauge gauge) {
+        switch (gauge) {
+            case SIMULATED_TIME:
+                return currentTime;
+            case CUSTOMERS_SERVED:
+                return totalCustomersServed;
+            case CUSTOMERS_LOST:
+                return admission == null ? 0 : admission.getBalked() + admission.getReneged();
+            default:
+                break;
+        }
+        EventSimulation engine = events;
+        if (engine != null) {
+            return engine.readGauge(gauge);
+        }
+        switch (gauge) {
+            case WAITING_FOR_TABLE:
+                // Parties held at the door by --max-orders wait for a table too, as in the event engine
+                long waiting = tableAllocator == null ? 0 : tableAllocator.getWaitingCount();
+                return admission == null ? waiting : waiting + admission.getWaitingForRoom();
+            case FREE_TABLES:
+                return tableAllocator == null ? 0 : tableAllocator.getFreeCount();
+            case ORDERS_WAITING:
+                return orderQueue.size();
+            case MEALS_WAITING:
+                return waiterSections == null ? 0 : waiterSections.size();
+            case BUSY_CHEFS:
+                return busyChefs.get();
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Gets the number of meals each waiter has served so far.
+     * @return The counts, indexed by waiter ID - 1 (empty before the simulation starts).
+     */
+    public long[] getWaiterServed() {
+        long[] served = new long[waiterServed == null ? 0 : waiterServed.length()];
+        for (int i = 0; i < served.length; i++) {
+            served[i] = waiterServed.get(i);
+        }
+        return served;
+    }
+
+    // Getter for the number of chefs
+    public int getNumChefs() {
+        return numChefs;
+    }
+
+    /**
+     * Called when a customer has been added to a running simulation (used by the event engine).
+     */
+    public synchronized void customerAdded() {
+        activeCustomerCount++;
+    }
+
+    /**
+     * Gets the current simulation time.
+     * @return The current time in the simulation, in minutes since midnight.
+     */
+    public int getCurrentTime() {
+        return currentTime;
+    }
+
+    /**
+     * Moves the simulation clock, used by the discrete-event engine.
+     * @param time The new time in minutes since midnight.
+     */
+    public void setCurrentTime(int time) {
+        currentTime = time;
+    }
+
+    /**
+     * Advances the simulation clock by one minute, used by the clock thread of the threads engine.
+     */
+    public void advanceTime() {
+        currentTime++;
+    }
+
+    // Getter for the order queue
+    public OrderDispatcher getOrderQueue() {
+        return orderQueue;
+    }
+
+    // Getter for the channels between chefs and waiters
+    public WaiterSections getWaiterSections() {
+        return waiterSections;
+    }
+
+    // Getter for the customers map
+    public HashMap<Integer, Customer> getCustomers() {
+        return customers;
+    }
+
+    // Getter for the scheduler of the run's scheduling policy
+    public OrderScheduler getScheduler() {
+        return scheduler;
+    }
+
+    // Getter for the menu
+    public Menu getMenu() {
+        return menu;
+    }
+
+    // Getter for the tables and the parties seated at them
+    public TableAllocator getTableAllocator() {
+        return tableAllocator;
+    }
+
+    // Getter for the admission control of the run
+    public AdmissionControl getAdmission() {
+        return admission;
+    }
+
+    // Getter for the clock of the threads engine
+    public ClockService getClock() {
+        return clock;
+    }
+
+    // Getter for the event trace
+    public EventLog getEventLog() {
+        return eventLog;
+    }
+
+    // Getter for the metrics
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    // Getter for the settings of this run
+    public SimulationConfig getConfig() {
+        return config;
     }
 }
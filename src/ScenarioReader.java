@@ -0,0 +1,456 @@
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+
+/**
+ * The ScenarioReader class streams a scenario file through a memory-mapped NIO channel.
+ * The header line (NC, NW, NT and optionally TC, the seats of the tables) and the menu line are parsed
+ * when the reader is opened.
+ * Customer lines are then parsed one at a time by next(), straight from the mapped bytes:
+ * the ID and arrival time are decoded as numbers and the order is matched against the
+ * menu names, so no intermediate strings are allocated and the file is never held in memory.
+ * A customer line may give the size of the customer's party (Party=N, default 1) and whether the
+ * customer has a reservation (Reservation=1, default 0).
+ * The file is mapped in windows, so files larger than 2 GB can be read as well.
+ */
+public class ScenarioReader implements CustomerSource {
+    // Size of each mapped window of the file, in bytes
+    private static final long WINDOW_SIZE = 64L << 20;
+    // Keys of the fields of a customer line, as bytes, indexed by the FIELD_ constants (each starts with another letter)
+    private static final byte[][] FIELD_KEYS = {"ID".getBytes(StandardCharsets.US_ASCII),
+            "ArrivalTime".getBytes(StandardCharsets.US_ASCII), "Order".getBytes(StandardCharsets.US_ASCII),
+            "Party".getBytes(StandardCharsets.US_ASCII), "Reservation".getBytes(StandardCharsets.US_ASCII)};
+    private static final int FIELD_ID = 0;
+    private static final int FIELD_ARRIVAL_TIME = 1;
+    private static final int FIELD_ORDER = 2;
+    private static final int FIELD_PARTY = 3;
+    private static final int FIELD_RESERVATION = 4;
+    // Largest hour of an arrival time, so that the time in minutes fits in an int
+    private static final int MAX_HOURS = (Integer.MAX_VALUE - 59) / 60;
+
+    // Channel of the scenario file
+    private FileChannel channel;
+    // Size of the file in bytes
+    private long fileSize;
+    // Currently mapped window of the file
+    private MappedByteBuffer window;
+    // File offset where the current window starts
+    private long windowStart;
+    // Number of the line being parsed, for error messages
+    private long lineNumber;
+
+    // Configuration values from the header line
+    private HashMap<String, Integer> config = new HashMap<>();
+    // Seats of tables 1, 2, ... from the TC key of the header line (null if not given)
+    private int[] tableSeats;
+    // Menu items and their preparation times from the menu line
+    private Menu menu;
+    // Menu item names as bytes indexed by item ID, used to match orders without creating strings
+    private byte[][] menuBytes;
+    // Scratch buffer holding the bytes of the order being parsed
+    private byte[] itemBuffer = new byte[64];
+
+    // Fields of the current customer line
+    private int customerID;
+    private int arrivalTime;
+    private int orderItemID;
+    private int partySize;
+    private boolean reserved;
+
+    /**
+     * Constructor to open a scenario file and parse its header and menu lines.
+     * @param fileName The path of the scenario file.
+     * @throws IOException If the file cannot be read or its header is malformed.
+     */
+    public ScenarioReader(String fileName) throws IOException {
+        channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+        try {
+            fileSize = channel.size();
+
+            // Read the first line (header) and parse the configuration values
+            for (String part : readLine().split(" ")) {
+                String[] keyAndValue = part.split("=");
+                if (keyAndValue[0].equals("TC")) {
+                    // Seats per table, e.g. TC=2,2,4,8, repeated if there are more tables
+                    String[] counts = keyAndValue[1].split(",");
+                    tableSeats = new int[counts.length];
+                    for (int i = 0; i < counts.length; i++) {
+                        tableSeats[i] = Integer.parseInt(counts[i]);
+                    }
+                } else {
+                    config.put(keyAndValue[0], Integer.parseInt(keyAndValue[1]));
+                }
+            }
+
+            // Read and parse the menu items and their preparation times
+            String[] menuArray = readLine().split(" ");
+            menuBytes = new byte[menuArray.length][];
+            String[] menuNames = new String[menuArray.length];
+            int[] prepTimes = new int[menuArray.length];
+            for (int i = 0; i < menuArray.length; i++) {
+                String[] nameAndTime = menuArray[i].split("=");
+                menuNames[i] = nameAndTime[0];
+                prepTimes[i] = RestaurantSimulation.timeToMinutes(nameAndTime[1]);
+                menuBytes[i] = nameAndTime[0].getBytes(StandardCharsets.US_ASCII);
+            }
+            menu = new Menu(menuNames, prepTimes);
+        } catch (Throwable e) {
+            // A malformed header must not leak the channel of a long-running process
+            try {
+                channel.close();
+            } catch (IOException closeError) {
+                e.addSuppressed(closeError);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Advances to the next customer line.
+     * @return True if a customer was read, false at the end of the file.
+     * @throws IOException If the file cannot be read or the line is malformed.
+     */
+    public boolean next() throws IOException {
+        int b = read();
+        // Skip blank lines
+        while (b == '\n' || b == '\r') {
+            if (b == '\n') {
+                lineNumber++;
+            }
+            b = read();
+        }
+        if (b < 0) {
+            return false;
+        }
+        lineNumber++;
+
+        boolean hasID = false, hasArrival = false, hasOrder = false;
+        partySize = 1;
+        reserved = false;
+        while (b >= 0 && b != '\n') {
+            // The first letter of the key tells which field follows, and the rest of the key must match it
+            int field = findField(b);
+            for (byte expected : FIELD_KEYS[field]) {
+                if (b != expected) {
+                    throw malformed("unknown field");
+                }
+                b = read();
+            }
+            if (b != '=') {
+                throw malformed(b < 0 || b == ' ' || b == '\n' || b == '\r' ? "missing '='" : "unknown field");
+            }
+            int digits = 0;
+            switch (field) {
+                case FIELD_ID:
+                    b = read();
+                    customerID = 0;
+                    while (b >= '0' && b <= '9') {
+                        customerID = appendDigit(customerID, b, Integer.MAX_VALUE, "ID is too large");
+                        digits++;
+                        b = read();
+                    }
+                    if (digits == 0) {
+                        throw malformed("ID is not a number");
+                    }
+                    hasID = true;
+                    break;
+                case FIELD_ARRIVAL_TIME:
+                    b = read();
+                    int hours = 0;
+                    while (b >= '0' && b <= '9') {
+                        hours = appendDigit(hours, b, MAX_HOURS, "ArrivalTime is too large");
+                        digits++;
+                        b = read();
+                    }
+                    if (digits == 0 || b != ':') {
+                        throw malformed("ArrivalTime is not in HH:MM format");
+                    }
+                    b = read();
+                    int minutes = 0;
+                    digits = 0;
+                    while (b >= '0' && b <= '9') {
+                        minutes = appendDigit(minutes, b, 59, "ArrivalTime is not in HH:MM format");
+                        digits++;
+                        b = read();
+                    }
+                    if (digits == 0) {
+                        throw malformed("ArrivalTime is not in HH:MM format");
+                    }
+                    arrivalTime = hours * 60 + minutes;
+                    hasArrival = true;
+                    break;
+                case FIELD_ORDER:
+                    b = read();
+                    int length = 0;
+                    while (b >= 0 && b != ' ' && b != '\n' && b != '\r') {
+                        if (length == itemBuffer.length) {
+                            throw malformed("Order is longer than any menu item");
+                        }
+                        itemBuffer[length++] = (byte) b;
+                        b = read();
+                    }
+                    orderItemID = findMenuItem(length);
+                    hasOrder = true;
+                    break;
+                case FIELD_PARTY:
+                    b = read();
+                    partySize = 0;
+                    while (b >= '0' && b <= '9') {
+                        partySize = appendDigit(partySize, b, Integer.MAX_VALUE, "Party is too large");
+                        digits++;
+                        b = read();
+                    }
+                    if (digits == 0 || partySize < 1) {
+                        throw malformed("Party must be at least 1");
+                    }
+                    break;
+                case FIELD_RESERVATION:
+                    b = read();
+                    if (b != '0' && b != '1') {
+                        throw malformed("Reservation must be 0 or 1");
+                    }
+                    reserved = b == '1';
+                    b = read();
+                    break;
+                default:
+                    throw malformed("unknown field");
+            }
+            if (b >= 0 && b != ' ' && b != '\r' && b != '\n') {
+                throw malformed("unexpected character after " + new String(FIELD_KEYS[field], StandardCharsets.US_ASCII));
+            }
+            // Skip the separators before the next field
+            while (b == ' ' || b == '\r') {
+                b = read();
+            }
+        }
+        if (!hasID || !hasArrival || !hasOrder) {
+            throw malformed("expected ID, ArrivalTime and Order");
+        }
+        return true;
+    }
+
+    // Getter for the number of chefs (NC)
+    public int getNumChefs() {
+        return config.get("NC");
+    }
+
+    // Getter for the number of waiters (NW)
+    public int getNumWaiters() {
+        return config.get("NW");
+    }
+
+    // Getter for the number of tables (NT)
+    public int getNumTables() {
+        return config.get("NT");
+    }
+
+    // Getter for the seats of tables 1, 2, ... from the header line (null if not given)
+    public int[] getTableSeats() {
+        return tableSeats;
+    }
+
+    // Getter for the menu, with preparation times in minutes
+    public Menu getMenu() {
+        return menu;
+    }
+
+    // Getter for the ID of the current customer
+    public int getCustomerID() {
+        return customerID;
+    }
+
+    // Getter for the arrival time of the current customer, in minutes since midnight
+    public int getArrivalTime() {
+        return arrivalTime;
+    }
+
+    // Getter for the menu item ID of the current customer's order
+    public int getOrderItemID() {
+        return orderItemID;
+    }
+
+    // Getter for the order of the current customer (the shared menu item string)
+    public String getOrderItem() {
+        return menu.getName(orderItemID);
+    }
+
+    // Getter for the number of diners in the current customer's party
+    public int getPartySize() {
+        return partySize;
+    }
+
+    // Getter for whether the current customer has a reservation
+    public boolean hasReservation() {
+        return reserved;
+    }
+
+    /**
+     * Gets the file offset just after the current customer line, so a checkpoint can resume reading there.
+     * @return The offset in bytes.
+     */
+    public long getPosition() {
+        return window == null ? 0 : windowStart + window.position();
+    }
+
+    // Getter for the number of the last line read
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    // Getter for the size of the scenario file in bytes
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    /**
+     * Continues reading customers from a position saved by a checkpoint.
+     * @param position The file offset returned by getPosition().
+     * @param line The line number at that offset.
+     * @throws IOException If the position is outside the file or cannot be mapped.
+     */
+    public void seek(long position, long line) throws IOException {
+        if (position < 0 || position > fileSize) {
+            throw new IOException("Position " + position + " is outside the scenario file");
+        }
+        windowStart = position;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, fileSize - position));
+        lineNumber = line;
+    }
+
+    /**
+     * Writes the size of the file and the offset and line number after the current customer.
+     * @param out The checkpoint stream.
+     * @throws IOException If the stream cannot be written.
+     */
+    public void writePosition(DataOutputStream out) throws IOException {
+        out.writeLong(fileSize);
+        out.writeLong(getPosition());
+        out.writeLong(lineNumber);
+    }
+
+    /**
+     * Continues reading after the customer saved by writePosition.
+     * @param in The checkpoint stream.
+     * @throws IOException If the stream cannot be read or was written for another file.
+     */
+    public void readPosition(DataInputStream in) throws IOException {
+        if (in.readLong() != fileSize) {
+            throw new IOException("Checkpoint was taken with a different scenario file");
+        }
+        seek(in.readLong(), in.readLong());
+    }
+
+    /**
+     * Closes the underlying file channel.
+     * @throws IOException If the channel cannot be closed.
+     */
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Finds the field whose key starts with the given byte.
+     * @param first The first byte of the key.
+     * @return The field, one of the FIELD_ constants.
+     * @throws IOException If no field key starts with that byte.
+     */
+    private int findField(int first) throws IOException {
+        for (int field = 0; field < FIELD_KEYS.length; field++) {
+            if (FIELD_KEYS[field][0] == first) {
+                return field;
+            }
+        }
+        throw malformed("unknown field");
+    }
+
+    /**
+     * Appends a decimal digit to a number being parsed.
+     * @param value The number parsed so far.
+     * @param digit The digit character.
+     * @param limit The largest value the field may take.
+     * @param reason What is wrong with the line if the number goes past the limit.
+     * @return The number with the digit appended.
+     * @throws IOException If the number goes past the limit.
+     */
+    private int appendDigit(int value, int digit, int limit, String reason) throws IOException {
+        int d = digit - '0';
+        if (value > (limit - d) / 10) {
+            throw malformed(reason);
+        }
+        return value * 10 + d;
+    }
+
+    /**
+     * Finds the menu item whose name matches the bytes in the scratch buffer.
+     * @param length The number of bytes in the scratch buffer.
+     * @return The menu item ID.
+     * @throws IOException If no menu item matches.
+     */
+    private int findMenuItem(int length) throws IOException {
+        for (int i = 0; i < menuBytes.length; i++) {
+            byte[] name = menuBytes[i];
+            if (name.length != length) {
+                continue;
+            }
+            int j = 0;
+            while (j < length && name[j] == itemBuffer[j]) {
+                j++;
+            }
+            if (j == length) {
+                return i;
+            }
+        }
+        throw malformed("Order is not on the menu");
+    }
+
+    /**
+     * Reads one line of text; only used for the short header and menu lines.
+     * @return The line without its line terminator.
+     * @throws IOException If the file ends before the line.
+     */
+    private String readLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b = read();
+        if (b < 0) {
+            throw new EOFException("Scenario file ends before the header and menu lines");
+        }
+        while (b >= 0 && b != '\n') {
+            if (b != '\r') {
+                line.append((char) b);
+            }
+            b = read();
+        }
+        lineNumber++;
+        return line.toString();
+    }
+
+    /**
+     * Reads the next byte of the file, mapping the next window when the current one is used up.
+     * @return The byte, or -1 at the end of the file.
+     * @throws IOException If the file cannot be mapped.
+     */
+    private int read() throws IOException {
+        if (window == null || !window.hasRemaining()) {
+            long start = window == null ? 0 : windowStart + window.capacity();
+            if (start >= fileSize) {
+                return -1;
+            }
+            windowStart = start;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, fileSize - start));
+        }
+        return window.get() & 0xFF;
+    }
+
+    /**
+     * Creates an exception describing a malformed customer line.
+     * @param reason What is wrong with the line.
+     * @return The exception to throw.
+     */
+    private IOException malformed(String reason) {
+        return new IOException("Malformed customer on line " + lineNumber + ": " + reason);
+    }
+}
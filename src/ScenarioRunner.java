@@ -0,0 +1,124 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * The ScenarioRunner class runs many independent simulations in parallel in one JVM.
+ * Each scenario gets its own RestaurantSimulation instance and runs as a task on a fork-join pool,
+ * so a whole batch of what-if scenarios pays for JVM startup and warm-up only once.
+ * Usage: java ScenarioRunner [--parallelism=N] [--summary-file=path] [--policies=p1,p2,...] [simulation options] scenario...
+ * Simulation options are the same as for RestaurantSimulation and apply to every scenario;
+ * the runner defaults to the event engine with the trace discarded.
+ * --policies runs every scenario once per scheduling policy, so their throughput and tail latency can be compared.
+ */
+public class ScenarioRunner {
+    // Pool that runs the scenarios
+    private ForkJoinPool pool;
+
+    /**
+     * Constructor to create a runner with a given number of parallel scenarios.
+     * @param parallelism The number of scenarios run at the same time.
+     */
+    public ScenarioRunner(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Submits every scenario to the pool without waiting for them.
+     * @param scenarios The settings of each scenario.
+     * @return One task per scenario, in the same order, completed with its result.
+     */
+    public List<ForkJoinTask<SimulationResult>> submitAll(List<SimulationConfig> scenarios) {
+        ArrayList<ForkJoinTask<SimulationResult>> tasks = new ArrayList<>(scenarios.size());
+        for (SimulationConfig scenario : scenarios) {
+            tasks.add(pool.submit(() -> new RestaurantSimulation(scenario).run()));
+        }
+        return tasks;
+    }
+
+    /**
+     * Runs every scenario and waits for all of them.
+     * @param scenarios The settings of each scenario.
+     * @return The results, in the same order as the scenarios.
+     * @throws ExecutionException If a scenario fails.
+     * @throws InterruptedException If the wait is interrupted.
+     */
+    public List<SimulationResult> runAll(List<SimulationConfig> scenarios) throws ExecutionException, InterruptedException {
+        ArrayList<SimulationResult> results = new ArrayList<>(scenarios.size());
+        for (ForkJoinTask<SimulationResult> task : submitAll(scenarios)) {
+            results.add(task.get());
+        }
+        return results;
+    }
+
+    /**
+     * Stops the pool once the submitted scenarios are done.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        String summaryFile = null;
+        ArrayList<SchedulingPolicy> policies = new ArrayList<>();
+        SimulationConfig base = new SimulationConfig();
+        base.setEngine("event");
+        base.setLogFormat(LogFormat.DISCARD);
+        ArrayList<String> inputFiles = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--parallelism=")) {
+                parallelism = Integer.parseInt(arg.substring("--parallelism=".length()));
+            } else if (arg.startsWith("--summary-file=")) {
+                summaryFile = arg.substring("--summary-file=".length());
+            } else if (arg.startsWith("--policies=")) {
+                for (String name : arg.substring("--policies=".length()).split(",")) {
+                    policies.add(SchedulingPolicy.fromName(name));
+                }
+            } else if (!base.applyOption(arg)) {
+                inputFiles.add(arg);
+            }
+        }
+
+        ArrayList<SimulationConfig> scenarios = new ArrayList<>();
+        if (policies.isEmpty()) {
+            policies.add(base.getSchedulingPolicy());
+        }
+        for (String inputFile : inputFiles) {
+            for (SchedulingPolicy policy : policies) {
+                SimulationConfig scenario = new SimulationConfig(base);
+                scenario.setInputFile(inputFile);
+                scenario.setSchedulingPolicy(policy);
+                scenarios.add(scenario);
+            }
+        }
+
+        long start = System.nanoTime();
+        ScenarioRunner runner = new ScenarioRunner(parallelism);
+        List<ForkJoinTask<SimulationResult>> tasks = runner.submitAll(scenarios);
+        ArrayList<String> json = new ArrayList<>();
+        System.out.println(String.format("%-40s %-9s %5s %5s %5s %10s %10s %12s %12s %10s", "Scenario", "Policy", "NC", "NW", "NT",
+                "Served", "Minutes", "p95 Wait", "p99 Queue", "Per Hour"));
+        for (int i = 0; i < tasks.size(); i++) {
+            try {
+                SimulationResult result = tasks.get(i).get();
+                System.out.println(String.format("%-40s %-9s %5d %5d %5d %10d %10d %12d %12d %10.2f", result.getInputFile(),
+                        result.getSchedulingPolicy(), result.getNumChefs(), result.getNumWaiters(), result.getNumTables(),
+                        result.getCustomersServed(), result.getSimulationTime(), result.getHistogram(Metric.TABLE_WAIT).percentile(95),
+                        result.getHistogram(Metric.QUEUE_WAIT).percentile(99), result.getThroughput()));
+                json.add(result.toJson());
+            } catch (ExecutionException e) {
+                System.out.println("Scenario " + scenarios.get(i).getInputFile() + " (" + scenarios.get(i).getSchedulingPolicy()
+                        + ") failed: " + e.getCause());
+            }
+        }
+        runner.shutdown();
+        System.out.println(String.format("%d scenarios in %.2f seconds", scenarios.size(), (System.nanoTime() - start) / 1e9));
+
+        if (summaryFile != null) {
+            try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(summaryFile)))) {
+                out.println("[\n  " + String.join(",\n  ", json) + "\n]");
+            }
+        }
+    }
+}
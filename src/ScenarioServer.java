@@ -0,0 +1,289 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The ScenarioServer class runs scenario files dropped into a spool directory, back to back in one
+ * long-lived JVM, so a sweep of thousands of short scenarios pays for JVM startup, class loading and
+ * JIT warm-up once instead of once per scenario.
+ * Usage: java ScenarioServer [--spool=dir] [--jobs=N] [--queue=N] [--once] [simulation options]
+ * A scenario is submitted by moving it into the spool directory; write it under a name starting with '.'
+ * or ending with ".tmp" first and rename it, so a half-written file is never picked up. The server claims
+ * a scenario by moving it to running/, runs it with the simulation options given to the server (event engine
+ * and text trace by default), and moves it to done/ with its summary (name.summary.txt and name.json) and
+ * trace (name.trace.txt, name.events.bin or name.trace.bin, after --log) next to it, or to failed/ with
+ * name.error.txt. Scenarios left in running/ by a server that died are run again.
+ * --jobs scenarios run at the same time (default: one per processor) and at most --queue more are claimed
+ * and waiting (default 2 per job); further files stay in the spool until a job finishes.
+ * --once runs the scenarios already in the spool and exits instead of watching for more.
+ */
+public class ScenarioServer {
+    // Suffix of files that are still being written
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    // Suffixes of the files a job writes next to its scenario
+    private static final String[] OUTPUT_SUFFIXES = {".trace.txt", ".events.bin", ".trace.bin", ".summary.txt", ".json", ".error.txt"};
+
+    // Directory watched for new scenarios
+    private final Path spool;
+    // Directories of the scenarios being run, finished and failed
+    private final Path running;
+    private final Path done;
+    private final Path failed;
+    // Settings shared by every job; each job gets a copy with its own input and output files
+    private final SimulationConfig base;
+    // Pool running the jobs
+    private final ExecutorService executor;
+    // Permits for jobs running or waiting in the queue; the spool is not read while none are left
+    private final Semaphore slots;
+    // Number of jobs finished and failed since the server started
+    private final AtomicInteger finishedCount = new AtomicInteger();
+    private final AtomicInteger failedCount = new AtomicInteger();
+
+    /**
+     * Constructor to create a server on a spool directory, creating its subdirectories.
+     * @param spool The directory watched for scenarios.
+     * @param base The simulation settings of every job.
+     * @param jobs The number of jobs run at the same time.
+     * @param queueSize The number of claimed jobs that may wait for a free worker.
+     * @throws IOException If the directories cannot be created.
+     */
+    public ScenarioServer(Path spool, SimulationConfig base, int jobs, int queueSize) throws IOException {
+        this.spool = spool;
+        this.running = Files.createDirectories(spool.resolve("running"));
+        this.done = Files.createDirectories(spool.resolve("done"));
+        this.failed = Files.createDirectories(spool.resolve("failed"));
+        this.base = base;
+        this.executor = Executors.newFixedThreadPool(jobs, runnable -> {
+            Thread thread = new Thread(runnable, "ScenarioServer-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.slots = new Semaphore(jobs + queueSize);
+    }
+
+    /**
+     * Runs the scenarios in the spool, and with watch set keeps watching it for new ones until interrupted.
+     * @param watch True to keep running, false to return once the spool is empty and every job has finished.
+     * @throws IOException If the spool cannot be read.
+     * @throws InterruptedException If the server is interrupted.
+     */
+    public void serve(boolean watch) throws IOException, InterruptedException {
+        // Run again what a previous server claimed but did not finish, dropping its partial outputs
+        for (Path job : listJobs(running)) {
+            if (isOutput(job.getFileName().toString())) {
+                Files.delete(job);
+            } else {
+                Files.move(job, spool.resolve(job.getFileName()), StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+
+        try (WatchService watcher = spool.getFileSystem().newWatchService()) {
+            spool.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            while (true) {
+                boolean claimed = claimAll();
+                if (!watch && !claimed) {
+                    break;
+                }
+                if (watch) {
+                    // Wake up on a new file, or after a while in case the file system does not report events
+                    WatchKey key = watcher.poll(1, TimeUnit.SECONDS);
+                    if (key != null) {
+                        key.pollEvents();
+                        key.reset();
+                    }
+                }
+            }
+        }
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+    }
+
+    /**
+     * Claims and submits every scenario in the spool, oldest name first, waiting for a free slot
+     * whenever the job queue is full.
+     * @return True if at least one scenario was claimed.
+     * @throws IOException If the spool cannot be read.
+     * @throws InterruptedException If the wait for a slot is interrupted.
+     */
+    private boolean claimAll() throws IOException, InterruptedException {
+        boolean claimed = false;
+        for (Path job : listJobs(spool)) {
+            slots.acquire();
+            Path claimedJob = running.resolve(job.getFileName());
+            try {
+                Files.move(job, claimedJob, StandardCopyOption.ATOMIC_MOVE);
+            } catch (NoSuchFileException e) {
+                // Removed or claimed by another server in the meantime
+                slots.release();
+                continue;
+            }
+            claimed = true;
+            executor.execute(() -> {
+                try {
+                    runJob(claimedJob);
+                } finally {
+                    slots.release();
+                }
+            });
+        }
+        return claimed;
+    }
+
+    /**
+     * Lists the files of a directory, skipping hidden files and files still being written.
+     * @param directory The directory.
+     * @return The files, sorted by name.
+     * @throws IOException If the directory cannot be read.
+     */
+    private static List<Path> listJobs(Path directory) throws IOException {
+        ArrayList<Path> jobs = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (Files.isRegularFile(file) && !name.startsWith(".") && !name.endsWith(TEMPORARY_SUFFIX)) {
+                    jobs.add(file);
+                }
+            }
+        }
+        Collections.sort(jobs);
+        return jobs;
+    }
+
+    /**
+     * Checks whether a file in running/ is the output of a job rather than a scenario.
+     * @param name The file name.
+     * @return True if the name ends with the suffix of a job output.
+     */
+    private static boolean isOutput(String name) {
+        for (String suffix : OUTPUT_SUFFIXES) {
+            if (name.endsWith(suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Runs one claimed scenario and moves it with its outputs to done/, or to failed/ with the error.
+     * @param job The scenario file in running/.
+     */
+    private void runJob(Path job) {
+        String name = job.getFileName().toString();
+        SimulationConfig config = new SimulationConfig(base);
+        config.setInputFile(job.toString());
+        ArrayList<Path> outputs = new ArrayList<>();
+        String traceSuffix = traceSuffix(config.getLogFormat());
+        if (traceSuffix != null) {
+            Path trace = running.resolve(name + traceSuffix);
+            config.setLogFile(trace.toString());
+            outputs.add(trace);
+        }
+
+        long start = System.nanoTime();
+        Path target = done;
+        try {
+            SimulationResult result = new RestaurantSimulation(config).run();
+            Path summary = running.resolve(name + ".summary.txt");
+            try (PrintStream out = new PrintStream(new FileOutputStream(summary.toFile()))) {
+                result.printSummary(out);
+            }
+            outputs.add(summary);
+            Path json = running.resolve(name + ".json");
+            result.exportJson(json.toString());
+            outputs.add(json);
+            finishedCount.incrementAndGet();
+            System.out.println(String.format("Finished %s in %.1f ms", name, (System.nanoTime() - start) / 1e6));
+        } catch (Throwable e) {
+            // Errors too (a scenario running out of memory, a stack overflow), so the job never stays in running/
+            target = failed;
+            Path error = running.resolve(name + ".error.txt");
+            try (PrintWriter out = new PrintWriter(new FileWriter(error.toFile()))) {
+                e.printStackTrace(out);
+                outputs.add(error);
+            } catch (IOException writeError) {
+                // Reported below with the original error
+            }
+            failedCount.incrementAndGet();
+            System.out.println("Scenario " + name + " failed: " + e);
+        }
+
+        try {
+            for (Path output : outputs) {
+                if (Files.exists(output)) {
+                    Files.move(output, target.resolve(output.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(job, target.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.out.println("An error occurred while moving the results of " + name + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the suffix of the trace file written next to a scenario.
+     * @param format The log format of the run.
+     * @return The suffix, or null if the trace is discarded.
+     */
+    private static String traceSuffix(LogFormat format) {
+        switch (format) {
+            case TEXT:
+                return ".trace.txt";
+            case BINARY:
+                return ".events.bin";
+            case TRACE:
+                return ".trace.bin";
+            default:
+                return null;
+        }
+    }
+
+    // Getter for the number of jobs finished
+    public int getFinishedCount() {
+        return finishedCount.get();
+    }
+
+    // Getter for the number of jobs failed
+    public int getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * Entry point of the server.
+     * Usage: java ScenarioServer [--spool=dir] [--jobs=N] [--queue=N] [--once] [simulation options]
+     * @param args The command-line arguments.
+     * @throws Exception If the spool directory cannot be created or watched, or the server is interrupted.
+     */
+    public static void main(String[] args) throws Exception {
+        String spool = "spool";
+        int jobs = Runtime.getRuntime().availableProcessors();
+        Integer queueSize = null;
+        boolean watch = true;
+        SimulationConfig base = new SimulationConfig();
+        base.setEngine("event");
+        for (String arg : args) {
+            if (arg.startsWith("--spool=")) {
+                spool = arg.substring("--spool=".length());
+            } else if (arg.startsWith("--jobs=")) {
+                jobs = Integer.parseInt(arg.substring("--jobs=".length()));
+            } else if (arg.startsWith("--queue=")) {
+                queueSize = Integer.parseInt(arg.substring("--queue=".length()));
+            } else if (arg.equals("--once")) {
+                watch = false;
+            } else if (!base.applyOption(arg)) {
+                System.out.println("Unknown option: " + arg);
+                return;
+            }
+        }
+
+        ScenarioServer server = new ScenarioServer(Paths.get(spool), base, jobs, queueSize != null ? queueSize : 2 * jobs);
+        System.out.println((watch ? "Watching " : "Running ") + Paths.get(spool).toAbsolutePath() + " with " + jobs + " jobs");
+        long start = System.nanoTime();
+        server.serve(watch);
+        System.out.println(String.format("%d scenarios finished, %d failed in %.2f seconds", server.getFinishedCount(),
+                server.getFailedCount(), (System.nanoTime() - start) / 1e9));
+    }
+}
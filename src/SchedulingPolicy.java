@@ -0,0 +1,29 @@
+/**
+ * The SchedulingPolicy enum selects the order in which chefs take pending orders.
+ * FIFO serves orders as they were placed. SJF takes the shortest preparation time first, which keeps
+ * the average wait low but can starve long dishes in a busy service. SJF_AGING lets an order's waiting
+ * time count against its preparation time, so long dishes eventually come first. EDF takes the order
+ * whose promised time (seat time plus the item's promise) is earliest, and WFQ shares the kitchen
+ * between the menu items in proportion to their weights.
+ */
+public enum SchedulingPolicy {
+    // First come first served
+    FIFO,
+    // Shortest preparation time first
+    SJF,
+    // Shortest preparation time first, with waiting time credited against the preparation time
+    SJF_AGING,
+    // Earliest deadline first
+    EDF,
+    // Weighted fair queuing between menu items
+    WFQ;
+
+    /**
+     * Parses a scheduling policy from its command-line name.
+     * @param name "fifo", "sjf", "sjf-aging", "edf" or "wfq", in any case.
+     * @return The matching scheduling policy.
+     */
+    public static SchedulingPolicy fromName(String name) {
+        return valueOf(name.toUpperCase().replace('-', '_'));
+    }
+}
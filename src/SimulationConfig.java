@@ -0,0 +1,839 @@
+import java.util.HashMap;
+
+/**
+ * The SimulationConfig class holds the settings of one simulation run: the scenario file,
+ * the engine and threading options, and where the trace and metrics go.
+ * It is filled from command-line options, and can be copied to run the same settings
+ * against several scenario files.
+ */
+public class SimulationConfig {
+    // File name containing simulation configuration and data
+    private String inputFile = "restaurant_simulation_input3";
+    // Engine used to run the simulation ("threads" or "event")
+    private String engine = "threads";
+    // Kind of threads used by the threads engine
+    private ExecutionMode executionMode = ExecutionMode.PLATFORM;
+    // Wait strategy of the cooked meals ring buffer
+    private WaitStrategy mealWaitStrategy = WaitStrategy.PARK;
+    // Capacity of the cooked meals ring buffer
+    private int mealCapacity = CookedMeals.DEFAULT_CAPACITY;
+    // Real milliseconds per simulated minute in the threads engine
+    private long minuteMillis = 1000;
+    // Where the event trace goes
+    private LogFormat logFormat = LogFormat.TEXT;
+    // File the trace is written to (null for standard output, or the default binary file)
+    private String logFile;
+    // File the metrics summary is exported to as JSON (null to skip the export)
+    private String metricsFile;
+    // Seed for the eating durations of either engine (null for a random seed)
+    private Long seed;
+    // Number of chefs, waiters and tables to use instead of the header line (null keeps the header value)
+    private Integer numChefs;
+    private Integer numWaiters;
+    private Integer numTables;
+    // Seats of tables 1, 2, ..., repeated for further tables (null keeps the header's TC, or the default seats)
+    private int[] tableSeats;
+    // Whether a party no single free table fits may be seated at adjacent tables
+    private boolean joinTables;
+    // How often generated customers come in parties of each size (empty for single diners)
+    private HashMap<Integer, Double> partySizeWeights = new HashMap<>();
+    // Minutes from arrival a customer waits for their meal before balking or reneging (null to wait forever)
+    private Integer patience;
+    // Largest number of orders waiting for a chef before nobody else is seated (0 for no bound)
+    private int maxOrders;
+    // Number of free tables held back for parties with a reservation
+    private int reservedTables;
+    // Share of generated customers who have a reservation
+    private double reservationShare;
+    // How orders reach the chefs of the threads engine
+    private KitchenMode kitchenMode = KitchenMode.SHARED;
+    // Order in which chefs take pending orders
+    private SchedulingPolicy schedulingPolicy = SchedulingPolicy.SJF;
+    // Minutes of preparation time credited per minute an order waits, for SJF with aging
+    private double agingRate = 0.5;
+    // Minutes promised between seating and the meal being cooked, for EDF
+    private int promise = 30;
+    // Promises of specific menu items, overriding promise
+    private HashMap<String, Integer> itemPromises = new HashMap<>();
+    // Share of the kitchen of specific menu items for weighted fair queuing (1 for items not listed)
+    private HashMap<String, Double> itemWeights = new HashMap<>();
+    // Whether every waiter serves only their own section of the tables
+    private boolean waiterSections;
+    // Backlog of a waiter's section at which meals go to another section (0 never reroutes)
+    private int sectionRebalance = 4;
+    // Number of identical orders a chef cooks together (1 cooks every order on its own)
+    private int batchSize = 1;
+    // Batch sizes of specific menu items, overriding batchSize
+    private HashMap<String, Integer> itemBatchSizes = new HashMap<>();
+    // Longest time in minutes an order is held back waiting for identical orders to fill its batch
+    private int batchHold;
+    // Extra preparation time in minutes for each portion after the first in a batch
+    private int batchSurcharge;
+    // Simulated time at which the event engine writes a checkpoint (null for none)
+    private Integer checkpointTime;
+    // File the checkpoint is written to
+    private String checkpointFile = "simulation.ckpt";
+    // Checkpoint the event engine resumes from (null to start from the beginning)
+    private String resumeFile;
+    // Metric watched by the stop rule (null for no stop rule)
+    private Metric stopMetric;
+    // Values of the stop metric above this limit count against the budget
+    private int stopLimit;
+    // Number of values allowed above the limit before the event engine stops the run
+    private long stopBudget;
+    // Number of customers to generate instead of reading them from the input file (0 reads the file)
+    private int generateCount;
+    // Peak arrival rate of generated customers, in customers per minute
+    private double arrivalRate = 1.0;
+    // How the arrival rate of generated customers changes over the day
+    private ArrivalShape arrivalShape = ArrivalShape.FLAT;
+    // Whether generated customers pick menu items by Zipf's law in menu order instead of uniformly
+    private boolean zipfPopularity;
+    // Popularity of specific menu items, overriding the distribution
+    private HashMap<String, Double> itemPopularity = new HashMap<>();
+    // Time the generated workload starts, in minutes since midnight
+    private int generateStart = 12 * 60;
+    // Seed of the workload generator (null uses the seed of the run)
+    private Long workloadSeed;
+    // File the generated workload is written to instead of being simulated (null to simulate it)
+    private String generateFile;
+    // Whether the live gauges are registered as a JMX MBean
+    private boolean monitor;
+    // Loopback port of the plain-text gauge endpoint (null for no endpoint, 0 for any free port)
+    private Integer monitorPort;
+
+    /**
+     * Constructor to create a configuration with the default settings.
+     */
+    public SimulationConfig() {
+    }
+
+    /**
+     * Constructor to copy another configuration.
+     * @param other The configuration to copy.
+     */
+    public SimulationConfig(SimulationConfig other) {
+        this.inputFile = other.inputFile;
+        this.engine = other.engine;
+        this.executionMode = other.executionMode;
+        this.mealWaitStrategy = other.mealWaitStrategy;
+        this.mealCapacity = other.mealCapacity;
+        this.minuteMillis = other.minuteMillis;
+        this.logFormat = other.logFormat;
+        this.logFile = other.logFile;
+        this.metricsFile = other.metricsFile;
+        this.seed = other.seed;
+        this.numChefs = other.numChefs;
+        this.numWaiters = other.numWaiters;
+        this.numTables = other.numTables;
+        this.tableSeats = other.tableSeats;
+        this.joinTables = other.joinTables;
+        this.partySizeWeights = new HashMap<>(other.partySizeWeights);
+        this.patience = other.patience;
+        this.maxOrders = other.maxOrders;
+        this.reservedTables = other.reservedTables;
+        this.reservationShare = other.reservationShare;
+        this.kitchenMode = other.kitchenMode;
+        this.schedulingPolicy = other.schedulingPolicy;
+        this.agingRate = other.agingRate;
+        this.promise = other.promise;
+        this.itemPromises = new HashMap<>(other.itemPromises);
+        this.itemWeights = new HashMap<>(other.itemWeights);
+        this.waiterSections = other.waiterSections;
+        this.sectionRebalance = other.sectionRebalance;
+        this.batchSize = other.batchSize;
+        this.itemBatchSizes = new HashMap<>(other.itemBatchSizes);
+        this.batchHold = other.batchHold;
+        this.batchSurcharge = other.batchSurcharge;
+        this.checkpointTime = other.checkpointTime;
+        this.checkpointFile = other.checkpointFile;
+        this.resumeFile = other.resumeFile;
+        this.stopMetric = other.stopMetric;
+        this.stopLimit = other.stopLimit;
+        this.stopBudget = other.stopBudget;
+        this.generateCount = other.generateCount;
+        this.arrivalRate = other.arrivalRate;
+        this.arrivalShape = other.arrivalShape;
+        this.zipfPopularity = other.zipfPopularity;
+        this.itemPopularity = new HashMap<>(other.itemPopularity);
+        this.generateStart = other.generateStart;
+        this.workloadSeed = other.workloadSeed;
+        this.generateFile = other.generateFile;
+        this.monitor = other.monitor;
+        this.monitorPort = other.monitorPort;
+    }
+
+    /**
+     * Creates a configuration from command-line arguments.
+     * Any argument that is not an option is taken as the input file.
+     * @param args The command-line arguments.
+     * @return The configuration.
+     */
+    public static SimulationConfig fromArgs(String[] args) {
+        SimulationConfig config = new SimulationConfig();
+        for (String arg : args) {
+            if (!config.applyOption(arg)) {
+                config.inputFile = arg;
+            }
+        }
+        return config;
+    }
+
+    /**
+     * Applies a single "--name=value" or "--name" command-line option.
+     * @param arg The command-line argument.
+     * @return True if the argument was a known option, false otherwise.
+     */
+    public boolean applyOption(String arg) {
+        if (arg.startsWith("--engine=")) {
+            engine = arg.substring("--engine=".length());
+        } else if (arg.startsWith("--threads=")) {
+            executionMode = ExecutionMode.fromName(arg.substring("--threads=".length()));
+        } else if (arg.startsWith("--meal-wait=")) {
+            mealWaitStrategy = WaitStrategy.fromName(arg.substring("--meal-wait=".length()));
+        } else if (arg.startsWith("--meal-capacity=")) {
+            mealCapacity = Integer.parseInt(arg.substring("--meal-capacity=".length()));
+        } else if (arg.startsWith("--minute-ms=")) {
+            minuteMillis = Long.parseLong(arg.substring("--minute-ms=".length()));
+        } else if (arg.startsWith("--log=")) {
+            logFormat = LogFormat.fromName(arg.substring("--log=".length()));
+        } else if (arg.startsWith("--log-file=")) {
+            logFile = arg.substring("--log-file=".length());
+        } else if (arg.startsWith("--metrics-file=")) {
+            metricsFile = arg.substring("--metrics-file=".length());
+        } else if (arg.startsWith("--seed=")) {
+            seed = Long.parseLong(arg.substring("--seed=".length()));
+        } else if (arg.startsWith("--chefs=")) {
+            numChefs = Integer.parseInt(arg.substring("--chefs=".length()));
+        } else if (arg.startsWith("--waiters=")) {
+            numWaiters = Integer.parseInt(arg.substring("--waiters=".length()));
+        } else if (arg.startsWith("--tables=")) {
+            numTables = Integer.parseInt(arg.substring("--tables=".length()));
+        } else if (arg.startsWith("--table-seats=")) {
+            // Seats per table like "2,2,4,8", repeated if there are more tables
+            String[] counts = arg.substring("--table-seats=".length()).split(",");
+            tableSeats = new int[counts.length];
+            for (int i = 0; i < counts.length; i++) {
+                tableSeats[i] = Integer.parseInt(counts[i]);
+            }
+        } else if (arg.equals("--join-tables")) {
+            joinTables = true;
+        } else if (arg.startsWith("--party-sizes=")) {
+            // Party sizes and their weights like "1:2,2:5,4:3"; a size without a weight has weight 1
+            for (String part : arg.substring("--party-sizes=".length()).split(",")) {
+                String[] sizeAndWeight = part.split(":");
+                partySizeWeights.put(Integer.parseInt(sizeAndWeight[0]),
+                        sizeAndWeight.length == 1 ? 1.0 : Double.parseDouble(sizeAndWeight[1]));
+            }
+        } else if (arg.startsWith("--patience=")) {
+            patience = Integer.parseInt(arg.substring("--patience=".length()));
+        } else if (arg.startsWith("--max-orders=")) {
+            maxOrders = Integer.parseInt(arg.substring("--max-orders=".length()));
+        } else if (arg.startsWith("--reserved-tables=")) {
+            reservedTables = Integer.parseInt(arg.substring("--reserved-tables=".length()));
+        } else if (arg.startsWith("--reservation-share=")) {
+            reservationShare = Double.parseDouble(arg.substring("--reservation-share=".length()));
+        } else if (arg.startsWith("--kitchen=")) {
+            kitchenMode = KitchenMode.fromName(arg.substring("--kitchen=".length()));
+        } else if (arg.startsWith("--policy=")) {
+            schedulingPolicy = SchedulingPolicy.fromName(arg.substring("--policy=".length()));
+        } else if (arg.startsWith("--aging-rate=")) {
+            agingRate = Double.parseDouble(arg.substring("--aging-rate=".length()));
+        } else if (arg.startsWith("--promise=")) {
+            // Either a default promise, item promises like "Steak:45", or both separated by commas
+            for (String part : arg.substring("--promise=".length()).split(",")) {
+                String[] itemAndPromise = part.split(":");
+                if (itemAndPromise.length == 1) {
+                    promise = Integer.parseInt(itemAndPromise[0]);
+                } else {
+                    itemPromises.put(itemAndPromise[0], Integer.parseInt(itemAndPromise[1]));
+                }
+            }
+        } else if (arg.startsWith("--weight=")) {
+            // Item weights like "Burger:2,Steak:0.5"
+            for (String part : arg.substring("--weight=".length()).split(",")) {
+                String[] itemAndWeight = part.split(":");
+                itemWeights.put(itemAndWeight[0], Double.parseDouble(itemAndWeight[1]));
+            }
+        } else if (arg.startsWith("--checkpoint-at=")) {
+            checkpointTime = RestaurantSimulation.timeToMinutes(arg.substring("--checkpoint-at=".length()));
+        } else if (arg.startsWith("--checkpoint-file=")) {
+            checkpointFile = arg.substring("--checkpoint-file=".length());
+        } else if (arg.startsWith("--resume=")) {
+            resumeFile = arg.substring("--resume=".length());
+        } else if (arg.equals("--waiter-sections")) {
+            waiterSections = true;
+        } else if (arg.startsWith("--section-rebalance=")) {
+            sectionRebalance = Integer.parseInt(arg.substring("--section-rebalance=".length()));
+        } else if (arg.startsWith("--batch-size=")) {
+            // Either a default size, item sizes like "Burger:6", or both separated by commas
+            for (String part : arg.substring("--batch-size=".length()).split(",")) {
+                String[] itemAndSize = part.split(":");
+                if (itemAndSize.length == 1) {
+                    batchSize = Integer.parseInt(itemAndSize[0]);
+                } else {
+                    itemBatchSizes.put(itemAndSize[0], Integer.parseInt(itemAndSize[1]));
+                }
+            }
+        } else if (arg.startsWith("--generate=")) {
+            generateCount = Integer.parseInt(arg.substring("--generate=".length()));
+        } else if (arg.startsWith("--arrival-rate=")) {
+            arrivalRate = Double.parseDouble(arg.substring("--arrival-rate=".length()));
+        } else if (arg.startsWith("--arrival-shape=")) {
+            arrivalShape = ArrivalShape.fromName(arg.substring("--arrival-shape=".length()));
+        } else if (arg.startsWith("--popularity=")) {
+            // Either "uniform" or "zipf", item popularities like "Burger:3", or both separated by commas
+            for (String part : arg.substring("--popularity=".length()).split(",")) {
+                String[] itemAndWeight = part.split(":");
+                if (itemAndWeight.length == 1) {
+                    zipfPopularity = itemAndWeight[0].equalsIgnoreCase("zipf");
+                } else {
+                    itemPopularity.put(itemAndWeight[0], Double.parseDouble(itemAndWeight[1]));
+                }
+            }
+        } else if (arg.startsWith("--generate-start=")) {
+            generateStart = RestaurantSimulation.timeToMinutes(arg.substring("--generate-start=".length()));
+        } else if (arg.startsWith("--workload-seed=")) {
+            workloadSeed = Long.parseLong(arg.substring("--workload-seed=".length()));
+        } else if (arg.startsWith("--generate-file=")) {
+            generateFile = arg.substring("--generate-file=".length());
+        } else if (arg.equals("--monitor")) {
+            monitor = true;
+        } else if (arg.startsWith("--monitor-port=")) {
+            monitorPort = Integer.parseInt(arg.substring("--monitor-port=".length()));
+        } else if (arg.startsWith("--batch-hold=")) {
+            batchHold = Integer.parseInt(arg.substring("--batch-hold=".length()));
+        } else if (arg.startsWith("--batch-surcharge=")) {
+            batchSurcharge = Integer.parseInt(arg.substring("--batch-surcharge=".length()));
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Sets the staffing to use instead of the header line of the input file.
+     * @param numChefs The number of chefs.
+     * @param numWaiters The number of waiters.
+     * @param numTables The number of tables.
+     */
+    public void setStaffing(int numChefs, int numWaiters, int numTables) {
+        this.numChefs = numChefs;
+        this.numWaiters = numWaiters;
+        this.numTables = numTables;
+    }
+
+    /**
+     * Gets how many identical orders of a menu item a chef cooks together.
+     * @param item The menu item name.
+     * @return The batch size, 1 if the item is not batched.
+     */
+    public int getBatchSize(String item) {
+        return Math.max(1, itemBatchSizes.getOrDefault(item, batchSize));
+    }
+
+    /**
+     * Sets how many identical orders a chef cooks together.
+     * @param item The menu item name, or null to set the size of every item without its own size.
+     * @param size The batch size.
+     */
+    public void setBatchSize(String item, int size) {
+        if (item == null) {
+            batchSize = size;
+        } else {
+            itemBatchSizes.put(item, size);
+        }
+    }
+
+    /**
+     * Gets the minutes promised between seating and the meal being cooked, used by EDF.
+     * @param item The menu item name.
+     * @return The promise in minutes.
+     */
+    public int getPromise(String item) {
+        return itemPromises.getOrDefault(item, promise);
+    }
+
+    /**
+     * Sets the minutes promised between seating and the meal being cooked.
+     * @param item The menu item name, or null to set the promise of every item without its own promise.
+     * @param minutes The promise in minutes.
+     */
+    public void setPromise(String item, int minutes) {
+        if (item == null) {
+            promise = minutes;
+        } else {
+            itemPromises.put(item, minutes);
+        }
+    }
+
+    /**
+     * Gets the share of the kitchen of a menu item, used by weighted fair queuing.
+     * @param item The menu item name.
+     * @return The weight, 1 if the item has no weight of its own.
+     */
+    public double getWeight(String item) {
+        double weight = itemWeights.getOrDefault(item, 1.0);
+        return weight > 0 ? weight : 1.0;
+    }
+
+    /**
+     * Sets the share of the kitchen of a menu item.
+     * @param item The menu item name.
+     * @param weight The weight relative to the other items.
+     */
+    public void setWeight(String item, double weight) {
+        itemWeights.put(item, weight);
+    }
+
+    /**
+     * Gets how often generated customers order a menu item, relative to the other items.
+     * @param item The menu item name.
+     * @param itemID The position of the item on the menu, from 0.
+     * @return The item's own popularity if it has one, otherwise 1, or 1 / (itemID + 1) with Zipf popularity.
+     */
+    public double getPopularity(String item, int itemID) {
+        Double weight = itemPopularity.get(item);
+        if (weight != null) {
+            return Math.max(0, weight);
+        }
+        return zipfPopularity ? 1.0 / (itemID + 1) : 1.0;
+    }
+
+    /**
+     * Sets how often generated customers order a menu item, relative to the other items.
+     * @param item The menu item name.
+     * @param weight The popularity; 0 never orders the item.
+     */
+    public void setPopularity(String item, double weight) {
+        itemPopularity.put(item, weight);
+    }
+
+    /**
+     * Gets the party sizes generated customers come in.
+     * @return The sizes, ascending; empty if every generated customer is a single diner.
+     */
+    public int[] getPartySizes() {
+        return partySizeWeights.keySet().stream().mapToInt(Integer::intValue).filter(size -> size >= 1).sorted().toArray();
+    }
+
+    /**
+     * Gets how often generated customers come in a party of a given size, relative to the other sizes.
+     * @param size The party size.
+     * @return The weight, 0 if the size is not generated.
+     */
+    public double getPartySizeWeight(int size) {
+        return Math.max(0, partySizeWeights.getOrDefault(size, 0.0));
+    }
+
+    /**
+     * Sets how often generated customers come in a party of a given size, relative to the other sizes.
+     * @param size The party size.
+     * @param weight The weight; 0 never generates the size.
+     */
+    public void setPartySizeWeight(int size, double weight) {
+        partySizeWeights.put(size, weight);
+    }
+
+    /**
+     * Sets a rule that stops the event engine once a run can no longer meet a target,
+     * for example once more customers have waited over 5 minutes for a table than a p95 target allows.
+     * The stopped run reports what was recorded up to that point.
+     * @param metric The metric to watch.
+     * @param limit Values above this limit count against the budget.
+     * @param budget The number of values allowed above the limit.
+     */
+    public void setStopRule(Metric metric, int limit, long budget) {
+        this.stopMetric = metric;
+        this.stopLimit = limit;
+        this.stopBudget = budget;
+    }
+
+    /**
+     * Checks whether the discrete-event engine is selected.
+     * @return True for the event engine, false for the threads engine.
+     */
+    public boolean isEventEngine() {
+        return engine.equals("event");
+    }
+
+    // Getter for the input file
+    public String getInputFile() {
+        return inputFile;
+    }
+
+    // Setter for the input file
+    public void setInputFile(String inputFile) {
+        this.inputFile = inputFile;
+    }
+
+    // Getter for the engine
+    public String getEngine() {
+        return engine;
+    }
+
+    // Setter for the engine
+    public void setEngine(String engine) {
+        this.engine = engine;
+    }
+
+    // Getter for the execution mode
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    // Setter for the execution mode
+    public void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+    }
+
+    // Getter for the meal wait strategy
+    public WaitStrategy getMealWaitStrategy() {
+        return mealWaitStrategy;
+    }
+
+    // Setter for the meal wait strategy
+    public void setMealWaitStrategy(WaitStrategy mealWaitStrategy) {
+        this.mealWaitStrategy = mealWaitStrategy;
+    }
+
+    // Getter for the meal capacity
+    public int getMealCapacity() {
+        return mealCapacity;
+    }
+
+    // Setter for the meal capacity
+    public void setMealCapacity(int mealCapacity) {
+        this.mealCapacity = mealCapacity;
+    }
+
+    // Getter for the real milliseconds per simulated minute
+    public long getMinuteMillis() {
+        return minuteMillis;
+    }
+
+    // Setter for the real milliseconds per simulated minute
+    public void setMinuteMillis(long minuteMillis) {
+        this.minuteMillis = minuteMillis;
+    }
+
+    // Getter for the log format
+    public LogFormat getLogFormat() {
+        return logFormat;
+    }
+
+    // Setter for the log format
+    public void setLogFormat(LogFormat logFormat) {
+        this.logFormat = logFormat;
+    }
+
+    // Getter for the log file
+    public String getLogFile() {
+        return logFile;
+    }
+
+    // Setter for the log file
+    public void setLogFile(String logFile) {
+        this.logFile = logFile;
+    }
+
+    // Getter for the metrics file
+    public String getMetricsFile() {
+        return metricsFile;
+    }
+
+    // Setter for the metrics file
+    public void setMetricsFile(String metricsFile) {
+        this.metricsFile = metricsFile;
+    }
+
+    // Getter for the seed
+    public Long getSeed() {
+        return seed;
+    }
+
+    // Setter for the seed
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    // Getter for the number of chefs (null keeps the header value)
+    public Integer getNumChefs() {
+        return numChefs;
+    }
+
+    // Getter for the number of waiters (null keeps the header value)
+    public Integer getNumWaiters() {
+        return numWaiters;
+    }
+
+    // Getter for the number of tables (null keeps the header value)
+    public Integer getNumTables() {
+        return numTables;
+    }
+
+    // Getter for the seats of tables 1, 2, ... (null keeps the header value)
+    public int[] getTableSeats() {
+        return tableSeats;
+    }
+
+    // Setter for the seats of tables 1, 2, ..., repeated for further tables (null keeps the header value)
+    public void setTableSeats(int[] tableSeats) {
+        this.tableSeats = tableSeats;
+    }
+
+    // Getter for whether parties may be seated at adjacent tables
+    public boolean isJoinTables() {
+        return joinTables;
+    }
+
+    // Setter for whether parties may be seated at adjacent tables
+    public void setJoinTables(boolean joinTables) {
+        this.joinTables = joinTables;
+    }
+
+    // Getter for the patience in minutes (null if customers wait forever)
+    public Integer getPatience() {
+        return patience;
+    }
+
+    // Setter for the patience in minutes (null if customers wait forever)
+    public void setPatience(Integer patience) {
+        this.patience = patience;
+    }
+
+    // Getter for the bound on orders waiting for a chef (0 for no bound)
+    public int getMaxOrders() {
+        return maxOrders;
+    }
+
+    // Setter for the bound on orders waiting for a chef (0 for no bound)
+    public void setMaxOrders(int maxOrders) {
+        this.maxOrders = maxOrders;
+    }
+
+    // Getter for the number of tables held back for reservations
+    public int getReservedTables() {
+        return reservedTables;
+    }
+
+    // Setter for the number of tables held back for reservations
+    public void setReservedTables(int reservedTables) {
+        this.reservedTables = reservedTables;
+    }
+
+    // Getter for the share of generated customers with a reservation
+    public double getReservationShare() {
+        return reservationShare;
+    }
+
+    // Setter for the share of generated customers with a reservation
+    public void setReservationShare(double reservationShare) {
+        this.reservationShare = reservationShare;
+    }
+
+    // Getter for the kitchen mode
+    public KitchenMode getKitchenMode() {
+        return kitchenMode;
+    }
+
+    // Setter for the kitchen mode
+    public void setKitchenMode(KitchenMode kitchenMode) {
+        this.kitchenMode = kitchenMode;
+    }
+
+    // Getter for the scheduling policy
+    public SchedulingPolicy getSchedulingPolicy() {
+        return schedulingPolicy;
+    }
+
+    // Setter for the scheduling policy
+    public void setSchedulingPolicy(SchedulingPolicy schedulingPolicy) {
+        this.schedulingPolicy = schedulingPolicy;
+    }
+
+    // Getter for the aging rate, in minutes of preparation time per minute waited
+    public double getAgingRate() {
+        return agingRate;
+    }
+
+    // Setter for the aging rate, in minutes of preparation time per minute waited
+    public void setAgingRate(double agingRate) {
+        this.agingRate = agingRate;
+    }
+
+    // Getter for whether waiters serve sections of the tables
+    public boolean isWaiterSections() {
+        return waiterSections;
+    }
+
+    // Setter for whether waiters serve sections of the tables
+    public void setWaiterSections(boolean waiterSections) {
+        this.waiterSections = waiterSections;
+    }
+
+    // Getter for the section backlog at which meals are rerouted
+    public int getSectionRebalance() {
+        return sectionRebalance;
+    }
+
+    // Setter for the section backlog at which meals are rerouted
+    public void setSectionRebalance(int sectionRebalance) {
+        this.sectionRebalance = sectionRebalance;
+    }
+
+    // Getter for the longest time an order is held for its batch, in minutes
+    public int getBatchHold() {
+        return batchHold;
+    }
+
+    // Setter for the longest time an order is held for its batch, in minutes
+    public void setBatchHold(int batchHold) {
+        this.batchHold = batchHold;
+    }
+
+    // Getter for the extra preparation time per additional portion, in minutes
+    public int getBatchSurcharge() {
+        return batchSurcharge;
+    }
+
+    // Setter for the extra preparation time per additional portion, in minutes
+    public void setBatchSurcharge(int batchSurcharge) {
+        this.batchSurcharge = batchSurcharge;
+    }
+
+    // Getter for the checkpoint time (null for none)
+    public Integer getCheckpointTime() {
+        return checkpointTime;
+    }
+
+    // Setter for the checkpoint time (null for none)
+    public void setCheckpointTime(Integer checkpointTime) {
+        this.checkpointTime = checkpointTime;
+    }
+
+    // Getter for the checkpoint file
+    public String getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    // Setter for the checkpoint file
+    public void setCheckpointFile(String checkpointFile) {
+        this.checkpointFile = checkpointFile;
+    }
+
+    // Getter for the checkpoint to resume from (null to start from the beginning)
+    public String getResumeFile() {
+        return resumeFile;
+    }
+
+    // Setter for the checkpoint to resume from (null to start from the beginning)
+    public void setResumeFile(String resumeFile) {
+        this.resumeFile = resumeFile;
+    }
+
+    // Getter for the stop metric
+    public Metric getStopMetric() {
+        return stopMetric;
+    }
+
+    // Getter for the stop limit
+    public int getStopLimit() {
+        return stopLimit;
+    }
+
+    // Getter for the stop budget
+    public long getStopBudget() {
+        return stopBudget;
+    }
+
+    // Getter for the number of customers to generate (0 reads them from the input file)
+    public int getGenerateCount() {
+        return generateCount;
+    }
+
+    // Setter for the number of customers to generate (0 reads them from the input file)
+    public void setGenerateCount(int generateCount) {
+        this.generateCount = generateCount;
+    }
+
+    // Getter for the peak arrival rate, in customers per minute
+    public double getArrivalRate() {
+        return arrivalRate;
+    }
+
+    // Setter for the peak arrival rate, in customers per minute
+    public void setArrivalRate(double arrivalRate) {
+        this.arrivalRate = arrivalRate;
+    }
+
+    // Getter for the shape of the arrival rate over the day
+    public ArrivalShape getArrivalShape() {
+        return arrivalShape;
+    }
+
+    // Setter for the shape of the arrival rate over the day
+    public void setArrivalShape(ArrivalShape arrivalShape) {
+        this.arrivalShape = arrivalShape;
+    }
+
+    // Getter for whether menu items are picked by Zipf's law
+    public boolean isZipfPopularity() {
+        return zipfPopularity;
+    }
+
+    // Setter for whether menu items are picked by Zipf's law
+    public void setZipfPopularity(boolean zipfPopularity) {
+        this.zipfPopularity = zipfPopularity;
+    }
+
+    // Getter for the start time of the generated workload, in minutes since midnight
+    public int getGenerateStart() {
+        return generateStart;
+    }
+
+    // Setter for the start time of the generated workload, in minutes since midnight
+    public void setGenerateStart(int generateStart) {
+        this.generateStart = generateStart;
+    }
+
+    // Getter for the seed of the workload generator (null uses the seed of the run)
+    public Long getWorkloadSeed() {
+        return workloadSeed;
+    }
+
+    // Setter for the seed of the workload generator (null uses the seed of the run)
+    public void setWorkloadSeed(Long workloadSeed) {
+        this.workloadSeed = workloadSeed;
+    }
+
+    // Getter for the file the generated workload is written to (null to simulate it)
+    public String getGenerateFile() {
+        return generateFile;
+    }
+
+    // Setter for the file the generated workload is written to (null to simulate it)
+    public void setGenerateFile(String generateFile) {
+        this.generateFile = generateFile;
+    }
+
+    // Getter for whether the live gauges are registered as a JMX MBean
+    public boolean isMonitor() {
+        return monitor;
+    }
+
+    // Setter for whether the live gauges are registered as a JMX MBean
+    public void setMonitor(boolean monitor) {
+        this.monitor = monitor;
+    }
+
+    // Getter for the loopback port of the gauge endpoint (null for no endpoint)
+    public Integer getMonitorPort() {
+        return monitorPort;
+    }
+
+    // Setter for the loopback port of the gauge endpoint (null for no endpoint)
+    public void setMonitorPort(Integer monitorPort) {
+        this.monitorPort = monitorPort;
+    }
+}
@@ -0,0 +1,190 @@
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The SimulationMonitor class makes the gauges of a running simulation visible while it runs.
+ * Every simulation has a monitor from the moment its engine starts until it ends; the gauges are only
+ * read when someone asks, so an unwatched monitor costs nothing per event.
+ * With --monitor the monitor is registered as a JMX MBean named "RestaurantSimulation:type=Simulation,name=N",
+ * and with --monitor-port=N a plain-text endpoint on the loopback address lists the gauges of every
+ * running simulation, one "simulation gauge value" line each, for curl or a scraper.
+ * The periodic Flight Recorder event of FlightEvents samples the same monitors.
+ */
+public class SimulationMonitor implements SimulationMonitorMBean {
+    // Monitors of the simulations currently running in this JVM
+    private static final List<SimulationMonitor> monitors = new CopyOnWriteArrayList<>();
+    // Number used to name the next monitor
+    private static final AtomicInteger nextNumber = new AtomicInteger(1);
+    // Loopback HTTP endpoint (null until started)
+    private static HttpServer server;
+
+    // Simulation whose gauges are shown
+    private final RestaurantSimulation simulation;
+    // Name of the monitor, unique in the JVM
+    private final String name;
+    // JMX name of the monitor (null if not registered)
+    private ObjectName objectName;
+
+    /**
+     * Constructor to create the monitor of a simulation.
+     * @param simulation The simulation whose gauges are shown.
+     */
+    public SimulationMonitor(RestaurantSimulation simulation) {
+        this.simulation = simulation;
+        this.name = nextNumber.getAndIncrement() + ":" + simulation.getConfig().getInputFile();
+    }
+
+    /**
+     * Makes the monitor visible to the periodic Flight Recorder event and the HTTP endpoint,
+     * and registers it with the platform MBean server if JMX is asked for.
+     * @param jmx True to register the monitor as an MBean.
+     */
+    public void open(boolean jmx) {
+        monitors.add(this);
+        if (jmx) {
+            try {
+                objectName = new ObjectName("RestaurantSimulation:type=Simulation,name=" + ObjectName.quote(name));
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            } catch (JMException e) {
+                System.out.println("The simulation monitor could not be registered: " + e.getMessage());
+                objectName = null;
+            }
+        }
+    }
+
+    /**
+     * Removes the monitor once its simulation has ended.
+     */
+    public void close() {
+        monitors.remove(this);
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                // Already unregistered
+            }
+            objectName = null;
+        }
+    }
+
+    /**
+     * Starts the plain-text endpoint on the loopback address, once per JVM.
+     * @param port The TCP port, or 0 for any free port.
+     * @return The port the endpoint listens on.
+     * @throws IOException If the port cannot be opened.
+     */
+    public static synchronized int startHttp(int port) throws IOException {
+        if (server == null) {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            server.createContext("/", exchange -> {
+                byte[] body = render().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            // The server's dispatcher thread inherits the daemon flag of the thread starting it,
+            // so an open endpoint does not keep the JVM alive after the last simulation
+            Thread thread = new Thread(server::start, "Monitor-http");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Lists the gauges of every running simulation, one line per gauge.
+     * @return The text served by the endpoint.
+     */
+    public static String render() {
+        StringBuilder text = new StringBuilder();
+        for (SimulationMonitor monitor : monitors) {
+            for (Gauge gauge : Gauge.values()) {
+                text.append(monitor.name).append(' ').append(gauge.name().toLowerCase()).append(' ')
+                        .append(monitor.read(gauge)).append('\n');
+            }
+        }
+        return text.toString();
+    }
+
+    // Getter for the monitors of the running simulations
+    public static List<SimulationMonitor> getMonitors() {
+        return monitors;
+    }
+
+    /**
+     * Reads a gauge of the simulation.
+     * @param gauge The gauge.
+     * @return Its current value.
+     */
+    public long read(Gauge gauge) {
+        return simulation.readGauge(gauge);
+    }
+
+    // Getter for the name of the monitor
+    public String getName() {
+        return name;
+    }
+
+    // Getter for the current simulated time, in "HH:MM" format
+    public String getSimulatedTime() {
+        return RestaurantSimulation.minutesToTime((int) read(Gauge.SIMULATED_TIME));
+    }
+
+    // Getter for the number of customers who have finished their visit
+    public long getCustomersServed() {
+        return read(Gauge.CUSTOMERS_SERVED);
+    }
+
+    // Getter for the number of customers who left without being served
+    public long getCustomersLost() {
+        return read(Gauge.CUSTOMERS_LOST);
+    }
+
+    // Getter for the number of customers waiting for a table
+    public long getWaitingForTable() {
+        return read(Gauge.WAITING_FOR_TABLE);
+    }
+
+    // Getter for the number of free tables
+    public long getFreeTables() {
+        return read(Gauge.FREE_TABLES);
+    }
+
+    // Getter for the number of orders no chef has started
+    public long getOrdersWaiting() {
+        return read(Gauge.ORDERS_WAITING);
+    }
+
+    // Getter for the number of cooked meals no waiter has served
+    public long getMealsWaiting() {
+        return read(Gauge.MEALS_WAITING);
+    }
+
+    // Getter for the number of chefs preparing an order
+    public long getBusyChefs() {
+        return read(Gauge.BUSY_CHEFS);
+    }
+
+    // Getter for the share of chefs preparing an order, from 0 to 1
+    public double getChefUtilization() {
+        return (double) read(Gauge.BUSY_CHEFS) / Math.max(1, simulation.getNumChefs());
+    }
+
+    // Getter for the number of meals each waiter has served, indexed by waiter ID - 1
+    public long[] getWaiterServed() {
+        return simulation.getWaiterServed();
+    }
+}
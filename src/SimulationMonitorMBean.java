@@ -0,0 +1,38 @@
+/**
+ * The SimulationMonitorMBean interface is the JMX view of a running simulation, as shown by
+ * JConsole or VisualVM under the "RestaurantSimulation" domain. See SimulationMonitor.
+ */
+public interface SimulationMonitorMBean {
+    // Getter for the scenario the simulation runs
+    String getName();
+
+    // Getter for the current simulated time, in "HH:MM" format
+    String getSimulatedTime();
+
+    // Getter for the number of customers who have finished their visit
+    long getCustomersServed();
+
+    // Getter for the number of customers who left without being served
+    long getCustomersLost();
+
+    // Getter for the number of customers waiting for a table
+    long getWaitingForTable();
+
+    // Getter for the number of free tables
+    long getFreeTables();
+
+    // Getter for the number of orders no chef has started
+    long getOrdersWaiting();
+
+    // Getter for the number of cooked meals no waiter has served
+    long getMealsWaiting();
+
+    // Getter for the number of chefs preparing an order
+    long getBusyChefs();
+
+    // Getter for the share of chefs preparing an order, from 0 to 1
+    double getChefUtilization();
+
+    // Getter for the number of meals each waiter has served, indexed by waiter ID - 1
+    long[] getWaiterServed();
+}
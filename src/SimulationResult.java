@@ -0,0 +1,440 @@
+import java.io.*;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The SimulationResult class holds the outcome of one simulation run:
+ * the staffing it ran with, how many customers were served, how long the simulation took,
+ * and a histogram of every Metric. It can print the usual summary or export it as JSON.
+ */
+public class SimulationResult {
+    // Scenario file the simulation ran
+    private String inputFile;
+    // Number of chefs, waiters and tables
+    private int numChefs;
+    private int numWaiters;
+    private int numTables;
+    // Total number of customers served during the simulation
+    private int customersServed;
+    // Total duration of the simulation in minutes
+    private int simulationTime;
+    // One histogram per metric, indexed by ordinal
+    private LatencyHistogram[] histograms;
+    // Whether the run was stopped by its stop rule before every customer left
+    private boolean stoppedEarly;
+    // Order in which the chefs took pending orders
+    private SchedulingPolicy schedulingPolicy = SchedulingPolicy.SJF;
+    // Minutes each chef spent cooking, portions each chef cooked and orders each chef stole, indexed by chef ID - 1
+    private long[] chefBusyMinutes = new long[0];
+    private long[] chefPortions = new long[0];
+    private long[] chefStolen = new long[0];
+    // Meals each waiter served and how many came from another waiter's section, indexed by waiter ID - 1
+    private long[] waiterServed = new long[0];
+    private long[] waiterRerouted = new long[0];
+    // Seats, seatings, occupied minutes and diner-minutes of each table, indexed by table ID - 1
+    private int[] tableSeats = new int[0];
+    private long[] tableTurns = new long[0];
+    private long[] tableOccupiedMinutes = new long[0];
+    private long[] tableDinerMinutes = new long[0];
+    // Admission control of the run: patience in minutes (null to wait forever), bound on waiting orders, held-back tables
+    private Integer patience;
+    private int maxOrders;
+    private int reservedTables;
+    // Customers who balked, reneged, and were served within their patience
+    private long balked;
+    private long reneged;
+    private long servedInTime;
+
+    /**
+     * Constructor to initialize a SimulationResult object.
+     * @param inputFile The scenario file the simulation ran.
+     * @param numChefs The number of chefs.
+     * @param numWaiters The number of waiters.
+     * @param numTables The number of tables.
+     * @param customersServed The number of customers served.
+     * @param simulationTime The duration of the simulation in minutes.
+     * @param histograms One histogram per metric, indexed by ordinal.
+     * @param stoppedEarly Whether the run was stopped by its stop rule.
+     */
+    public SimulationResult(String inputFile, int numChefs, int numWaiters, int numTables,
+                            int customersServed, int simulationTime, LatencyHistogram[] histograms, boolean stoppedEarly) {
+        this.inputFile = inputFile;
+        this.numChefs = numChefs;
+        this.numWaiters = numWaiters;
+        this.numTables = numTables;
+        this.customersServed = customersServed;
+        this.simulationTime = simulationTime;
+        this.histograms = histograms;
+        this.stoppedEarly = stoppedEarly;
+        this.servedInTime = customersServed;
+    }
+
+    /**
+     * Prints a summary of the simulation including total customers served,
+     * average wait time, total simulation duration, and the latency percentiles.
+     * @param out The stream to print to.
+     */
+    public void printSummary(PrintStream out) {
+        out.println("\nSummary:");
+        out.println("Total Customers Served: " + customersServed);
+        out.println("Average Wait Time for Table: " + getHistogram(Metric.TABLE_WAIT).getMean() + " Minutes");
+        out.println("Average Order Preparation Time: " + getHistogram(Metric.COOK_TIME).getMean() + " Minutes");
+        out.println("Total Simulation Time: " + simulationTime + " Minutes");
+        out.println("Scheduling Policy: " + schedulingPolicy);
+        if (stoppedEarly) {
+            out.println("Stopped early: the stop rule was exceeded");
+        }
+        out.println();
+        out.println(String.format("%-18s %8s %8s %6s %6s %6s %6s", "Metric (Minutes)", "Count", "Mean", "p50", "p95", "p99", "Max"));
+        for (Metric metric : Metric.values()) {
+            LatencyHistogram histogram = getHistogram(metric);
+            out.println(String.format("%-18s %8d %8.2f %6d %6d %6d %6d", metric.getLabel(), histogram.getCount(),
+                    histogram.getMean(), histogram.percentile(50), histogram.percentile(95), histogram.percentile(99), histogram.getMax()));
+        }
+        out.println(String.format("Throughput: %.2f Customers per Simulated Hour", getThroughput()));
+        if (patience != null || maxOrders > 0 || reservedTables > 0) {
+            out.println("Lost Customers: " + getLostCustomers() + " (" + balked + " balked, " + reneged + " reneged) of "
+                    + (customersServed + getLostCustomers()) + " Arrivals");
+            if (patience != null) {
+                out.println(String.format("Goodput: %.2f Customers per Simulated Hour served within %d Minutes", getGoodput(), patience));
+            }
+        }
+        if (chefBusyMinutes.length > 0) {
+            out.println();
+            out.println(String.format("%-6s %8s %8s %8s", "Chef", "Busy %", "Portions", "Stolen"));
+            for (int i = 0; i < chefBusyMinutes.length; i++) {
+                out.println(String.format("%-6d %8.1f %8d %8d", i + 1, getChefUtilization(i + 1) * 100, chefPortions[i], chefStolen[i]));
+            }
+        }
+        if (waiterServed.length > 0) {
+            out.println();
+            out.println(String.format("%-6s %8s %8s", "Waiter", "Served", "Rerouted"));
+            for (int i = 0; i < waiterServed.length; i++) {
+                out.println(String.format("%-6d %8d %8d", i + 1, waiterServed[i], waiterRerouted[i]));
+            }
+        }
+        if (tableSeats.length > 0) {
+            out.println();
+            out.println(String.format("%-6s %6s %8s %8s %10s %10s", "Seats", "Tables", "Turns", "Turns/h", "Occupied %", "Seat Use %"));
+            for (int seats : getSeatClasses()) {
+                out.println(String.format("%-6d %6d %8d %8.2f %10.1f %10.1f", seats, countTables(seats), sum(tableTurns, seats),
+                        getTurnRate(seats), getOccupancy(seats) * 100, getSeatUtilization(seats) * 100));
+            }
+            out.println(String.format("%-6s %6d %8d %8.2f %10.1f %10.1f", "All", tableSeats.length, sum(tableTurns, 0),
+                    getTurnRate(0), getOccupancy(0) * 100, getSeatUtilization(0) * 100));
+        }
+    }
+
+    /**
+     * Sets the per-chef work report.
+     * @param busyMinutes The minutes each chef spent cooking, indexed by chef ID - 1.
+     * @param portions The portions each chef cooked.
+     * @param stolen The orders each chef took from another chef's queue.
+     */
+    public void setChefStats(long[] busyMinutes, long[] portions, long[] stolen) {
+        this.chefBusyMinutes = busyMinutes;
+        this.chefPortions = portions;
+        this.chefStolen = stolen;
+    }
+
+    // Setter for the scheduling policy of the run
+    public void setSchedulingPolicy(SchedulingPolicy schedulingPolicy) {
+        this.schedulingPolicy = schedulingPolicy;
+    }
+
+    // Getter for the scheduling policy of the run
+    public SchedulingPolicy getSchedulingPolicy() {
+        return schedulingPolicy;
+    }
+
+    /**
+     * Sets the per-waiter load report.
+     * @param served The meals each waiter served, indexed by waiter ID - 1.
+     * @param rerouted The meals each waiter served for a table outside their section.
+     */
+    public void setWaiterStats(long[] served, long[] rerouted) {
+        this.waiterServed = served;
+        this.waiterRerouted = rerouted;
+    }
+
+    /**
+     * Sets the per-table seating report.
+     * @param seats The seats of each table, indexed by table ID - 1.
+     * @param turns The seatings of each table; joined tables each count the seating.
+     * @param occupiedMinutes The minutes each table was occupied.
+     * @param dinerMinutes The diners seated at each table times the minutes they stayed.
+     */
+    public void setTableStats(int[] seats, long[] turns, long[] occupiedMinutes, long[] dinerMinutes) {
+        this.tableSeats = seats;
+        this.tableTurns = turns;
+        this.tableOccupiedMinutes = occupiedMinutes;
+        this.tableDinerMinutes = dinerMinutes;
+    }
+
+    /**
+     * Sets the admission control report.
+     * @param patience The patience in minutes, or null if customers waited as long as it took.
+     * @param maxOrders The bound on orders waiting for a chef (0 for none).
+     * @param reservedTables The number of tables held back for reservations.
+     * @param balked The number of customers who left on arrival.
+     * @param reneged The number of customers who gave up waiting for a table.
+     * @param servedInTime The number of customers served within their patience.
+     */
+    public void setAdmissionStats(Integer patience, int maxOrders, int reservedTables, long balked, long reneged, long servedInTime) {
+        this.patience = patience;
+        this.maxOrders = maxOrders;
+        this.reservedTables = reservedTables;
+        this.balked = balked;
+        this.reneged = reneged;
+        this.servedInTime = servedInTime;
+    }
+
+    // Getter for the number of customers who left without being served
+    public long getLostCustomers() {
+        return balked + reneged;
+    }
+
+    /**
+     * Computes the number of customers served within their patience per simulated hour.
+     * @return The goodput, equal to the throughput without a patience, or 0 for an empty simulation.
+     */
+    public double getGoodput() {
+        return simulationTime <= 0 ? 0 : servedInTime * 60.0 / simulationTime;
+    }
+
+    /**
+     * Gets the distinct seat counts of the tables.
+     * @return The seat counts, ascending.
+     */
+    public int[] getSeatClasses() {
+        return Arrays.stream(tableSeats).distinct().sorted().toArray();
+    }
+
+    /**
+     * Computes how many times per simulated hour a table was turned over, on average.
+     * @param seats The seat count of the tables to include, or 0 for every table.
+     * @return The seatings per table per hour, or 0 for an empty simulation.
+     */
+    public double getTurnRate(int seats) {
+        int tables = countTables(seats);
+        return simulationTime <= 0 || tables == 0 ? 0 : sum(tableTurns, seats) * 60.0 / tables / simulationTime;
+    }
+
+    /**
+     * Computes the share of the simulation the tables were occupied.
+     * @param seats The seat count of the tables to include, or 0 for every table.
+     * @return The occupancy between 0 and 1, or 0 for an empty simulation.
+     */
+    public double getOccupancy(int seats) {
+        int tables = countTables(seats);
+        return simulationTime <= 0 || tables == 0 ? 0 : Math.min(1.0, (double) sum(tableOccupiedMinutes, seats) / tables / simulationTime);
+    }
+
+    /**
+     * Computes the share of the seats taken by diners over the simulation. A 4-seat table occupied
+     * by a couple all the time counts as 50%, so the difference to the occupancy is the seating loss.
+     * @param seats The seat count of the tables to include, or 0 for every table.
+     * @return The seat utilization between 0 and 1, or 0 for an empty simulation.
+     */
+    public double getSeatUtilization(int seats) {
+        long totalSeats = 0;
+        for (int tableSeat : tableSeats) {
+            if (seats == 0 || tableSeat == seats) {
+                totalSeats += tableSeat;
+            }
+        }
+        return simulationTime <= 0 || totalSeats == 0 ? 0
+                : Math.min(1.0, (double) sum(tableDinerMinutes, seats) / totalSeats / simulationTime);
+    }
+
+    /**
+     * Counts the tables with a given number of seats.
+     * @param seats The seat count, or 0 for every table.
+     * @return The number of tables.
+     */
+    private int countTables(int seats) {
+        int tables = 0;
+        for (int tableSeat : tableSeats) {
+            if (seats == 0 || tableSeat == seats) {
+                tables++;
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * Adds up a per-table statistic over the tables with a given number of seats.
+     * @param values The statistic, indexed by table ID - 1.
+     * @param seats The seat count, or 0 for every table.
+     * @return The sum.
+     */
+    private long sum(long[] values, int seats) {
+        long total = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (seats == 0 || tableSeats[i] == seats) {
+                total += values[i];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Computes the share of the simulation a chef spent cooking.
+     * @param chefID The chef.
+     * @return The utilization between 0 and 1, or 0 for an empty simulation.
+     */
+    public double getChefUtilization(int chefID) {
+        return simulationTime <= 0 ? 0 : Math.min(1.0, (double) chefBusyMinutes[chefID - 1] / simulationTime);
+    }
+
+    // Getter for the orders a chef took from another chef's queue
+    public long getChefStolen(int chefID) {
+        return chefStolen[chefID - 1];
+    }
+
+    // Getter for the meals a waiter served
+    public long getWaiterServed(int waiterID) {
+        return waiterServed[waiterID - 1];
+    }
+
+    // Getter for the meals a waiter served for a table outside their section
+    public long getWaiterRerouted(int waiterID) {
+        return waiterRerouted[waiterID - 1];
+    }
+
+    /**
+     * Writes the summary as a JSON document.
+     * @param fileName The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public void exportJson(String fileName) throws IOException {
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(fileName)))) {
+            out.println(toJson());
+        }
+    }
+
+    /**
+     * Builds the JSON summary.
+     * @return The summary as a JSON object.
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"inputFile\":\"").append(inputFile.replace("\\", "\\\\").replace("\"", "\\\"")).append('"')
+                .append(",\"chefs\":").append(numChefs)
+                .append(",\"waiters\":").append(numWaiters)
+                .append(",\"tables\":").append(numTables)
+                .append(",\"customersServed\":").append(customersServed)
+                .append(",\"simulationMinutes\":").append(simulationTime)
+                .append(",\"stoppedEarly\":").append(stoppedEarly)
+                .append(",\"schedulingPolicy\":\"").append(schedulingPolicy).append('"')
+                .append(",\"customersPerHour\":").append(String.format(Locale.ROOT, "%.3f", getThroughput()))
+                .append(",\"balked\":").append(balked)
+                .append(",\"reneged\":").append(reneged)
+                .append(",\"servedInTime\":").append(servedInTime)
+                .append(",\"goodputPerHour\":").append(String.format(Locale.ROOT, "%.3f", getGoodput()))
+                .append(",\"tableTurnsPerHour\":").append(String.format(Locale.ROOT, "%.3f", getTurnRate(0)))
+                .append(",\"tableOccupancy\":").append(String.format(Locale.ROOT, "%.3f", getOccupancy(0)))
+                .append(",\"seatUtilization\":").append(String.format(Locale.ROOT, "%.3f", getSeatUtilization(0)))
+                .append(",\"metrics\":{");
+        for (Metric metric : Metric.values()) {
+            LatencyHistogram histogram = getHistogram(metric);
+            if (metric.ordinal() > 0) {
+                json.append(',');
+            }
+            json.append('"').append(metric.name()).append("\":{")
+                    .append("\"count\":").append(histogram.getCount())
+                    .append(",\"mean\":").append(String.format(Locale.ROOT, "%.3f", histogram.getMean()))
+                    .append(",\"p50\":").append(histogram.percentile(50))
+                    .append(",\"p95\":").append(histogram.percentile(95))
+                    .append(",\"p99\":").append(histogram.percentile(99))
+                    .append(",\"max\":").append(histogram.getMax())
+                    .append('}');
+        }
+        json.append("},\"chefStats\":[");
+        for (int i = 0; i < chefBusyMinutes.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"chef\":").append(i + 1)
+                    .append(",\"busyMinutes\":").append(chefBusyMinutes[i])
+                    .append(",\"utilization\":").append(String.format(Locale.ROOT, "%.3f", getChefUtilization(i + 1)))
+                    .append(",\"portions\":").append(chefPortions[i])
+                    .append(",\"stolen\":").append(chefStolen[i])
+                    .append('}');
+        }
+        json.append("],\"waiterStats\":[");
+        for (int i = 0; i < waiterServed.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"waiter\":").append(i + 1)
+                    .append(",\"served\":").append(waiterServed[i])
+                    .append(",\"rerouted\":").append(waiterRerouted[i])
+                    .append('}');
+        }
+        json.append("],\"tableStats\":[");
+        int[] seatClasses = getSeatClasses();
+        for (int i = 0; i < seatClasses.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            int seats = seatClasses[i];
+            json.append("{\"seats\":").append(seats)
+                    .append(",\"tables\":").append(countTables(seats))
+                    .append(",\"turns\":").append(sum(tableTurns, seats))
+                    .append(",\"turnsPerHour\":").append(String.format(Locale.ROOT, "%.3f", getTurnRate(seats)))
+                    .append(",\"occupancy\":").append(String.format(Locale.ROOT, "%.3f", getOccupancy(seats)))
+                    .append(",\"seatUtilization\":").append(String.format(Locale.ROOT, "%.3f", getSeatUtilization(seats)))
+                    .append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Computes the number of customers served per simulated hour.
+     * @return The throughput, or 0 for an empty simulation.
+     */
+    public double getThroughput() {
+        return simulationTime <= 0 ? 0 : customersServed * 60.0 / simulationTime;
+    }
+
+    // Getter for the histogram of a metric
+    public LatencyHistogram getHistogram(Metric metric) {
+        return histograms[metric.ordinal()];
+    }
+
+    // Getter for the scenario file
+    public String getInputFile() {
+        return inputFile;
+    }
+
+    // Getter for the number of chefs
+    public int getNumChefs() {
+        return numChefs;
+    }
+
+    // Getter for the number of waiters
+    public int getNumWaiters() {
+        return numWaiters;
+    }
+
+    // Getter for the number of tables
+    public int getNumTables() {
+        return numTables;
+    }
+
+    // Getter for the number of customers served
+    public int getCustomersServed() {
+        return customersServed;
+    }
+
+    // Getter for the duration of the simulation in minutes
+    public int getSimulationTime() {
+        return simulationTime;
+    }
+
+    // Getter for whether the run was stopped early
+    public boolean isStoppedEarly() {
+        return stoppedEarly;
+    }
+}
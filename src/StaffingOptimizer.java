@@ -0,0 +1,436 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The StaffingOptimizer class searches for the cheapest number of chefs, waiters and tables
+ * that meets a service-level target on a scenario, such as "p95 wait for a table of at most 5 minutes".
+ * Every candidate staffing is run on the discrete-event engine with a fixed seed.
+ * The search assumes that adding staff never makes the target harder to meet, and uses that to skip work:
+ * <ul>
+ *   <li>A binary search per resource, with the other two at their maximum, finds the fewest of each that can ever work.</li>
+ *   <li>The remaining staffings are tried from cheapest to most expensive, in parallel batches,
+ *       and the first batch with a staffing that meets the target ends the search.</li>
+ *   <li>A staffing with no more of anything than one that already failed is failed without being run.</li>
+ *   <li>A run stops as soon as more customers have exceeded the limit than the percentile allows.</li>
+ *   <li>Results are cached, in memory and optionally in a file shared between searches of the same scenario.</li>
+ * </ul>
+ */
+public class StaffingOptimizer {
+    // Settings every candidate run starts from
+    private SimulationConfig base;
+    // Metric, percentile and limit of the target
+    private Metric metric;
+    private double percentile;
+    private int limit;
+    // Cost of one chef, one waiter and one table
+    private int chefCost = 1;
+    private int waiterCost = 1;
+    private int tableCost = 1;
+    // Largest number of chefs, waiters and tables considered
+    private int maxChefs;
+    private int maxWaiters;
+    private int maxTables;
+    // Pool running the candidates
+    private ForkJoinPool pool;
+    // Number of candidates run at the same time
+    private int parallelism;
+    // File the cache is loaded from and saved to (null for an in-memory cache only)
+    private String cacheFile;
+    // Identifies the scenario, seed and target in the cache file
+    private String cacheKey;
+    // Results of the staffings evaluated so far, keyed by "chefs,waiters,tables"
+    private final ConcurrentHashMap<String, Evaluation> cache = new ConcurrentHashMap<>();
+    // Results not yet saved to the cache file
+    private final ConcurrentLinkedQueue<Evaluation> unsaved = new ConcurrentLinkedQueue<>();
+    // Number of values of the metric recorded by a full run; known after the first full run
+    private volatile long valueCount = -1;
+    // Counters reported at the end of the search
+    private final AtomicInteger simulationsRun = new AtomicInteger();
+    private final AtomicInteger simulationsStopped = new AtomicInteger();
+    private final AtomicInteger cacheHits = new AtomicInteger();
+    private int candidatesPruned;
+
+    /**
+     * Constructor to create an optimizer for one scenario and target.
+     * The search bounds default to twice the staffing in the header line of the scenario.
+     * @param base The settings of the scenario; the staffing in it is ignored.
+     * @param metric The metric of the target.
+     * @param percentile The percentile of the metric that must meet the limit, between 0 and 100.
+     * @param limit The largest allowed value of the percentile, in minutes.
+     * @param parallelism The number of candidates run at the same time.
+     * @throws IOException If the scenario cannot be read.
+     */
+    public StaffingOptimizer(SimulationConfig base, Metric metric, double percentile, int limit, int parallelism) throws IOException {
+        this.base = new SimulationConfig(base);
+        this.base.setEngine("event");
+        this.base.setLogFormat(LogFormat.DISCARD);
+        this.base.setMetricsFile(null);
+        if (this.base.getSeed() == null) {
+            // A fixed seed makes the candidates comparable and the results cacheable
+            this.base.setSeed(1L);
+        }
+        this.metric = metric;
+        this.percentile = percentile;
+        this.limit = limit;
+        this.parallelism = parallelism;
+        this.pool = new ForkJoinPool(parallelism);
+        try (ScenarioReader read = new ScenarioReader(base.getInputFile())) {
+            this.maxChefs = Math.max(1, read.getNumChefs() * 2);
+            this.maxWaiters = Math.max(1, read.getNumWaiters() * 2);
+            this.maxTables = Math.max(1, read.getNumTables() * 2);
+        }
+        File file = new File(base.getInputFile());
+        this.cacheKey = file.getAbsolutePath() + "|" + file.length() + "|" + file.lastModified() + "|" +
+                this.base.getSeed() + "|" + metric.name() + "|p" + percentile;
+    }
+
+    /**
+     * Sets the cost of each resource; the search minimizes the total cost.
+     * @param chefCost The cost of one chef.
+     * @param waiterCost The cost of one waiter.
+     * @param tableCost The cost of one table.
+     */
+    public void setCosts(int chefCost, int waiterCost, int tableCost) {
+        this.chefCost = chefCost;
+        this.waiterCost = waiterCost;
+        this.tableCost = tableCost;
+    }
+
+    /**
+     * Sets the largest staffing considered.
+     * @param maxChefs The largest number of chefs.
+     * @param maxWaiters The largest number of waiters.
+     * @param maxTables The largest number of tables.
+     */
+    public void setBounds(int maxChefs, int maxWaiters, int maxTables) {
+        this.maxChefs = maxChefs;
+        this.maxWaiters = maxWaiters;
+        this.maxTables = maxTables;
+    }
+
+    // Setter for the cache file
+    public void setCacheFile(String cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * Searches for the cheapest staffing that meets the target.
+     * @return The cheapest staffing found, or null if even the largest staffing misses the target.
+     * @throws Exception If the scenario cannot be simulated or the cache file cannot be used.
+     */
+    public Evaluation optimize() throws Exception {
+        loadCache();
+        try {
+            Evaluation largest = evaluate(maxChefs, maxWaiters, maxTables);
+            if (!largest.meetsTarget()) {
+                return null;
+            }
+
+            // Fewest of each resource that can meet the target when the others are plentiful
+            ForkJoinTask<Integer> minChefs = pool.submit(() -> lowestPassing(0, maxChefs));
+            ForkJoinTask<Integer> minWaiters = pool.submit(() -> lowestPassing(1, maxWaiters));
+            ForkJoinTask<Integer> minTables = pool.submit(() -> lowestPassing(2, maxTables));
+            return cheapest(minChefs.get(), minWaiters.get(), minTables.get());
+        } finally {
+            pool.shutdown();
+            saveCache();
+        }
+    }
+
+    /**
+     * Binary search for the fewest units of one resource that meet the target
+     * while the other two resources are at their maximum.
+     * @param resource 0 for chefs, 1 for waiters, 2 for tables.
+     * @param max The largest number of units, known to meet the target.
+     * @return The fewest units that meet the target.
+     */
+    private int lowestPassing(int resource, int max) throws Exception {
+        int low = 1;
+        int high = max;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            Evaluation evaluation = evaluate(resource == 0 ? middle : maxChefs,
+                    resource == 1 ? middle : maxWaiters, resource == 2 ? middle : maxTables);
+            if (evaluation.meetsTarget()) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Tries the staffings above the lower bounds from cheapest to most expensive, in parallel batches.
+     * @param minChefs The fewest chefs that can meet the target.
+     * @param minWaiters The fewest waiters that can meet the target.
+     * @param minTables The fewest tables that can meet the target.
+     * @return The cheapest staffing that meets the target.
+     */
+    private Evaluation cheapest(int minChefs, int minWaiters, int minTables) throws Exception {
+        ArrayList<int[]> candidates = new ArrayList<>();
+        for (int chefs = minChefs; chefs <= maxChefs; chefs++) {
+            for (int waiters = minWaiters; waiters <= maxWaiters; waiters++) {
+                for (int tables = minTables; tables <= maxTables; tables++) {
+                    candidates.add(new int[] {chefs, waiters, tables});
+                }
+            }
+        }
+        candidates.sort(Comparator.<int[]>comparingInt(this::cost).thenComparingInt(c -> c[0] + c[1] + c[2]));
+
+        // Failed staffings that no other failure has more of everything than
+        ArrayList<Evaluation> failures = new ArrayList<>();
+        Evaluation best = null;
+        int next = 0;
+        while (best == null && next < candidates.size()) {
+            ArrayList<ForkJoinTask<Evaluation>> batch = new ArrayList<>();
+            while (batch.size() < parallelism && next < candidates.size()) {
+                int[] candidate = candidates.get(next++);
+                if (dominated(candidate, failures)) {
+                    candidatesPruned++;
+                    continue;
+                }
+                batch.add(pool.submit(() -> evaluate(candidate[0], candidate[1], candidate[2])));
+            }
+            // Candidates are sorted by cost, so the first passing one in the batch is the cheapest overall
+            for (ForkJoinTask<Evaluation> task : batch) {
+                Evaluation evaluation = task.get();
+                if (evaluation.meetsTarget()) {
+                    if (best == null) {
+                        best = evaluation;
+                    }
+                } else {
+                    failures.removeIf(failure -> failure.chefs <= evaluation.chefs &&
+                            failure.waiters <= evaluation.waiters && failure.tables <= evaluation.tables);
+                    failures.add(evaluation);
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Checks whether a staffing has no more of any resource than a staffing that failed.
+     * @param candidate The chefs, waiters and tables of the staffing.
+     * @param failures The failed staffings.
+     * @return True if the staffing is certain to fail too.
+     */
+    private static boolean dominated(int[] candidate, List<Evaluation> failures) {
+        for (Evaluation failure : failures) {
+            if (candidate[0] <= failure.chefs && candidate[1] <= failure.waiters && candidate[2] <= failure.tables) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Evaluates one staffing, from the cache if it was evaluated before.
+     * @param chefs The number of chefs.
+     * @param waiters The number of waiters.
+     * @param tables The number of tables.
+     * @return The evaluation of the staffing.
+     */
+    private Evaluation evaluate(int chefs, int waiters, int tables) throws Exception {
+        String key = chefs + "," + waiters + "," + tables;
+        Evaluation cached = cache.get(key);
+        if (cached != null && (cached.exact || cached.value > limit)) {
+            cacheHits.incrementAndGet();
+            return cached;
+        }
+
+        SimulationConfig config = new SimulationConfig(base);
+        config.setStaffing(chefs, waiters, tables);
+        long count = valueCount;
+        if (count >= 0) {
+            // Stop once more values are above the limit than the percentile leaves room for
+            config.setStopRule(metric, limit, count - (long) Math.ceil(percentile / 100.0 * count));
+        }
+        SimulationResult result = new RestaurantSimulation(config).run();
+        simulationsRun.incrementAndGet();
+
+        Evaluation evaluation;
+        if (result.isStoppedEarly()) {
+            simulationsStopped.incrementAndGet();
+            // The percentile is known to be above the limit, but not by how much
+            evaluation = new Evaluation(chefs, waiters, tables, limit + 1, false);
+        } else {
+            LatencyHistogram histogram = result.getHistogram(metric);
+            valueCount = histogram.getCount();
+            evaluation = new Evaluation(chefs, waiters, tables, histogram.percentile(percentile), true);
+        }
+        cache.put(key, evaluation);
+        unsaved.add(evaluation);
+        return evaluation;
+    }
+
+    /**
+     * Computes the cost of a staffing.
+     * @param candidate The chefs, waiters and tables of the staffing.
+     * @return The total cost.
+     */
+    private int cost(int[] candidate) {
+        return candidate[0] * chefCost + candidate[1] * waiterCost + candidate[2] * tableCost;
+    }
+
+    /**
+     * Loads the cached evaluations of this scenario and target from the cache file, if there is one.
+     * Each line holds the cache key, the staffing, the percentile value and whether the value is exact,
+     * separated by tabs.
+     */
+    private void loadCache() throws IOException {
+        if (cacheFile == null || !new File(cacheFile).exists()) {
+            return;
+        }
+        try (BufferedReader in = new BufferedReader(new FileReader(cacheFile))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] parts = line.split("\t");
+                if (parts.length == 6 && parts[0].equals(cacheKey)) {
+                    Evaluation evaluation = new Evaluation(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]),
+                            Integer.parseInt(parts[3]), Long.parseLong(parts[4]), Boolean.parseBoolean(parts[5]));
+                    cache.merge(parts[1] + "," + parts[2] + "," + parts[3], evaluation,
+                            (known, loaded) -> known.exact ? known : loaded);
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends the evaluations made by this search to the cache file, if there is one.
+     */
+    private void saveCache() throws IOException {
+        if (cacheFile == null || unsaved.isEmpty()) {
+            return;
+        }
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(cacheFile, true)))) {
+            Evaluation evaluation;
+            while ((evaluation = unsaved.poll()) != null) {
+                out.println(cacheKey + "\t" + evaluation.chefs + "\t" + evaluation.waiters + "\t" +
+                        evaluation.tables + "\t" + evaluation.value + "\t" + evaluation.exact);
+            }
+        }
+    }
+
+    /**
+     * Entry point of the optimizer.
+     * Usage: java StaffingOptimizer inputFile [--metric=table_wait] [--percentile=95] [--limit=5]
+     *        [--chef-cost=N] [--waiter-cost=N] [--table-cost=N]
+     *        [--max-chefs=N] [--max-waiters=N] [--max-tables=N]
+     *        [--parallelism=N] [--cache-file=path] [--seed=N]
+     * @param args The command-line arguments.
+     * @throws Exception If the scenario cannot be simulated.
+     */
+    public static void main(String[] args) throws Exception {
+        SimulationConfig base = new SimulationConfig();
+        Metric metric = Metric.TABLE_WAIT;
+        double percentile = 95;
+        int limit = 5;
+        int[] costs = {1, 1, 1};
+        int[] bounds = {0, 0, 0};
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        String cacheFile = null;
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--metric=")) {
+                metric = Metric.fromName(value);
+            } else if (arg.startsWith("--percentile=")) {
+                percentile = Double.parseDouble(value);
+            } else if (arg.startsWith("--limit=")) {
+                limit = Integer.parseInt(value);
+            } else if (arg.startsWith("--chef-cost=")) {
+                costs[0] = Integer.parseInt(value);
+            } else if (arg.startsWith("--waiter-cost=")) {
+                costs[1] = Integer.parseInt(value);
+            } else if (arg.startsWith("--table-cost=")) {
+                costs[2] = Integer.parseInt(value);
+            } else if (arg.startsWith("--max-chefs=")) {
+                bounds[0] = Integer.parseInt(value);
+            } else if (arg.startsWith("--max-waiters=")) {
+                bounds[1] = Integer.parseInt(value);
+            } else if (arg.startsWith("--max-tables=")) {
+                bounds[2] = Integer.parseInt(value);
+            } else if (arg.startsWith("--parallelism=")) {
+                parallelism = Integer.parseInt(value);
+            } else if (arg.startsWith("--cache-file=")) {
+                cacheFile = value;
+            } else if (!base.applyOption(arg)) {
+                base.setInputFile(arg);
+            }
+        }
+
+        long start = System.nanoTime();
+        StaffingOptimizer optimizer = new StaffingOptimizer(base, metric, percentile, limit, parallelism);
+        optimizer.setCosts(costs[0], costs[1], costs[2]);
+        optimizer.setBounds(bounds[0] > 0 ? bounds[0] : optimizer.maxChefs,
+                bounds[1] > 0 ? bounds[1] : optimizer.maxWaiters, bounds[2] > 0 ? bounds[2] : optimizer.maxTables);
+        optimizer.setCacheFile(cacheFile);
+        Evaluation best = optimizer.optimize();
+
+        String target = "p" + (percentile == Math.floor(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile)) +
+                " " + metric.getLabel() + " <= " + limit + " Minutes";
+        if (best == null) {
+            System.out.println("No staffing up to " + optimizer.maxChefs + " Chefs, " + optimizer.maxWaiters +
+                    " Waiters, and " + optimizer.maxTables + " Tables meets " + target);
+        } else {
+            System.out.println("Cheapest staffing for " + target + ": " + best.chefs + " Chefs, " + best.waiters +
+                    " Waiters, and " + best.tables + " Tables (cost " + optimizer.cost(new int[] {best.chefs, best.waiters, best.tables}) +
+                    ", p" + (long) percentile + " = " + best.value + " Minutes)");
+        }
+        System.out.println(String.format("%d simulations run (%d stopped early), %d cache hits, %d candidates pruned, %.2f seconds",
+                optimizer.simulationsRun.get(), optimizer.simulationsStopped.get(), optimizer.cacheHits.get(),
+                optimizer.candidatesPruned, (System.nanoTime() - start) / 1e9));
+    }
+
+    /**
+     * The Evaluation class holds the outcome of simulating one staffing against the target.
+     */
+    public class Evaluation {
+        // Number of chefs, waiters and tables evaluated
+        private final int chefs;
+        private final int waiters;
+        private final int tables;
+        // Percentile of the target metric, or a lower bound on it when the run stopped early
+        private final long value;
+        // Whether the value is the exact percentile rather than a lower bound
+        private final boolean exact;
+
+        Evaluation(int chefs, int waiters, int tables, long value, boolean exact) {
+            this.chefs = chefs;
+            this.waiters = waiters;
+            this.tables = tables;
+            this.value = value;
+            this.exact = exact;
+        }
+
+        /**
+         * Checks whether the staffing meets the target of the optimizer.
+         * @return True if the percentile is known to be within the limit.
+         */
+        public boolean meetsTarget() {
+            return exact && value <= limit;
+        }
+
+        // Getter for the number of chefs
+        public int getChefs() {
+            return chefs;
+        }
+
+        // Getter for the number of waiters
+        public int getWaiters() {
+            return waiters;
+        }
+
+        // Getter for the number of tables
+        public int getTables() {
+            return tables;
+        }
+
+        // Getter for the percentile value
+        public long getValue() {
+            return value;
+        }
+    }
+}
@@ -1,17 +1,52 @@
 /**
  * The Table class represents a table in the restaurant.
- * Each table has a unique ID and is used to seat customers.
+ * Each table has a unique ID and a number of seats, and is used to seat customers.
+ * Tables with consecutive IDs stand next to each other, so they can be joined for a large party.
  */
 public class Table {
+    // Number of seats of a table when the scenario does not give them
+    public static final int DEFAULT_SEATS = 4;
+
     // Unique ID for the table
     private int tableID;
+    // Number of seats at the table
+    private int seats;
 
     /**
-     * Constructor to initialize a Table object with a specific ID.
+     * Constructor to initialize a Table object with a specific ID and the default number of seats.
      * @param tableID The unique ID for the table.
      */
     public Table(int tableID) {
+        this(tableID, DEFAULT_SEATS);
+    }
+
+    /**
+     * Constructor to initialize a Table object with a specific ID and number of seats.
+     * @param tableID The unique ID for the table.
+     * @param seats The number of seats at the table.
+     */
+    public Table(int tableID, int seats) {
+        if (seats < 1) {
+            throw new IllegalArgumentException("Table " + tableID + " must have at least one seat");
+        }
         this.tableID = tableID;
+        this.seats = seats;
+    }
+
+    /**
+     * Creates the tables of a restaurant, numbered from 1.
+     * @param numTables The number of tables.
+     * @param seatPattern The seats of tables 1, 2, ..., repeated for the tables after the last one given
+     *                    (e.g., 2,4 alternates 2-seat and 4-seat tables); null gives every table DEFAULT_SEATS.
+     * @return The tables, indexed by table ID - 1.
+     */
+    public static Table[] create(int numTables, int[] seatPattern) {
+        Table[] tables = new Table[numTables];
+        for (int i = 0; i < numTables; i++) {
+            int seats = seatPattern == null || seatPattern.length == 0 ? DEFAULT_SEATS : seatPattern[i % seatPattern.length];
+            tables[i] = new Table(i + 1, seats);
+        }
+        return tables;
     }
 
     /**
@@ -21,4 +56,9 @@ public class Table {
     public int getTableID() {
         return tableID;
     }
+
+    // Getter for the number of seats at the table
+    public int getSeats() {
+        return seats;
+    }
 }
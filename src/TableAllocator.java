@@ -0,0 +1,500 @@
+import java.io.*;
+import java.util.Arrays;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+
+/**
+ * The TableAllocator class seats parties of customers at tables of different sizes.
+ * Free tables are kept in one first-in first-out list per seat count, and a party takes a table of
+ * the smallest seat count that fits it (best fit), so a couple does not take the 8-seat table while
+ * a 2-seat table is free. With joining enabled, a party that no free table fits takes a run of
+ * adjacent free tables (consecutive IDs) whose seats add up to the party, fewest spare seats first.
+ * A seating is identified by the ID of its first table, so joined tables are released together.
+ * Threads waiting for a table wait on a condition of their party size, and a released table only
+ * wakes the party sizes that now fit, so a freed 2-seat table does not wake the parties of eight.
+ * A number of tables can be held back for parties with a reservation: walk-ins are only seated
+ * while more tables than that stay free.
+ * The allocator also records how often each table turned over and how long it was occupied,
+ * and by how many diners, for the seat utilization and table turn reports.
+ */
+public class TableAllocator {
+    // Value returned when no table is free for a party
+    public static final int NO_TABLE = -1;
+
+    // Seats at each table, indexed by table ID (index 0 unused)
+    private final int[] seats;
+    // Distinct seat counts of the tables, ascending
+    private final int[] seatClasses;
+    // Index in seatClasses of each table's seat count, by table ID
+    private final int[] tableClasses;
+    // Free tables of each seat class, oldest first, indexed like seatClasses
+    private final IntQueue[] freeTables;
+    // Whether each table is free, by table ID
+    private final boolean[] free;
+    // Number of free tables
+    private int freeCount;
+    // Whether a party may be seated at several adjacent tables
+    private final boolean joinTables;
+    // Largest party that can ever be seated: the largest table, or all tables joined
+    private final int maxPartySize;
+    // Number of free tables walk-in parties must leave for parties with a reservation
+    private final int reservedTables;
+    // Number of tables of the seating starting at each table (0 if no seating starts there), by table ID
+    private final int[] groupSizes;
+    // Party size and start time of the seating starting at each table, by table ID
+    private final int[] partySizes;
+    private final int[] seatedTimes;
+    // Seatings, occupied minutes and diner-minutes of each table, by table ID
+    private final long[] turns;
+    private final long[] occupiedMinutes;
+    private final long[] dinerMinutes;
+    // Simulated clock giving the time of seatings and releases
+    private final IntSupplier clock;
+    // Lock guarding the free lists, seatings and statistics; never held while a thread waits
+    private final ReentrantLock lock = new ReentrantLock();
+    // Condition blocked threads wait on, per party size and reservation (see waitKey; created when first needed)
+    private final Condition[] partyReady;
+    // Number of threads waiting, per party size and reservation and in total
+    private final int[] partyWaiting;
+    private int waitingCount;
+
+    /**
+     * Constructor to create an allocator with every table free.
+     * @param tables The tables of the restaurant, indexed by table ID - 1.
+     * @param joinTables True to seat parties no single table fits at adjacent tables.
+     * @param reservedTables The number of free tables walk-ins must leave for parties with a reservation.
+     * @param clock The simulated clock, in minutes since midnight.
+     */
+    public TableAllocator(Table[] tables, boolean joinTables, int reservedTables, IntSupplier clock) {
+        this.seats = new int[tables.length + 1];
+        int totalSeats = 0;
+        int largest = 0;
+        for (Table table : tables) {
+            seats[table.getTableID()] = table.getSeats();
+            totalSeats += table.getSeats();
+            largest = Math.max(largest, table.getSeats());
+        }
+        this.seatClasses = Arrays.stream(seats, 1, seats.length).distinct().sorted().toArray();
+        this.tableClasses = new int[seats.length];
+        this.freeTables = new IntQueue[seatClasses.length];
+        for (int i = 0; i < freeTables.length; i++) {
+            freeTables[i] = new IntQueue();
+        }
+        this.free = new boolean[seats.length];
+        for (int tableID = 1; tableID < seats.length; tableID++) {
+            tableClasses[tableID] = Arrays.binarySearch(seatClasses, seats[tableID]);
+            freeTables[tableClasses[tableID]].add(tableID);
+            free[tableID] = true;
+        }
+        this.freeCount = tables.length;
+        this.joinTables = joinTables;
+        this.maxPartySize = joinTables ? totalSeats : largest;
+        this.reservedTables = Math.max(0, reservedTables);
+        this.groupSizes = new int[seats.length];
+        this.partySizes = new int[seats.length];
+        this.seatedTimes = new int[seats.length];
+        this.turns = new long[seats.length];
+        this.occupiedMinutes = new long[seats.length];
+        this.dinerMinutes = new long[seats.length];
+        this.clock = clock;
+        this.partyReady = new Condition[waitKey(maxPartySize, true) + 1];
+        this.partyWaiting = new int[partyReady.length];
+    }
+
+    /**
+     * Checks whether a party can ever be seated, once enough tables are free.
+     * @param partySize The number of diners.
+     * @return True if a table, or with joining a run of tables, has enough seats.
+     */
+    public boolean canSeat(int partySize) {
+        return partySize >= 1 && partySize <= maxPartySize;
+    }
+
+    /**
+     * Seats a party if a table fits it right now.
+     * @param partySize The number of diners.
+     * @param reserved True if the party has a reservation and may take the tables held back.
+     * @return The ID of the (first) table, or NO_TABLE if none fits the party at the moment.
+     */
+    public int tryAcquire(int partySize, boolean reserved) {
+        lock.lock();
+        try {
+            return take(partySize, reserved);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Seats a party, waiting until a table that fits it is free or the party's deadline has passed.
+     * Only released tables that fit the party wake the thread; wakeWaiting must be called at the deadline.
+     * @param partySize The number of diners.
+     * @param reserved True if the party has a reservation and may take the tables held back.
+     * @param deadline The simulated time at which the party gives up (AdmissionControl.NO_DEADLINE to wait forever).
+     * @return The ID of the (first) table, or NO_TABLE if the deadline passed first.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public int acquire(int partySize, boolean reserved, int deadline) throws InterruptedException {
+        if (!canSeat(partySize)) {
+            throw new IllegalArgumentException("A party of " + partySize + " does not fit at any table");
+        }
+        lock.lockInterruptibly();
+        try {
+            int tableID = take(partySize, reserved);
+            if (tableID != NO_TABLE) {
+                return tableID;
+            }
+            int key = waitKey(partySize, reserved);
+            if (partyReady[key] == null) {
+                partyReady[key] = lock.newCondition();
+            }
+            partyWaiting[key]++;
+            waitingCount++;
+            try {
+                while ((tableID = take(partySize, reserved)) == NO_TABLE) {
+                    if (clock.getAsInt() >= deadline) {
+                        return NO_TABLE;
+                    }
+                    partyReady[key].await();
+                }
+            } finally {
+                partyWaiting[key]--;
+                waitingCount--;
+            }
+            // Tables may be left over for other waiting parties, e.g. after joined tables were released
+            signalWaiting();
+            return tableID;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wakes the threads of a party size waiting for a table, so they can check their deadline.
+     * @param partySize The number of diners.
+     * @param reserved True for the parties with a reservation.
+     */
+    public void wakeWaiting(int partySize, boolean reserved) {
+        lock.lock();
+        try {
+            Condition condition = partyReady[waitKey(partySize, reserved)];
+            if (condition != null) {
+                condition.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases the table, or joined tables, of a seating and wakes waiting parties that now fit.
+     * @param tableID The ID returned when the party was seated.
+     */
+    public void release(int tableID) {
+        lock.lock();
+        try {
+            int minutes = clock.getAsInt() - seatedTimes[tableID];
+            int diners = partySizes[tableID];
+            int group = groupSizes[tableID];
+            groupSizes[tableID] = 0;
+            for (int id = tableID; id < tableID + group; id++) {
+                // Diners fill the joined tables in order
+                int seated = Math.min(diners, seats[id]);
+                diners -= seated;
+                turns[id]++;
+                occupiedMinutes[id] += minutes;
+                dinerMinutes[id] += (long) seated * minutes;
+                free[id] = true;
+                freeTables[tableClasses[id]].add(id);
+            }
+            freeCount += group;
+            signalWaiting();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the best-fitting free table for a party, or adjacent tables if joining is enabled.
+     * Must be called with the lock held.
+     * @param partySize The number of diners.
+     * @param reserved True if the party may take the tables held back for reservations.
+     * @return The ID of the (first) table, or NO_TABLE.
+     */
+    private int take(int partySize, boolean reserved) {
+        long found = find(partySize, reserved);
+        if (found < 0) {
+            return NO_TABLE;
+        }
+        int first = (int) (found >>> 32);
+        int count = (int) found;
+        if (count == 1) {
+            // A single table is the oldest of its free list
+            freeTables[tableClasses[first]].poll();
+        } else {
+            for (int id = first; id < first + count; id++) {
+                removeFree(id);
+            }
+        }
+        for (int id = first; id < first + count; id++) {
+            free[id] = false;
+        }
+        freeCount -= count;
+        startSeating(first, count, partySize);
+        return first;
+    }
+
+    /**
+     * Finds the tables a party would be seated at right now, without taking them.
+     * Must be called with the lock held.
+     * @param partySize The number of diners.
+     * @param reserved True if the party may take the tables held back for reservations.
+     * @return The first table ID in the high 32 bits and the number of tables in the low 32 bits, or -1.
+     */
+    private long find(int partySize, boolean reserved) {
+        long found = -1;
+        for (int c = 0; c < seatClasses.length; c++) {
+            if (seatClasses[c] >= partySize && !freeTables[c].isEmpty()) {
+                found = ((long) freeTables[c].peek() << 32) | 1;
+                break;
+            }
+        }
+        if (found < 0 && joinTables && partySize <= maxPartySize) {
+            found = findJoin(partySize);
+        }
+        if (found >= 0 && !reserved && freeCount - (int) found < reservedTables) {
+            // Walk-ins leave the last free tables to parties with a reservation
+            return -1;
+        }
+        return found;
+    }
+
+    /**
+     * Finds the run of adjacent free tables that seats a party with the fewest spare seats,
+     * and among those the fewest tables. Must be called with the lock held.
+     * @param partySize The number of diners.
+     * @return The first table ID in the high 32 bits and the number of tables in the low 32 bits, or -1.
+     */
+    private long findJoin(int partySize) {
+        long best = -1;
+        int bestSpare = Integer.MAX_VALUE;
+        int bestCount = Integer.MAX_VALUE;
+        for (int first = 1; first < seats.length; first++) {
+            if (!free[first]) {
+                continue;
+            }
+            int total = 0;
+            int last = first;
+            while (last < seats.length && free[last] && total < partySize) {
+                total += seats[last++];
+            }
+            int count = last - first;
+            if (total >= partySize && (total - partySize < bestSpare || (total - partySize == bestSpare && count < bestCount))) {
+                best = ((long) first << 32) | count;
+                bestSpare = total - partySize;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Removes a table from the middle of its free list, keeping the order of the others.
+     * Only used when tables are joined. Must be called with the lock held.
+     * @param tableID The table.
+     */
+    private void removeFree(int tableID) {
+        IntQueue queue = freeTables[tableClasses[tableID]];
+        for (int i = queue.size(); i > 0; i--) {
+            int id = queue.poll();
+            if (id != tableID) {
+                queue.add(id);
+            }
+        }
+    }
+
+    /**
+     * Records the start of a seating. Must be called with the lock held.
+     * @param tableID The first table.
+     * @param count The number of tables.
+     * @param partySize The number of diners.
+     */
+    private void startSeating(int tableID, int count, int partySize) {
+        groupSizes[tableID] = count;
+        partySizes[tableID] = partySize;
+        seatedTimes[tableID] = clock.getAsInt();
+    }
+
+    /**
+     * Wakes one waiting thread of every party size that fits at the free tables.
+     * Must be called with the lock held.
+     */
+    private void signalWaiting() {
+        if (waitingCount == 0 || freeCount == 0) {
+            return;
+        }
+        for (int key = 0; key < partyWaiting.length; key++) {
+            if (partyWaiting[key] > 0 && find(key >> 1, (key & 1) != 0) >= 0) {
+                partyReady[key].signal();
+            }
+        }
+    }
+
+    /**
+     * Gets the index under which the parties of a size wait, here and in the discrete-event engine's queues.
+     * @param partySize The number of diners.
+     * @param reserved True for the parties with a reservation.
+     * @return The index, with the party size in the high bits and the reservation in the lowest bit.
+     */
+    public static int waitKey(int partySize, boolean reserved) {
+        return partySize << 1 | (reserved ? 1 : 0);
+    }
+
+    /**
+     * Gets the number of free tables.
+     * @return The number of tables no party is seated at.
+     */
+    public int getFreeCount() {
+        lock.lock();
+        try {
+            return freeCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of threads waiting for a table (threads engine only).
+     * @return The number of blocked parties.
+     */
+    public int getWaitingCount() {
+        lock.lock();
+        try {
+            return waitingCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Getter for the number of tables
+    public int getNumTables() {
+        return seats.length - 1;
+    }
+
+    // Getter for the largest party that can ever be seated
+    public int getMaxPartySize() {
+        return maxPartySize;
+    }
+
+    /**
+     * Gets the seats of every table, for the table report.
+     * @return The seats, indexed by table ID - 1.
+     */
+    public int[] getSeats() {
+        return Arrays.copyOfRange(seats, 1, seats.length);
+    }
+
+    /**
+     * Gets the number of seatings of every table so far; joined tables each count the seating.
+     * @return The seatings, indexed by table ID - 1.
+     */
+    public long[] getTurns() {
+        lock.lock();
+        try {
+            return Arrays.copyOfRange(turns, 1, turns.length);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the minutes every table was occupied by parties that have left.
+     * @return The minutes, indexed by table ID - 1.
+     */
+    public long[] getOccupiedMinutes() {
+        lock.lock();
+        try {
+            return Arrays.copyOfRange(occupiedMinutes, 1, occupiedMinutes.length);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the diner-minutes of every table: diners seated at it times the minutes they stayed.
+     * @return The diner-minutes, indexed by table ID - 1.
+     */
+    public long[] getDinerMinutes() {
+        lock.lock();
+        try {
+            return Arrays.copyOfRange(dinerMinutes, 1, dinerMinutes.length);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the free lists, the current seatings and the statistics, for a checkpoint.
+     * @param out The checkpoint stream.
+     * @throws IOException If the stream cannot be written.
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        lock.lock();
+        try {
+            out.writeInt(seats.length - 1);
+            for (int tableID = 1; tableID < seats.length; tableID++) {
+                out.writeInt(seats[tableID]);
+                out.writeInt(groupSizes[tableID]);
+                out.writeInt(partySizes[tableID]);
+                out.writeInt(seatedTimes[tableID]);
+                out.writeLong(turns[tableID]);
+                out.writeLong(occupiedMinutes[tableID]);
+                out.writeLong(dinerMinutes[tableID]);
+            }
+            for (IntQueue queue : freeTables) {
+                queue.writeTo(out);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the free lists, seatings and statistics with those of a checkpoint.
+     * @param in The checkpoint stream.
+     * @throws IOException If the stream cannot be read or the tables differ from this run.
+     */
+    public void readFrom(DataInputStream in) throws IOException {
+        lock.lock();
+        try {
+            if (in.readInt() != seats.length - 1) {
+                throw new IOException("Checkpoint was taken with a different number of tables");
+            }
+            for (int tableID = 1; tableID < seats.length; tableID++) {
+                if (in.readInt() != seats[tableID]) {
+                    throw new IOException("Checkpoint was taken with a different number of seats at table " + tableID);
+                }
+                groupSizes[tableID] = in.readInt();
+                partySizes[tableID] = in.readInt();
+                seatedTimes[tableID] = in.readInt();
+                turns[tableID] = in.readLong();
+                occupiedMinutes[tableID] = in.readLong();
+                dinerMinutes[tableID] = in.readLong();
+            }
+            Arrays.fill(free, false);
+            freeCount = 0;
+            for (IntQueue queue : freeTables) {
+                queue.readFrom(in);
+                for (int i = 0; i < queue.size(); i++) {
+                    int tableID = queue.poll();
+                    free[tableID] = true;
+                    queue.add(tableID);
+                }
+                freeCount += queue.size();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
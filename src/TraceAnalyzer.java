@@ -0,0 +1,445 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * The TraceAnalyzer class reads a trace written with --log=trace after the run, so the simulation itself
+ * only pays for storing fixed-size records. The records are split into chunks that are mapped and scanned in
+ * parallel on a fork-join pool: each chunk fills the event times of its customers and its own per-minute
+ * changes of the queue depths, and the chunks are then merged into the depth curves, the per-table occupancy
+ * and a latency histogram of every Metric.
+ * Usage: java TraceAnalyzer [--parallelism=N] [--text] [--customer=ID] [--curves-file=path] trace-file
+ * --text prints the trace in the usual "[HH:MM] ..." form instead of the analysis, --customer prints the
+ * timeline of one customer, and --curves-file exports the depth curves as CSV, one line per minute.
+ */
+public class TraceAnalyzer {
+    // Event types by ordinal
+    private static final EventType[] EVENT_TYPES = EventType.values();
+    // Number of records each task scans
+    private static final int CHUNK_RECORDS = 1 << 18;
+    // Depth curves, each raised by one event type and lowered by another
+    private static final String[] CURVE_NAMES = {"In Restaurant", "Waiting for Table", "Orders Waiting", "Meals Waiting", "Tables Occupied"};
+    private static final EventType[] CURVE_UP = {EventType.ARRIVE, EventType.ARRIVE, EventType.ORDER, EventType.COOK_END, EventType.SEAT};
+    private static final EventType[] CURVE_DOWN = {EventType.LEAVE, EventType.SEAT, EventType.COOK_START, EventType.SERVE, EventType.LEAVE};
+    // Whether a customer leaving unserved (balking or reneging) lowers each depth curve
+    private static final boolean[] CURVE_LOST = {true, true, false, false, false};
+
+    // Channel of the trace file
+    private final FileChannel channel;
+    // Pool that scans the chunks
+    private final ForkJoinPool pool;
+    // Number of records in the trace
+    private final long recordCount;
+    // Offset of the item dictionary
+    private final long dictionaryOffset;
+    // Time of the first and last event, in minutes since midnight
+    private final int minTime;
+    private final int maxTime;
+    // Largest customer and table IDs in the trace
+    private final int maxCustomerID;
+    private final int maxTableID;
+    // Item names by item ID
+    private String[] itemNames;
+    // Time of each event type of each customer, indexed by EventType ordinal and customer ID (-1 if missing)
+    private int[][] eventTimes;
+    // Table of each customer (0 if never seated)
+    private int[] customerTables;
+    // Change of each depth curve at each minute, indexed by curve and minute - minTime
+    private long[][] curveDeltas;
+
+    /**
+     * Constructor to open a trace and read its header and item dictionary.
+     * @param fileName The path of the trace file.
+     * @param parallelism The number of chunks scanned at the same time.
+     * @throws IOException If the file cannot be read or is not a complete trace.
+     */
+    public TraceAnalyzer(String fileName, int parallelism) throws IOException {
+        channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+        ByteBuffer header = ByteBuffer.allocate(TraceWriter.HEADER_SIZE);
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            // Keep reading until the header is complete
+        }
+        header.flip();
+        if (header.remaining() < TraceWriter.HEADER_SIZE || header.getInt() != TraceWriter.MAGIC) {
+            throw new IOException(fileName + " is not a simulation trace");
+        }
+        int version = header.getInt();
+        int recordSize = header.getInt();
+        header.getInt(); // Header size
+        if (version != TraceWriter.VERSION || recordSize != TraceWriter.RECORD_SIZE) {
+            throw new IOException("Unsupported trace version " + version);
+        }
+        recordCount = header.getLong();
+        dictionaryOffset = header.getLong();
+        minTime = header.getInt();
+        maxTime = header.getInt();
+        maxCustomerID = header.getInt();
+        maxTableID = header.getInt();
+        if (dictionaryOffset == 0) {
+            throw new IOException(fileName + " was not closed; the run did not finish");
+        }
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(dictionaryOffset))));
+        itemNames = new String[in.readInt()];
+        for (int i = 0; i < itemNames.length; i++) {
+            itemNames[i] = in.readUTF();
+        }
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Scans every chunk in parallel and merges their depth changes.
+     * Fills the event times and tables of every customer.
+     */
+    public void analyze() {
+        eventTimes = new int[EVENT_TYPES.length][maxCustomerID + 1];
+        for (int[] times : eventTimes) {
+            Arrays.fill(times, -1);
+        }
+        customerTables = new int[maxCustomerID + 1];
+        curveDeltas = new long[CURVE_NAMES.length][maxTime - minTime + 2];
+
+        ArrayList<ForkJoinTask<long[][]>> tasks = new ArrayList<>();
+        for (long first = 0; first < recordCount; first += CHUNK_RECORDS) {
+            long start = first;
+            int count = (int) Math.min(CHUNK_RECORDS, recordCount - first);
+            tasks.add(pool.submit(() -> scanChunk(start, count)));
+        }
+        for (ForkJoinTask<long[][]> task : tasks) {
+            long[][] deltas = task.join();
+            for (int curve = 0; curve < deltas.length; curve++) {
+                for (int minute = 0; minute < deltas[curve].length; minute++) {
+                    curveDeltas[curve][minute] += deltas[curve][minute];
+                }
+            }
+        }
+    }
+
+    /**
+     * Maps one chunk of records and records the event times of its customers.
+     * Each customer's events are at different indices, so chunks never write the same array element.
+     * @param first The index of the first record of the chunk.
+     * @param count The number of records in the chunk.
+     * @return The chunk's change of each depth curve at each minute.
+     * @throws IOException If the chunk cannot be mapped.
+     */
+    private long[][] scanChunk(long first, int count) throws IOException {
+        long[][] deltas = new long[CURVE_NAMES.length][maxTime - minTime + 2];
+        MappedByteBuffer records = map(first, count);
+        for (int i = 0; i < count; i++) {
+            int type = records.get(i * TraceWriter.RECORD_SIZE) & 0xFF;
+            int time = records.getInt(i * TraceWriter.RECORD_SIZE + 4);
+            int customer = records.getInt(i * TraceWriter.RECORD_SIZE + 8);
+            eventTimes[type][customer] = time;
+            if (type == EventType.SEAT.ordinal()) {
+                customerTables[customer] = records.getInt(i * TraceWriter.RECORD_SIZE + 12);
+            }
+            boolean lost = type == EventType.BALK.ordinal() || type == EventType.RENEGE.ordinal();
+            for (int curve = 0; curve < CURVE_NAMES.length; curve++) {
+                if (type == CURVE_UP[curve].ordinal()) {
+                    deltas[curve][time - minTime]++;
+                }
+                if (type == CURVE_DOWN[curve].ordinal() || (lost && CURVE_LOST[curve])) {
+                    deltas[curve][time - minTime]--;
+                }
+            }
+        }
+        return deltas;
+    }
+
+    /**
+     * Maps a range of records for reading.
+     * @param first The index of the first record.
+     * @param count The number of records.
+     * @return The mapped records.
+     * @throws IOException If the range cannot be mapped.
+     */
+    private MappedByteBuffer map(long first, int count) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, TraceWriter.HEADER_SIZE + first * TraceWriter.RECORD_SIZE,
+                (long) count * TraceWriter.RECORD_SIZE);
+    }
+
+    /**
+     * Builds the latency histogram of every metric from the event times, one range of customers per task.
+     * Customers who did not reach both events of a metric are left out of it.
+     * @return The histograms, indexed by Metric ordinal.
+     */
+    public LatencyHistogram[] latencies() {
+        ArrayList<ForkJoinTask<LatencyHistogram[]>> tasks = new ArrayList<>();
+        for (int first = 1; first <= maxCustomerID; first += CHUNK_RECORDS) {
+            int start = first;
+            int end = Math.min(maxCustomerID, first + CHUNK_RECORDS - 1);
+            tasks.add(pool.submit(() -> latencies(start, end)));
+        }
+        LatencyHistogram[] histograms = newHistograms();
+        for (ForkJoinTask<LatencyHistogram[]> task : tasks) {
+            LatencyHistogram[] part = task.join();
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i].merge(part[i]);
+            }
+        }
+        return histograms;
+    }
+
+    /**
+     * Builds the latency histograms of a range of customers.
+     * @param first The first customer ID.
+     * @param last The last customer ID.
+     * @return The histograms, indexed by Metric ordinal.
+     */
+    private LatencyHistogram[] latencies(int first, int last) {
+        LatencyHistogram[] histograms = newHistograms();
+        for (int customer = first; customer <= last; customer++) {
+            recordSpan(histograms[Metric.TABLE_WAIT.ordinal()], EventType.ARRIVE, EventType.SEAT, customer);
+            recordSpan(histograms[Metric.QUEUE_WAIT.ordinal()], EventType.ORDER, EventType.COOK_START, customer);
+            recordSpan(histograms[Metric.COOK_TIME.ordinal()], EventType.COOK_START, EventType.COOK_END, customer);
+            recordSpan(histograms[Metric.SERVE_DELAY.ordinal()], EventType.COOK_END, EventType.SERVE, customer);
+            recordSpan(histograms[Metric.VISIT_TIME.ordinal()], EventType.ARRIVE, EventType.LEAVE, customer);
+        }
+        return histograms;
+    }
+
+    /**
+     * Records the time between two events of a customer, if both happened.
+     * @param histogram The histogram to record into.
+     * @param from The earlier event.
+     * @param to The later event.
+     * @param customer The customer ID.
+     */
+    private void recordSpan(LatencyHistogram histogram, EventType from, EventType to, int customer) {
+        int start = eventTimes[from.ordinal()][customer];
+        int end = eventTimes[to.ordinal()][customer];
+        if (start >= 0 && end >= 0) {
+            histogram.record(end - start);
+        }
+    }
+
+    /**
+     * Creates one empty histogram per metric.
+     * @return The histograms, indexed by Metric ordinal.
+     */
+    private static LatencyHistogram[] newHistograms() {
+        LatencyHistogram[] histograms = new LatencyHistogram[Metric.values().length];
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+        return histograms;
+    }
+
+    /**
+     * Computes the value of each depth curve at the end of every minute.
+     * @return The curves, indexed by curve and minute - minTime.
+     */
+    public long[][] curves() {
+        long[][] curves = new long[CURVE_NAMES.length][maxTime - minTime + 1];
+        for (int curve = 0; curve < curves.length; curve++) {
+            long depth = 0;
+            for (int minute = 0; minute < curves[curve].length; minute++) {
+                depth += curveDeltas[curve][minute];
+                curves[curve][minute] = depth;
+            }
+        }
+        return curves;
+    }
+
+    /**
+     * Computes the seatings and occupied minutes of every table.
+     * Customers still seated at the end of the trace count until the last event.
+     * @return Two rows indexed by table ID: the number of seatings and the occupied minutes.
+     */
+    public long[][] tableOccupancy() {
+        long[][] occupancy = new long[2][maxTableID + 1];
+        int seat = EventType.SEAT.ordinal();
+        int leave = EventType.LEAVE.ordinal();
+        for (int customer = 1; customer <= maxCustomerID; customer++) {
+            int table = customerTables[customer];
+            if (table > 0) {
+                int end = eventTimes[leave][customer] >= 0 ? eventTimes[leave][customer] : maxTime;
+                occupancy[0][table]++;
+                occupancy[1][table] += end - eventTimes[seat][customer];
+            }
+        }
+        return occupancy;
+    }
+
+    /**
+     * Counts the customers who left without being served.
+     * @return The number of customers who balked and who reneged.
+     */
+    public long[] lostCustomers() {
+        long[] lost = new long[2];
+        for (int customer = 1; customer <= maxCustomerID; customer++) {
+            if (eventTimes[EventType.BALK.ordinal()][customer] >= 0) {
+                lost[0]++;
+            } else if (eventTimes[EventType.RENEGE.ordinal()][customer] >= 0) {
+                lost[1]++;
+            }
+        }
+        return lost;
+    }
+
+    /**
+     * Prints the records in the usual text form.
+     * @param out The stream to print to.
+     * @param customer Only the records of this customer, or 0 for every record.
+     * @throws IOException If the trace cannot be read.
+     */
+    public void printText(PrintStream out, int customer) throws IOException {
+        StringBuilder text = new StringBuilder(1 << 16);
+        for (long first = 0; first < recordCount; first += CHUNK_RECORDS) {
+            int count = (int) Math.min(CHUNK_RECORDS, recordCount - first);
+            MappedByteBuffer records = map(first, count);
+            for (int i = 0; i < count; i++) {
+                int base = i * TraceWriter.RECORD_SIZE;
+                int customerID = records.getInt(base + 8);
+                if (customer != 0 && customerID != customer) {
+                    continue;
+                }
+                int itemID = records.getInt(base + 20);
+                EventLog.appendEvent(text, EVENT_TYPES[records.get(base) & 0xFF], records.getInt(base + 4), customerID,
+                        records.getInt(base + 12), records.getInt(base + 16), itemID < 0 ? null : itemNames[itemID]);
+                if (text.length() >= 1 << 16) {
+                    out.print(text);
+                    text.setLength(0);
+                }
+            }
+        }
+        out.print(text);
+        out.flush();
+    }
+
+    /**
+     * Prints the latency percentiles, the peak of every depth curve and the occupancy of every table.
+     * @param out The stream to print to.
+     */
+    public void printAnalysis(PrintStream out) {
+        int span = Math.max(1, maxTime - minTime);
+        out.println("Records: " + recordCount);
+        out.println("Time Span: " + EventLog.appendTime(new StringBuilder(), minTime) + " - "
+                + EventLog.appendTime(new StringBuilder(), maxTime) + " (" + span + " Minutes)");
+        out.println();
+        out.println(String.format("%-18s %8s %8s %6s %6s %6s %6s", "Metric (Minutes)", "Count", "Mean", "p50", "p95", "p99", "Max"));
+        LatencyHistogram[] histograms = latencies();
+        for (Metric metric : Metric.values()) {
+            LatencyHistogram histogram = histograms[metric.ordinal()];
+            out.println(String.format("%-18s %8d %8.2f %6d %6d %6d %6d", metric.getLabel(), histogram.getCount(),
+                    histogram.getMean(), histogram.percentile(50), histogram.percentile(95), histogram.percentile(99), histogram.getMax()));
+        }
+        long[] lost = lostCustomers();
+        if (lost[0] + lost[1] > 0) {
+            out.println();
+            out.println("Lost Customers: " + (lost[0] + lost[1]) + " (" + lost[0] + " balked, " + lost[1] + " reneged)");
+        }
+
+        out.println();
+        out.println(String.format("%-18s %8s %8s %6s", "Depth", "Mean", "Peak", "At"));
+        long[][] curves = curves();
+        for (int curve = 0; curve < curves.length; curve++) {
+            long sum = 0;
+            int peak = 0;
+            for (int minute = 0; minute < curves[curve].length; minute++) {
+                sum += curves[curve][minute];
+                if (curves[curve][minute] > curves[curve][peak]) {
+                    peak = minute;
+                }
+            }
+            out.println(String.format("%-18s %8.2f %8d %6s", CURVE_NAMES[curve], (double) sum / curves[curve].length,
+                    curves[curve][peak], EventLog.appendTime(new StringBuilder(), minTime + peak)));
+        }
+
+        out.println();
+        out.println(String.format("%-6s %8s %8s", "Table", "Seatings", "Busy %"));
+        long[][] occupancy = tableOccupancy();
+        for (int table = 1; table <= maxTableID; table++) {
+            out.println(String.format("%-6d %8d %8.1f", table, occupancy[0][table], occupancy[1][table] * 100.0 / span));
+        }
+    }
+
+    /**
+     * Writes the depth curves as CSV, one line per minute.
+     * @param fileName The path of the CSV file.
+     * @throws IOException If the file cannot be written.
+     */
+    public void writeCurves(String fileName) throws IOException {
+        long[][] curves = curves();
+        try (PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(fileName)))) {
+            StringBuilder line = new StringBuilder("time");
+            for (String name : CURVE_NAMES) {
+                line.append(',').append(name);
+            }
+            out.println(line);
+            for (int minute = 0; minute < curves[0].length; minute++) {
+                line.setLength(0);
+                EventLog.appendTime(line, minTime + minute);
+                for (long[] curve : curves) {
+                    line.append(',').append(curve[minute]);
+                }
+                out.println(line);
+            }
+        }
+    }
+
+    /**
+     * Stops the pool and closes the trace file.
+     * @throws IOException If the file cannot be closed.
+     */
+    public void close() throws IOException {
+        pool.shutdown();
+        channel.close();
+    }
+
+    /**
+     * Entry point of the analyzer.
+     * Usage: java TraceAnalyzer [--parallelism=N] [--text] [--customer=ID] [--curves-file=path] trace-file
+     * @param args The command-line arguments.
+     */
+    public static void main(String[] args) {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        boolean text = false;
+        int customer = 0;
+        String curvesFile = null;
+        List<String> traceFiles = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--parallelism=")) {
+                parallelism = Integer.parseInt(arg.substring("--parallelism=".length()));
+            } else if (arg.equals("--text")) {
+                text = true;
+            } else if (arg.startsWith("--customer=")) {
+                customer = Integer.parseInt(arg.substring("--customer=".length()));
+            } else if (arg.startsWith("--curves-file=")) {
+                curvesFile = arg.substring("--curves-file=".length());
+            } else {
+                traceFiles.add(arg);
+            }
+        }
+        if (traceFiles.size() != 1) {
+            System.out.println("Usage: java TraceAnalyzer [--parallelism=N] [--text] [--customer=ID] [--curves-file=path] trace-file");
+            return;
+        }
+
+        try {
+            TraceAnalyzer analyzer = new TraceAnalyzer(traceFiles.get(0), parallelism);
+            if (text || customer != 0) {
+                analyzer.printText(System.out, customer);
+            } else {
+                analyzer.analyze();
+                analyzer.printAnalysis(System.out);
+                if (curvesFile != null) {
+                    analyzer.writeCurves(curvesFile);
+                }
+            }
+            analyzer.close();
+        } catch (IOException e) {
+            System.out.println("An error occurred while reading the trace: " + e.getMessage());
+        }
+    }
+}
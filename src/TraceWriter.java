@@ -0,0 +1,139 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * The TraceWriter class records events as fixed-size binary records in a memory-mapped file,
+ * the format read by TraceAnalyzer. Because every record has the same size, record n sits at a known
+ * offset, so the analyzer can split a trace into chunks and read them in parallel.
+ *
+ * The file starts with a 64-byte header: the magic "RSTR", the format version, the record size,
+ * the number of records, the offset of the item dictionary, the first and last event time and the
+ * largest customer and table IDs. The 24-byte records follow: type (byte, EventType ordinal, then three
+ * padding bytes), time, customer, table, staff and item ID (ints, -1 for no item). The item dictionary
+ * after the records holds the number of items and each item name (modified UTF-8), by item ID.
+ * The header is completed when the writer is closed; a trace whose dictionary offset is still 0 was not closed.
+ * The class is not thread-safe; the EventLog writer thread is its only user.
+ */
+public class TraceWriter implements Closeable {
+    // Magic number at the start of every trace ("RSTR")
+    public static final int MAGIC = 0x52535452;
+    // Version of the trace format
+    public static final int VERSION = 1;
+    // Size of the header in bytes
+    public static final int HEADER_SIZE = 64;
+    // Size of each record in bytes
+    public static final int RECORD_SIZE = 24;
+    // Size of each mapped region of the file, a whole number of records
+    private static final long REGION_SIZE = RECORD_SIZE * (1L << 20);
+
+    // Channel of the trace file
+    private final FileChannel channel;
+    // Currently mapped region of the file
+    private MappedByteBuffer region;
+    // File offset where the current region starts
+    private long regionStart = HEADER_SIZE;
+    // Number of records written
+    private long count;
+    // Item IDs by name, in the order the items were first seen
+    private final HashMap<String, Integer> itemIDs = new HashMap<>();
+    // Item names by ID
+    private final ArrayList<String> itemNames = new ArrayList<>();
+    // Range of the event times and largest IDs seen, stored in the header
+    private int minTime = Integer.MAX_VALUE;
+    private int maxTime = Integer.MIN_VALUE;
+    private int maxCustomerID;
+    private int maxTableID;
+
+    /**
+     * Constructor to create a trace file, replacing any existing file.
+     * @param fileName The path of the trace file.
+     * @throws IOException If the file cannot be created or mapped.
+     */
+    public TraceWriter(String fileName) throws IOException {
+        channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, REGION_SIZE);
+    }
+
+    /**
+     * Appends one record.
+     * @param type The kind of event (EventType ordinal).
+     * @param time The simulated time of the event, in minutes since midnight.
+     * @param customerID The customer the event belongs to.
+     * @param tableID The table involved (0 if none).
+     * @param staffID The chef or waiter involved (0 if none).
+     * @param item The menu item involved (null if none).
+     * @throws IOException If the next region of the file cannot be mapped.
+     */
+    public void write(int type, int time, int customerID, int tableID, int staffID, String item) throws IOException {
+        if (!region.hasRemaining()) {
+            regionStart += REGION_SIZE;
+            region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, REGION_SIZE);
+        }
+        int itemID = -1;
+        if (item != null) {
+            Integer known = itemIDs.get(item);
+            if (known == null) {
+                known = itemNames.size();
+                itemIDs.put(item, known);
+                itemNames.add(item);
+            }
+            itemID = known;
+        }
+        region.putInt(type << 24);
+        region.putInt(time);
+        region.putInt(customerID);
+        region.putInt(tableID);
+        region.putInt(staffID);
+        region.putInt(itemID);
+        count++;
+        minTime = Math.min(minTime, time);
+        maxTime = Math.max(maxTime, time);
+        maxCustomerID = Math.max(maxCustomerID, customerID);
+        maxTableID = Math.max(maxTableID, tableID);
+    }
+
+    /**
+     * Writes the item dictionary and the header, and cuts the file after the dictionary.
+     * @throws IOException If the file cannot be written.
+     */
+    public void close() throws IOException {
+        long dictionaryOffset = HEADER_SIZE + count * RECORD_SIZE;
+        ByteArrayOutputStream dictionary = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(dictionary);
+        out.writeInt(itemNames.size());
+        for (String name : itemNames) {
+            out.writeUTF(name);
+        }
+        writeFully(ByteBuffer.wrap(dictionary.toByteArray()), dictionaryOffset);
+        region.force();
+        region = null;
+        channel.truncate(dictionaryOffset + dictionary.size());
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(HEADER_SIZE);
+        header.putLong(count).putLong(dictionaryOffset);
+        header.putInt(count == 0 ? 0 : minTime).putInt(count == 0 ? 0 : maxTime).putInt(maxCustomerID).putInt(maxTableID);
+        header.flip();
+        writeFully(header, 0);
+        channel.close();
+    }
+
+    /**
+     * Writes a buffer at a file offset.
+     * @param buffer The bytes to write.
+     * @param position The file offset.
+     * @throws IOException If the file cannot be written.
+     */
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
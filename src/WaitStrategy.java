@@ -0,0 +1,55 @@
+/**
+ * The WaitStrategy enum decides what a thread does while it waits on a lock-free queue,
+ * for example a waiter polling an empty CookedMeals ring buffer.
+ * SPIN keeps the core busy for the lowest latency (only sensible when every waiting thread has
+ * a core of its own), YIELD gives the core to other threads
+ * between retries, and PARK blocks the thread once a short spin and yield phase has passed, until the
+ * other side of the queue signals it, so idle threads cost nothing.
+ */
+public enum WaitStrategy {
+    // Busy-spin on the CPU
+    SPIN,
+    // Spin briefly, then yield the processor between retries
+    YIELD,
+    // Spin briefly, yield, then block until signalled
+    PARK;
+
+    // Number of retries spent spinning before yielding or parking
+    private static final int SPIN_TRIES = 100;
+    // Number of retries spent yielding before parking
+    private static final int YIELD_TRIES = 200;
+
+    /**
+     * Tells whether the caller should stop retrying and block until it is signalled.
+     * @param attempt How many times the caller has already retried (starting at 0).
+     * @return True once a parking thread has spun and yielded long enough.
+     */
+    public boolean shouldBlock(int attempt) {
+        return this == PARK && attempt >= YIELD_TRIES;
+    }
+
+    /**
+     * Waits once before the next retry, for the attempts before shouldBlock returns true.
+     * @param attempt How many times the caller has already retried (starting at 0).
+     * @throws InterruptedException If the waiting thread has been interrupted.
+     */
+    public void idle(int attempt) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (this == SPIN || attempt < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Parses a wait strategy from its command-line name.
+     * @param name "spin", "yield" or "park", in any case.
+     * @return The matching wait strategy.
+     */
+    public static WaitStrategy fromName(String name) {
+        return valueOf(name.toUpperCase());
+    }
+}
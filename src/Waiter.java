@@ -2,16 +2,22 @@
 /**
  * The Waiter class represents a waiter in the restaurant simulation.
  * Each waiter runs in a separate thread, serving meals to customers.
+ * With waiter sections, a waiter only receives the meals of their own tables,
+ * plus meals rerouted from a section with a long backlog.
  */
 public class Waiter implements Runnable {
+    // Simulation the waiter works in
+    private RestaurantSimulation simulation;
     // Unique ID for the waiter
     private int waiterID;
 
     /**
      * Constructor to initialize a Waiter object with a unique ID.
+     * @param simulation The simulation the waiter works in.
      * @param waiterID The unique ID for the waiter.
      */
-    public Waiter(int waiterID) {
+    public Waiter(RestaurantSimulation simulation, int waiterID) {
+        this.simulation = simulation;
         this.waiterID = waiterID;
     }
 
@@ -22,17 +28,20 @@ public class Waiter implements Runnable {
     public void run() {
         try {
             while (true) {
-                // Retrieve a cooked meal from the queue
-                Order meal = RestaurantSimulation.cookedMeals.getMeal();
+                // Retrieve a cooked meal from the waiter's channel
+                Order meal = simulation.getWaiterSections().getMeal(waiterID);
 
-                // Find the customer associated with the order
-                Customer customer = RestaurantSimulation.customers.get(meal.getCustomerID());
+                simulation.getMetrics().record(Metric.SERVE_DELAY, getCurrentTime() - meal.getCookedTime());
+                simulation.getEventLog().record(EventType.SERVE, getCurrentTime(), meal.getCustomerID(), meal.getTableID(), waiterID, meal.getOrderItem());
+                FlightEvents.serve(getCurrentTime(), meal.getCustomerID(), waiterID, meal.getTableID(), meal.getOrderItem(),
+                        getCurrentTime() - meal.getCookedTime());
 
-                // Notify the customer that their meal has been served
-                customer.receiveMeal();
-                System.out.println("[" + RestaurantSimulation.minutesToTime(getCurrentTime()) + "] Waiter " + waiterID +
-                        " serves " + meal.getOrderItem() + " to Customer " + customer.getCustomerID() + " at Table " + customer.getTableID());
+                // Hand the meal to the customer through the order's completion handle
+                simulation.recordWaiterServe(waiterID, meal.getTableID());
+                meal.serve();
             }
+        } catch (InterruptedException e) {
+            // The simulation has ended
         } catch (Exception e) {
             System.out.println("An error occurred in Waiter " + waiterID + ": " + e.getMessage());
         }
@@ -43,6 +52,6 @@ public class Waiter implements Runnable {
      * @return The current time in the simulation, in minutes since midnight.
      */
     private int getCurrentTime() {
-        return RestaurantSimulation.currentTime;
+        return simulation.getCurrentTime();
     }
 }
@@ -0,0 +1,98 @@
+/**
+ * The WaiterSections class hands cooked meals from the chefs to the waiters of the threads engine.
+ * With sections, the tables are split into one block of consecutive table IDs per waiter and every
+ * waiter has a CookedMeals channel of their own: a chef puts each meal straight into the channel of
+ * the waiter who owns the table it was ordered from, so waiters never compete for the same meals.
+ * When the channel of a section already holds the rebalance threshold of meals, the meal goes to the
+ * section with the shortest backlog instead.
+ * Without sections, every waiter takes from one shared channel, as before.
+ */
+public class WaiterSections {
+    // Channel of each section, indexed by waiter ID - 1 (a single shared channel without sections)
+    private final CookedMeals[] channels;
+    // Number of tables split among the sections
+    private final int numTables;
+    // Backlog of a section at which meals go to another section (0 never reroutes)
+    private final int rebalanceThreshold;
+
+    /**
+     * Constructor to create the channels between chefs and waiters.
+     * @param numWaiters The number of waiters.
+     * @param numTables The number of tables.
+     * @param sectioned True to give every waiter a section of the tables, false for one shared channel.
+     * @param rebalanceThreshold The backlog of a section at which meals go to another section (0 never reroutes).
+     * @param capacity The number of meals each channel can hold.
+     * @param waitStrategy What chefs and waiters do while a channel is full or empty.
+     */
+    public WaiterSections(int numWaiters, int numTables, boolean sectioned, int rebalanceThreshold, int capacity, WaitStrategy waitStrategy) {
+        this.channels = new CookedMeals[sectioned ? Math.max(1, numWaiters) : 1];
+        for (int i = 0; i < channels.length; i++) {
+            channels[i] = new CookedMeals(capacity, waitStrategy);
+        }
+        this.numTables = numTables;
+        this.rebalanceThreshold = rebalanceThreshold;
+    }
+
+    /**
+     * Finds the section a table belongs to. The tables are split into blocks of consecutive IDs,
+     * the first block going to waiter 1.
+     * @param tableID The table.
+     * @param numTables The number of tables.
+     * @param numSections The number of sections.
+     * @return The section, from 0 to numSections - 1.
+     */
+    public static int sectionOf(int tableID, int numTables, int numSections) {
+        return (int) ((long) (tableID - 1) * numSections / Math.max(1, numTables));
+    }
+
+    /**
+     * Adds a cooked meal to the channel of the waiter who owns its table, or to the section with
+     * the shortest backlog when that channel has reached the rebalance threshold.
+     * Waits if the channel is full until its waiter takes a meal.
+     * @param meal The cooked meal.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public void addMeal(Order meal) throws InterruptedException {
+        if (channels.length == 1) {
+            channels[0].addMeal(meal);
+            return;
+        }
+        int section = sectionOf(meal.getTableID(), numTables, channels.length);
+        int backlog = channels[section].size();
+        if (rebalanceThreshold > 0 && backlog >= rebalanceThreshold) {
+            int shortest = section;
+            for (int i = 0; i < channels.length; i++) {
+                int size = channels[i].size();
+                if (size < backlog) {
+                    shortest = i;
+                    backlog = size;
+                }
+            }
+            section = shortest;
+        }
+        channels[section].addMeal(meal);
+    }
+
+    /**
+     * Gets the number of cooked meals waiting for a waiter, in all sections.
+     * @return The number of meals in the channels.
+     */
+    public int size() {
+        int size = 0;
+        for (CookedMeals channel : channels) {
+            size += channel.size();
+        }
+        return size;
+    }
+
+    /**
+     * Takes the next cooked meal of a waiter's section.
+     * Waits if no meal is available until a chef adds one.
+     * @param waiterID The waiter.
+     * @return The cooked meal.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public Order getMeal(int waiterID) throws InterruptedException {
+        return channels[channels.length == 1 ? 0 : waiterID - 1].getMeal();
+    }
+}
@@ -0,0 +1,178 @@
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The WorkStealingKitchen class gives every chef a queue of their own instead of one shared order queue.
+ * New orders go to the chef whose station owns the menu item (item IDs are dealt to the chefs in turn),
+ * or to the chefs in turn.
+ * Each chef's queue is a lock-free skip list in the order of the scheduling policy, like OrderQueue, so
+ * a chef takes their own orders first come first served under FIFO, shortest first under SJF, and so on.
+ * A chef whose queue is empty steals from another chef's queue, so no single queue is contended by every chef:
+ * the least urgent order under a priority policy, or the newest under FIFO (the tail of a work-stealing deque).
+ * A semaphore counts the orders in all queues, so idle chefs block instead of scanning.
+ * Every stolen order is counted per chef.
+ */
+public class WorkStealingKitchen implements OrderDispatcher {
+    // Queue of each chef, indexed by chef ID - 1
+    private final ConcurrentSkipListSet<Order>[] queues;
+    // How new orders are spread over the chefs
+    private final KitchenMode mode;
+    // Semaphore counting the orders available in all queues
+    private final CustomSemaphore ordersSemaphore = new CustomSemaphore(0);
+    // Chef that receives the next order in round-robin mode
+    private final AtomicInteger nextChef = new AtomicInteger();
+    // Number of orders each chef stole from another chef, indexed by chef ID - 1
+    private final AtomicLongArray stolen;
+    // Counter used to number orders as they are added
+    private final AtomicLong nextSequence = new AtomicLong();
+    // Policy giving each order its priority
+    private final OrderScheduler scheduler;
+    // Chefs holding a batch open for more orders of an item
+    private final BatchWaiters batchWaiters;
+
+    /**
+     * Constructor to create the queues of a kitchen, each first come first served, outside a simulation run.
+     * @param numChefs The number of chefs.
+     * @param itemCount The number of items on the menu.
+     * @param mode How new orders are spread over the chefs (ITEM or ROUND_ROBIN).
+     */
+    public WorkStealingKitchen(int numChefs, int itemCount, KitchenMode mode) {
+        this(numChefs, itemCount, mode, new OrderScheduler(SchedulingPolicy.FIFO));
+    }
+
+    /**
+     * Constructor to create the queues of a kitchen, each ordered by a scheduling policy.
+     * @param numChefs The number of chefs.
+     * @param itemCount The number of items on the menu.
+     * @param mode How new orders are spread over the chefs (ITEM or ROUND_ROBIN).
+     * @param scheduler The scheduler giving each order its priority.
+     */
+    @SuppressWarnings("unchecked")
+    public WorkStealingKitchen(int numChefs, int itemCount, KitchenMode mode, OrderScheduler scheduler) {
+        this.queues = (ConcurrentSkipListSet<Order>[]) new ConcurrentSkipListSet<?>[numChefs];
+        for (int i = 0; i < numChefs; i++) {
+            queues[i] = new ConcurrentSkipListSet<>(OrderQueue.BY_PRIORITY);
+        }
+        this.mode = mode;
+        this.stolen = new AtomicLongArray(numChefs);
+        this.scheduler = scheduler;
+        this.batchWaiters = new BatchWaiters(itemCount);
+    }
+
+    /**
+     * Adds an order to the queue of the chef it is assigned to, in the position given by its priority.
+     * @param order The order to add.
+     */
+    public void addOrder(Order order) {
+        int chef = mode == KitchenMode.ROUND_ROBIN
+                ? Math.floorMod(nextChef.getAndIncrement(), queues.length)
+                : order.getItemID() % queues.length;
+        // Number the order so that equal priorities keep their arrival order
+        order.setSequence(nextSequence.getAndIncrement());
+        order.setPriority(scheduler.priorityOf(order));
+        queues[chef].add(order);
+        // Signal that a new order is available
+        ordersSemaphore.release(order.getCustomerID());
+        batchWaiters.signal(order.getItemID());
+    }
+
+    /**
+     * Takes the first order of the chef's own queue, or steals the last order of another chef
+     * when the own queue is empty. Blocks until an order is available.
+     * @param chefID The chef asking for work.
+     * @return The order to prepare.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public Order takeOrder(int chefID) throws InterruptedException {
+        ordersSemaphore.acquire();
+        int own = chefID - 1;
+        // Each permit matches an order already in some queue, so the search always ends
+        while (true) {
+            Order order = queues[own].pollFirst();
+            if (order != null) {
+                scheduler.taken(order.getPriority());
+                return order;
+            }
+            for (int i = 1; i < queues.length; i++) {
+                order = queues[(own + i) % queues.length].pollLast();
+                if (order != null) {
+                    stolen.incrementAndGet(own);
+                    scheduler.taken(order.getPriority());
+                    return order;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Takes pending orders of the same menu item from the chef's own queue, in the order they would be served.
+     * @param chefID The chef building the batch.
+     * @param first The order the batch is built around.
+     * @param maxSize The largest number of orders in the batch.
+     * @param batch The batch, already holding the orders taken so far; matching orders are added to it.
+     * @return The number of orders added.
+     */
+    public int takeMatching(int chefID, Order first, int maxSize, List<Order> batch) {
+        int added = 0;
+        ConcurrentSkipListSet<Order> queue = queues[chefID - 1];
+        for (Order candidate : queue) {
+            if (batch.size() >= maxSize) {
+                break;
+            }
+            if (candidate.getItemID() != first.getItemID()) {
+                continue;
+            }
+            // Claim a permit first, so the order count stays in step with the queues
+            int permit = ordersSemaphore.tryAcquire();
+            if (permit == CustomSemaphore.NO_RESOURCE) {
+                break;
+            }
+            if (queue.remove(candidate)) {
+                scheduler.taken(candidate.getPriority());
+                batch.add(candidate);
+                added++;
+            } else {
+                // Another chef stole the order first
+                ordersSemaphore.release(permit);
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Registers the calling chef as holding a batch open; adding an order of the item wakes it.
+     * @param itemID The menu item ID of the batch.
+     */
+    public void holdBatch(int itemID) {
+        batchWaiters.register(itemID);
+    }
+
+    /**
+     * Ends the hold registered by holdBatch for the calling chef.
+     * @param itemID The menu item ID of the batch.
+     */
+    public void endHold(int itemID) {
+        batchWaiters.unregister(itemID);
+    }
+
+    /**
+     * Gets the number of orders waiting for a chef, in all queues.
+     * @return The number of orders in the queues.
+     */
+    public int size() {
+        return ordersSemaphore.getAvailablePermits();
+    }
+
+    /**
+     * Gets how many orders a chef took from another chef's queue.
+     * @param chefID The chef.
+     * @return The number of stolen orders.
+     */
+    public long getStolenCount(int chefID) {
+        return stolen.get(chefID - 1);
+    }
+}
@@ -0,0 +1,283 @@
+import java.io.*;
+import java.util.Random;
+
+/**
+ * The WorkloadGenerator class makes up the customers of a scenario instead of reading them from a file,
+ * for load tests with more customers than would be practical to store. The staffing and the menu come from
+ * the header and menu lines of a scenario file, whose customer lines are ignored.
+ * Arrivals follow a Poisson process whose rate follows an ArrivalShape over the day, generated by thinning:
+ * candidate arrivals are drawn at the peak rate and each is kept with the share of the rate at its time.
+ * Each customer orders a menu item drawn from a popularity distribution (uniform, Zipf by menu order,
+ * or weights per item), and comes with a party whose size is drawn from weights per size
+ * (every party is a single diner unless --party-sizes is given). Only the current customer is kept,
+ * so any number of customers can be streamed into the simulation, or written out in the scenario
+ * file format with the same seed.
+ */
+public class WorkloadGenerator implements CustomerSource {
+    // Scenario file the staffing and menu come from
+    private final ScenarioReader scenario;
+    // Number of customers to generate
+    private final int count;
+    // Arrival rate at the peak of the shape, in customers per minute
+    private final double arrivalRate;
+    // How the arrival rate changes over the day
+    private final ArrivalShape arrivalShape;
+    // Cumulative popularity of the menu items, indexed by item ID, ending at 1
+    private final double[] popularity;
+    // Party sizes that can be drawn, ascending, and their cumulative weights ending at 1
+    private final int[] partySizes;
+    private final double[] partyWeights;
+    // Share of customers who have a reservation
+    private final double reservationShare;
+    // Random numbers for the arrivals and orders
+    private Random random;
+    // Time of the last arrival, in fractional minutes since midnight
+    private double clock;
+    // Number of customers generated so far
+    private int generated;
+
+    // Fields of the current customer
+    private int arrivalTime;
+    private int orderItemID;
+    private int partySize = 1;
+    private boolean reserved;
+
+    /**
+     * Constructor to create a generator for the settings of a run.
+     * @param scenario The scenario file giving the staffing and the menu, positioned after the menu line.
+     * @param config The settings of the run: number of customers, arrival rate and shape, popularity, party sizes,
+     *               reservation share, start time and seed.
+     */
+    public WorkloadGenerator(ScenarioReader scenario, SimulationConfig config) {
+        this.scenario = scenario;
+        this.count = config.getGenerateCount();
+        this.arrivalRate = config.getArrivalRate();
+        this.arrivalShape = config.getArrivalShape();
+        if (arrivalRate <= 0) {
+            throw new IllegalArgumentException("The arrival rate must be positive");
+        }
+        this.clock = config.getGenerateStart();
+        Long seed = config.getWorkloadSeed() != null ? config.getWorkloadSeed() : config.getSeed();
+        this.random = seed == null ? new Random() : new Random(seed);
+
+        Menu menu = scenario.getMenu();
+        popularity = new double[menu.size()];
+        double total = 0;
+        for (int i = 0; i < popularity.length; i++) {
+            total += config.getPopularity(menu.getName(i), i);
+            popularity[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("At least one menu item must have a positive popularity");
+        }
+        for (int i = 0; i < popularity.length; i++) {
+            popularity[i] /= total;
+        }
+        popularity[popularity.length - 1] = 1.0;
+
+        partySizes = config.getPartySizes();
+        partyWeights = new double[partySizes.length];
+        double weights = 0;
+        for (int i = 0; i < partySizes.length; i++) {
+            weights += config.getPartySizeWeight(partySizes[i]);
+            partyWeights[i] = weights;
+        }
+        if (partySizes.length > 0 && weights <= 0) {
+            throw new IllegalArgumentException("At least one party size must have a positive weight");
+        }
+        for (int i = 0; i < partyWeights.length; i++) {
+            partyWeights[i] /= weights;
+        }
+        reservationShare = config.getReservationShare();
+    }
+
+    /**
+     * Generates the next customer: the next arrival of the shaped Poisson process and a menu item.
+     * @return True if a customer was generated, false once the number of customers is reached.
+     */
+    public boolean next() {
+        if (generated == count) {
+            return false;
+        }
+        do {
+            clock -= Math.log(1 - random.nextDouble()) / arrivalRate;
+        } while (random.nextDouble() >= arrivalShape.factorAt(clock));
+        generated++;
+        arrivalTime = (int) clock;
+        // Binary search for the first item whose cumulative popularity is above the draw
+        double draw = random.nextDouble();
+        int low = 0, high = popularity.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (popularity[middle] > draw) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        orderItemID = low;
+        // Only draw a party size if there is a choice, so workloads of single diners stay the same for a seed
+        if (partySizes.length > 1) {
+            double partyDraw = random.nextDouble();
+            int size = 0;
+            while (size < partySizes.length - 1 && partyWeights[size] <= partyDraw) {
+                size++;
+            }
+            partySize = partySizes[size];
+        } else if (partySizes.length == 1) {
+            partySize = partySizes[0];
+        }
+        // Likewise only draw reservations if some customers have one
+        reserved = reservationShare > 0 && random.nextDouble() < reservationShare;
+        return true;
+    }
+
+    /**
+     * Writes all the customers to a file in the scenario file format, starting with the header
+     * and menu lines of the scenario, so a generated workload can be replayed or inspected.
+     * @param fileName The file to write.
+     * @return The number of customers written.
+     * @throws IOException If the file cannot be written.
+     */
+    public int writeScenario(String fileName) throws IOException {
+        Menu menu = getMenu();
+        try (PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(fileName), 1 << 16), false)) {
+            StringBuilder line = new StringBuilder();
+            line.append("NC=").append(getNumChefs()).append(" NW=").append(getNumWaiters()).append(" NT=").append(getNumTables());
+            int[] tableSeats = getTableSeats();
+            if (tableSeats != null) {
+                line.append(" TC=");
+                for (int i = 0; i < tableSeats.length; i++) {
+                    line.append(i > 0 ? "," : "").append(tableSeats[i]);
+                }
+            }
+            out.println(line);
+            line.setLength(0);
+            for (int i = 0; i < menu.size(); i++) {
+                if (i > 0) {
+                    line.append(' ');
+                }
+                EventLog.appendTime(line.append(menu.getName(i)).append('='), menu.getPrepTime(i));
+            }
+            out.println(line);
+            while (next()) {
+                line.setLength(0);
+                line.append("ID=").append(getCustomerID()).append(" ArrivalTime=");
+                EventLog.appendTime(line, arrivalTime).append(" Order=").append(getOrderItem());
+                if (partySize != 1) {
+                    line.append(" Party=").append(partySize);
+                }
+                if (reserved) {
+                    line.append(" Reservation=1");
+                }
+                out.println(line);
+            }
+        }
+        return generated;
+    }
+
+    // Getter for the number of chefs (NC)
+    public int getNumChefs() {
+        return scenario.getNumChefs();
+    }
+
+    // Getter for the number of waiters (NW)
+    public int getNumWaiters() {
+        return scenario.getNumWaiters();
+    }
+
+    // Getter for the number of tables (NT)
+    public int getNumTables() {
+        return scenario.getNumTables();
+    }
+
+    // Getter for the seats of the tables, from the scenario file
+    public int[] getTableSeats() {
+        return scenario.getTableSeats();
+    }
+
+    // Getter for the menu, with preparation times in minutes
+    public Menu getMenu() {
+        return scenario.getMenu();
+    }
+
+    // Getter for the ID of the current customer, numbered from 1 in order of arrival
+    public int getCustomerID() {
+        return generated;
+    }
+
+    // Getter for the arrival time of the current customer, in minutes since midnight
+    public int getArrivalTime() {
+        return arrivalTime;
+    }
+
+    // Getter for the menu item ID of the current customer's order
+    public int getOrderItemID() {
+        return orderItemID;
+    }
+
+    // Getter for the order of the current customer (the shared menu item string)
+    public String getOrderItem() {
+        return scenario.getMenu().getName(orderItemID);
+    }
+
+    // Getter for the number of diners in the current customer's party
+    public int getPartySize() {
+        return partySize;
+    }
+
+    // Getter for whether the current customer has a reservation
+    public boolean hasReservation() {
+        return reserved;
+    }
+
+    /**
+     * Writes the number of customers generated, the arrival clock and the random number generator.
+     * The first value is -1, where a scenario file writes its size, so a checkpoint of one kind of
+     * source is not resumed with the other.
+     * @param out The checkpoint stream.
+     * @throws IOException If the stream cannot be written.
+     */
+    public void writePosition(DataOutputStream out) throws IOException {
+        out.writeLong(-1);
+        out.writeInt(generated);
+        out.writeDouble(clock);
+        ByteArrayOutputStream randomBytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream objects = new ObjectOutputStream(randomBytes)) {
+            objects.writeObject(random);
+        }
+        out.writeInt(randomBytes.size());
+        randomBytes.writeTo(out);
+    }
+
+    /**
+     * Continues generating after the customer saved by writePosition.
+     * @param in The checkpoint stream.
+     * @throws IOException If the stream cannot be read or was written for a scenario file.
+     */
+    public void readPosition(DataInputStream in) throws IOException {
+        if (in.readLong() != -1) {
+            throw new IOException("Checkpoint was taken with a scenario file, not a generated workload");
+        }
+        generated = in.readInt();
+        clock = in.readDouble();
+        byte[] randomBytes = new byte[in.readInt()];
+        in.readFully(randomBytes);
+        try (ObjectInputStream objects = new ObjectInputStream(new ByteArrayInputStream(randomBytes))) {
+            random = (Random) objects.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Checkpoint holds an unknown random number generator", e);
+        }
+        if (generated > count) {
+            throw new IOException("Checkpoint was taken after " + generated + " customers, more than --generate=" + count);
+        }
+    }
+
+    /**
+     * Closes the scenario file the staffing and menu came from.
+     * @throws IOException If the file cannot be closed.
+     */
+    public void close() throws IOException {
+        scenario.close();
+    }
+}